@@ -0,0 +1,118 @@
+package controlador;
+
+import modelo.Dispositivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.ConjuntoObjetivos;
+import util.ValidadorIP;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Índices del historial: cadenas por IP y por escaneo, tramos cubiertos y
+ * reapertura sin reconstruir.
+ */
+class HistorialEscaneosTest {
+
+    @TempDir
+    Path directorio;
+
+    private static int ip(String texto) {
+        return (int) ValidadorIP.parsearIPv4(texto);
+    }
+
+    private static Dispositivo activo(String direccion, long rtt) {
+        return new Dispositivo(ip(direccion), "", true, rtt);
+    }
+
+    private static List<String> ips(List<HistorialEscaneos.Registro> registros) {
+        List<String> resultado = new ArrayList<>();
+        for (HistorialEscaneos.Registro registro : registros) {
+            resultado.add(ValidadorIP.intToIp(registro.getIp()) + "#" + registro.getIdEscaneo());
+        }
+        return resultado;
+    }
+
+    @Test
+    void escaneosIntercalados() throws IOException {
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            int primero = historial.iniciarEscaneo(ConjuntoObjetivos.parsear("10.0.0.0/24"));
+            int segundo = historial.iniciarEscaneo(ConjuntoObjetivos.parsear("10.0.0.0/24"));
+            historial.registrar(primero, List.of(activo("10.0.0.1", 3)));
+            historial.registrar(segundo, List.of(activo("10.0.0.1", 4), activo("10.0.0.2", 5)));
+            historial.registrar(primero, List.of(activo("10.0.0.3", 6)));
+
+            assertEquals(List.of("10.0.0.1#1", "10.0.0.3#1"), ips(historial.registrosDeEscaneo(primero)));
+            assertEquals(List.of("10.0.0.1#2", "10.0.0.2#2"), ips(historial.registrosDeEscaneo(segundo)));
+            assertEquals(List.of("10.0.0.1#1", "10.0.0.1#2"), ips(historial.registrosDe(ip("10.0.0.1"))));
+            assertTrue(historial.registrosDe(ip("10.0.0.9")).isEmpty());
+        }
+    }
+
+    @Test
+    void reabrirConservaLosIndices() throws IOException {
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            int id = historial.iniciarEscaneo(ConjuntoObjetivos.parsear("10.0.0.0/24"));
+            historial.registrar(id, List.of(activo("10.0.0.1", 3), activo("10.0.0.2", 4)));
+            historial.finalizarEscaneo(id, HistorialEscaneos.ESTADO_COMPLETADO);
+        }
+        assertTrue(Files.exists(directorio.resolve("ips.idx")));
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            int id = historial.iniciarEscaneo(ConjuntoObjetivos.parsear("10.0.0.0/24"));
+            historial.registrar(id, List.of(activo("10.0.0.2", 7)));
+            assertEquals(List.of("10.0.0.2#1", "10.0.0.2#2"), ips(historial.registrosDe(ip("10.0.0.2"))));
+            assertEquals(List.of("10.0.0.1#1", "10.0.0.2#1"), ips(historial.registrosDeEscaneo(1)));
+        }
+        // Sin ips.idx se reconstruye y el segundo escaneo, cortado, queda cancelado
+        Files.delete(directorio.resolve("ips.idx"));
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            assertEquals(3, historial.getCantidadRegistros());
+            assertEquals(HistorialEscaneos.ESTADO_CANCELADO, historial.getEscaneos().get(1).getEstado());
+            assertEquals(List.of("10.0.0.2#2"), ips(historial.registrosDeEscaneo(2)));
+            assertEquals(List.of("10.0.0.2#1", "10.0.0.2#2"), ips(historial.registrosDe(ip("10.0.0.2"))));
+        }
+    }
+
+    @Test
+    void disponibilidadSoloEnLosTramosCubiertos() throws IOException {
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            for (int i = 0; i < 2; i++) {
+                int id = historial.iniciarEscaneo(ConjuntoObjetivos.parsear("10.0.0.0/24, 10.9.0.0/24"));
+                historial.registrar(id, i == 0 ? List.of(activo("10.9.0.5", 2)) : List.of());
+                historial.finalizarEscaneo(id, HistorialEscaneos.ESTADO_COMPLETADO);
+            }
+            HistorialEscaneos.ResumenEscaneo resumen = historial.getEscaneos().get(0);
+            assertTrue(resumen.cubre(ip("10.9.0.5")));
+            assertFalse(resumen.cubre(ip("10.5.0.1")));
+            assertEquals(0.5, historial.disponibilidad(ip("10.9.0.5"), 0, Long.MAX_VALUE));
+            // Entre los dos bloques no se escaneó nada
+            assertEquals(-1, historial.disponibilidad(ip("10.5.0.1"), 0, Long.MAX_VALUE));
+        }
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            assertFalse(historial.getEscaneos().get(1).cubre(ip("10.5.0.1")));
+        }
+    }
+
+    @Test
+    void reanudadoRegistraLosPreviosYElConjuntoOriginal() throws IOException {
+        try (HistorialEscaneos historial = HistorialEscaneos.abrir(directorio)) {
+            EscanerRed.EscanerRedListener listener = historial.crearListener(
+                ConjuntoObjetivos.parsear("10.0.0.0/24"), List.of(activo("10.0.0.1", 3)));
+            listener.onEscaneoIniciado(128);
+            listener.onHostsDescubiertos(List.of(activo("10.0.0.200", 4)));
+            listener.onEscaneoCompletado(2, 10);
+
+            assertEquals(List.of("10.0.0.1#1", "10.0.0.200#1"), ips(historial.registrosDeEscaneo(1)));
+            assertTrue(historial.getEscaneos().get(0).cubre(ip("10.0.0.1")));
+            assertEquals(HistorialEscaneos.ESTADO_COMPLETADO, historial.getEscaneos().get(0).getEstado());
+        }
+    }
+}
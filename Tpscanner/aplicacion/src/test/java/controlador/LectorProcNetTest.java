@@ -0,0 +1,103 @@
+package controlador;
+
+import modelo.ConexionRed;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * LectorProcNet sobre la captura de /proc/net tomada en el mismo instante que
+ * netstat-linux.txt: las dos fuentes deben dar la misma tabla de sockets.
+ */
+class LectorProcNetTest {
+
+    private static List<ConexionRed> leerCaptura() throws Exception {
+        // Las direcciones están en el orden de bytes de la máquina que las capturó
+        assumeTrue(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+        return new LectorProcNet(directorioCaptura(), null).leer();
+    }
+
+    private static Path directorioCaptura() throws URISyntaxException {
+        return Path.of(LectorProcNetTest.class.getResource("/netstat/proc-net").toURI());
+    }
+
+    /**
+     * netstat muestra ::ffff:a.b.c.d como a.b.c.d
+     */
+    private static String clave(ConexionRed c) {
+        return c.getProtocolo() + " " + sinMapeo(c.getDireccionLocal()) + ":" + c.getPuertoLocal()
+            + " " + sinMapeo(c.getDireccionRemota()) + ":" + c.getPuertoRemoto() + " " + c.getEstado();
+    }
+
+    private static String sinMapeo(String direccion) {
+        return direccion.startsWith("::ffff:") ? direccion.substring(7) : direccion;
+    }
+
+    private static List<String> ordenadas(List<ConexionRed> conexiones) {
+        List<String> claves = new ArrayList<>();
+        for (ConexionRed conexion : conexiones) {
+            claves.add(clave(conexion));
+        }
+        claves.sort(null);
+        return claves;
+    }
+
+    @Test
+    void mismaTablaQueNetstat() throws Exception {
+        List<ConexionRed> procNet = leerCaptura();
+        List<ConexionRed> netstat = ParserNetstatTest.parsearCaptura("netstat-linux.txt");
+        assertEquals(817, procNet.size());
+        assertEquals(ordenadas(netstat), ordenadas(procNet));
+    }
+
+    @Test
+    void sinResolutorQuedanSinPid() throws Exception {
+        for (ConexionRed conexion : leerCaptura()) {
+            assertEquals(-1, conexion.getPid());
+            assertEquals("N/A", conexion.getNombreProceso());
+        }
+    }
+
+    @Test
+    void ipv6EnlaceLocalYMapeadas() throws Exception {
+        List<ConexionRed> conexiones = leerCaptura();
+        ConexionRed enlaceLocal = null;
+        int mapeadas = 0;
+        for (ConexionRed conexion : conexiones) {
+            if ("fe80::1".equals(conexion.getDireccionLocal()) && conexion.getPuertoLocal() == 2222
+                    && conexion.getPuertoRemoto() == 0) {
+                enlaceLocal = conexion;
+            }
+            if (conexion.getDireccionLocal().startsWith("::ffff:")) {
+                mapeadas++;
+            }
+        }
+        assertNotNull(enlaceLocal);
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, enlaceLocal.getEstado());
+        assertEquals("::", enlaceLocal.getDireccionRemota());
+        // tcp6 tiene 30 conexiones IPv4 mapeadas (::ffff:127.0.0.1)
+        assertEquals(30, mapeadas);
+    }
+
+    @Test
+    void formatoIPv6() {
+        byte[] bucle = new byte[16];
+        bucle[15] = 1;
+        assertEquals("::1", LectorProcNet.formatearIPv6(bucle));
+        byte[] mapeada = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xff, (byte) 0xff, 10, 0, 0, 7};
+        assertEquals("::ffff:10.0.0.7", LectorProcNet.formatearIPv6(mapeada));
+        byte[] enlaceLocal = new byte[16];
+        enlaceLocal[0] = (byte) 0xfe;
+        enlaceLocal[1] = (byte) 0x80;
+        enlaceLocal[15] = 1;
+        assertEquals("fe80::1", LectorProcNet.formatearIPv6(enlaceLocal));
+    }
+}
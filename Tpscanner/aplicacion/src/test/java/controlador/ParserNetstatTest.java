@@ -0,0 +1,209 @@
+package controlador;
+
+import modelo.ConexionRed;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ParserNetstat sobre salidas reales de netstat (src/test/resources/netstat) y
+ * sobre líneas sueltas con los casos que más fallaban.
+ */
+class ParserNetstatTest {
+
+    static List<String> leerCaptura(String nombre) throws IOException {
+        InputStream entrada = ParserNetstatTest.class.getResourceAsStream("/netstat/" + nombre);
+        assertNotNull(entrada, "Falta la captura " + nombre);
+        List<String> lineas = new ArrayList<>();
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                lineas.add(linea);
+            }
+        }
+        return lineas;
+    }
+
+    /**
+     * Parsea todas las líneas de tcp/udp de la captura y falla con la primera que no entiende
+     */
+    static List<ConexionRed> parsearCaptura(String nombre) throws IOException {
+        List<ConexionRed> conexiones = new ArrayList<>();
+        for (String linea : leerCaptura(nombre)) {
+            String protocolo = linea.stripLeading().toLowerCase();
+            ConexionRed conexion = ParserNetstat.parsear(linea);
+            if (protocolo.startsWith("tcp") || protocolo.startsWith("udp")) {
+                assertNotNull(conexion, "No se entendió: " + linea);
+                conexiones.add(conexion);
+            } else {
+                assertNull(conexion, "Se aceptó una línea que no es un socket: " + linea);
+            }
+        }
+        return conexiones;
+    }
+
+    private static ConexionRed buscar(List<ConexionRed> conexiones, String direccion, int puerto) {
+        for (ConexionRed conexion : conexiones) {
+            if (conexion.getDireccionLocal().equals(direccion) && conexion.getPuertoLocal() == puerto) {
+                return conexion;
+            }
+        }
+        throw new AssertionError("No está " + direccion + ":" + puerto);
+    }
+
+    private static long contar(List<ConexionRed> conexiones, ConexionRed.EstadoConexion estado) {
+        return conexiones.stream().filter(c -> c.getEstado() == estado).count();
+    }
+
+    @Test
+    void capturaLinux() throws IOException {
+        List<ConexionRed> conexiones = parsearCaptura("netstat-linux.txt");
+        assertEquals(817, conexiones.size());
+        assertEquals(5, contar(conexiones, ConexionRed.EstadoConexion.SYN_SENT));
+        assertEquals(0, contar(conexiones, ConexionRed.EstadoConexion.UNKNOWN));
+
+        ConexionRed enlaceLocal = buscar(conexiones, "fe80::1", 2222);
+        assertEquals(ConexionRed.TipoProtocolo.TCP, enlaceLocal.getProtocolo());
+        assertEquals("::", enlaceLocal.getDireccionRemota());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, enlaceLocal.getEstado());
+        assertTrue(enlaceLocal.getPid() > 0);
+        assertEquals("python3", enlaceLocal.getNombreProceso());
+
+        ConexionRed todas = buscar(conexiones, "::", 8443);
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, todas.getEstado());
+        assertEquals(0, todas.getPuertoRemoto());
+
+        // udp sin columna de estado
+        ConexionRed mdns = buscar(conexiones, "0.0.0.0", 5353);
+        assertEquals(ConexionRed.TipoProtocolo.UDP, mdns.getProtocolo());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, mdns.getEstado());
+        assertEquals("python3", mdns.getNombreProceso());
+        ConexionRed ntp = buscar(conexiones, "::", 123);
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, ntp.getEstado());
+        assertEquals(ConexionRed.EstadoConexion.ESTABLISHED, buscar(conexiones, "127.0.0.1", 40000).getEstado());
+    }
+
+    @Test
+    void capturaWindows() throws IOException {
+        List<ConexionRed> conexiones = parsearCaptura("netstat-windows.txt");
+        assertEquals(ConexionRed.EstadoConexion.SYN_RECEIVED, buscar(conexiones, "192.168.0.24", 50514).getEstado());
+        // BOUND no tiene equivalente: no se supone ESTABLISHED
+        assertEquals(ConexionRed.EstadoConexion.UNKNOWN, buscar(conexiones, "192.168.0.24", 50620).getEstado());
+
+        ConexionRed rpc = buscar(conexiones, "::", 135);
+        assertEquals("::", rpc.getDireccionRemota());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, rpc.getEstado());
+
+        ConexionRed smb = buscar(conexiones, "fe80::3c1a:8f2e:9b4d:12a7%12", 52144);
+        assertEquals("fe80::1%12", smb.getDireccionRemota());
+        assertEquals(445, smb.getPuertoRemoto());
+        assertEquals(4, smb.getPid());
+
+        ConexionRed global = buscar(conexiones, "2800:810:4a2:1e0:9d3c:71b2:5e0f:88a1", 52201);
+        assertEquals("2606:4700::6812:1a2f", global.getDireccionRemota());
+        assertEquals(443, global.getPuertoRemoto());
+
+        // UDP sin estado y con "*:*" de la familia de la dirección local
+        ConexionRed udp6 = buscar(conexiones, "::", 5353);
+        assertEquals(ConexionRed.TipoProtocolo.UDP, udp6.getProtocolo());
+        assertEquals("::", udp6.getDireccionRemota());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, udp6.getEstado());
+        assertEquals("0.0.0.0", buscar(conexiones, "0.0.0.0", 123).getDireccionRemota());
+    }
+
+    @Test
+    void capturaMacOs() throws IOException {
+        // La sección de sockets UNIX del final se descarta en parsearCaptura
+        List<ConexionRed> conexiones = parsearCaptura("netstat-macos.txt");
+        assertEquals(ConexionRed.EstadoConexion.SYN_RECEIVED, buscar(conexiones, "192.168.1.23", 8080).getEstado());
+        assertEquals(52814, buscar(conexiones, "192.168.1.23", 52814).getPuertoLocal());
+
+        // tcp4 con "*" es IPv4 aunque no haya ':' en la dirección
+        ConexionRed http = buscar(conexiones, "0.0.0.0", 80);
+        assertEquals("0.0.0.0", http.getDireccionRemota());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, http.getEstado());
+        assertEquals("::", buscar(conexiones, "::", 5000).getDireccionRemota());
+        assertEquals(ConexionRed.EstadoConexion.CLOSE, buscar(conexiones, "127.0.0.1", 49152).getEstado());
+
+        ConexionRed zona = buscar(conexiones, "fe80::1c2b:3d4e:5f60:7182%en0", 52100);
+        assertEquals("fe80::aa:bbff:fecc:ddee%en0", zona.getDireccionRemota());
+        assertEquals(22, zona.getPuertoRemoto());
+
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, buscar(conexiones, "192.168.1.23", 123).getEstado());
+        assertEquals(ConexionRed.EstadoConexion.ESTABLISHED, buscar(conexiones, "127.0.0.1", 53012).getEstado());
+    }
+
+    @Test
+    void ipv6ConZonaYCorchetes() {
+        ConexionRed zona = ParserNetstat.parsear("tcp6  0  0 fe80::1%eth0:22  fe80::2%eth0:51000  ESTABLISHED 412/sshd");
+        assertNotNull(zona);
+        assertEquals("fe80::1%eth0", zona.getDireccionLocal());
+        assertEquals(22, zona.getPuertoLocal());
+        assertEquals("fe80::2%eth0", zona.getDireccionRemota());
+        assertEquals(51000, zona.getPuertoRemoto());
+        assertEquals(412, zona.getPid());
+        assertEquals("sshd", zona.getNombreProceso());
+
+        ConexionRed corchetes = ParserNetstat.parsear("  TCP    [::]:443               [::]:0                 LISTENING       4");
+        assertNotNull(corchetes);
+        assertEquals("::", corchetes.getDireccionLocal());
+        assertEquals(443, corchetes.getPuertoLocal());
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, corchetes.getEstado());
+        assertEquals(4, corchetes.getPid());
+    }
+
+    @Test
+    void protocoloSinImportarMayusculas() {
+        for (String protocolo : new String[] {"tcp", "TCP", "Tcp", "tcp4", "TCP6", "tcpv6"}) {
+            ConexionRed conexion = ParserNetstat.parsear(protocolo + "  10.0.0.5:49712  10.0.0.1:443  ESTABLISHED  1234");
+            assertNotNull(conexion, protocolo);
+            assertEquals(ConexionRed.TipoProtocolo.TCP, conexion.getProtocolo());
+        }
+        assertEquals(ConexionRed.TipoProtocolo.UDP, ParserNetstat.parsear("Udp 0.0.0.0:53 *:*").getProtocolo());
+        assertNull(ParserNetstat.parsear("tcpx 10.0.0.5:1 10.0.0.1:2 ESTABLISHED"));
+    }
+
+    @Test
+    void udpSinEstado() {
+        ConexionRed escucha = ParserNetstat.parsear("udp        0      0 0.0.0.0:68              0.0.0.0:*                           601/dhclient");
+        assertEquals(ConexionRed.EstadoConexion.LISTENING, escucha.getEstado());
+        assertEquals(601, escucha.getPid());
+        assertEquals("dhclient", escucha.getNombreProceso());
+
+        ConexionRed conectada = ParserNetstat.parsear("  UDP    10.0.0.5:5000          10.0.0.9:6000                          77");
+        assertEquals(ConexionRed.EstadoConexion.ESTABLISHED, conectada.getEstado());
+        assertEquals(77, conectada.getPid());
+    }
+
+    @Test
+    void estadosDesconocidosYLineasInvalidas() {
+        assertEquals(ConexionRed.EstadoConexion.UNKNOWN,
+            ParserNetstat.parsear("tcp 0 0 10.0.0.5:1 10.0.0.1:2 NEW_SYN_RECV -").getEstado());
+        assertEquals(ConexionRed.EstadoConexion.UNKNOWN,
+            ParserNetstat.parsear("tcp 0 0 10.0.0.5:1 10.0.0.1:2").getEstado());
+        assertEquals(ConexionRed.EstadoConexion.SYN_RECEIVED,
+            ParserNetstat.parsear("tcp4 0 0 10.0.0.5.80 10.0.0.1.5000 SYN_RCVD").getEstado());
+        assertNull(ParserNetstat.parsear("tcp 0 0 10.0.0.5:70000 10.0.0.1:2 ESTABLISHED"));
+        assertNull(ParserNetstat.parsear("Proto Recv-Q Send-Q Local Address Foreign Address State"));
+        assertNull(ParserNetstat.parsear("  Proto  Dirección local        Dirección remota       Estado          PID"));
+        assertNull(ParserNetstat.parsear(""));
+    }
+
+    @Test
+    void nombreDeProcesoConEspacios() {
+        ConexionRed conexion = ParserNetstat.parsear(
+            "udp        0      0 0.0.0.0:5353            0.0.0.0:*                           388/avahi-daemon: r ");
+        assertEquals("avahi-daemon: r", conexion.getNombreProceso());
+    }
+}
@@ -0,0 +1,69 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConjuntoObjetivosTest {
+
+    private static int ip(String texto) {
+        return (int) ValidadorIP.parsearIPv4(texto);
+    }
+
+    @Test
+    void bloqueSinRedNiBroadcast() {
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear("192.168.1.0/24");
+        assertEquals(254, objetivos.tamanio());
+        assertEquals("192.168.1.1-192.168.1.254", objetivos.toString());
+    }
+
+    @Test
+    void redYBroadcastDeUnBloqueNoQuitanDireccionesDeOtro() {
+        // 10.0.1.0 y 10.0.1.255 son hosts del /16 aunque sean red y broadcast del /24
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear("10.0.0.0/16, 10.0.1.0/24");
+        assertEquals(65534, objetivos.tamanio());
+        assertTrue(objetivos.contiene(ip("10.0.1.0")));
+        assertTrue(objetivos.contiene(ip("10.0.1.255")));
+        assertFalse(objetivos.contiene(ip("10.0.0.0")));
+        assertFalse(objetivos.contiene(ip("10.0.255.255")));
+
+        ConjuntoObjetivos contiguos = ConjuntoObjetivos.parsear("10.0.0.0/24 10.0.1.0/24");
+        assertEquals("10.0.0.1-10.0.0.254, 10.0.1.1-10.0.1.254", contiguos.toString());
+    }
+
+    @Test
+    void exclusionQuitaElBloqueEntero() {
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear("10.0.0.0/16 !10.0.5.0/24");
+        assertEquals(65534 - 256, objetivos.tamanio());
+        assertFalse(objetivos.contiene(ip("10.0.5.0")));
+        assertFalse(objetivos.contiene(ip("10.0.5.255")));
+        assertTrue(objetivos.contiene(ip("10.0.4.255")));
+        assertTrue(objetivos.contiene(ip("10.0.6.0")));
+    }
+
+    @Test
+    void rangosYDireccionesSueltas() {
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear("10.1.0.50-10.1.0.1, 192.168.1.7, 10.1.0.51");
+        assertEquals(52, objetivos.tamanio());
+        assertEquals(2, objetivos.getCantidadTramos());
+        // /31 y /32 se escanean completos
+        assertEquals(2, ConjuntoObjetivos.parsear("10.2.0.0/31").tamanio());
+    }
+
+    @Test
+    void descartaReservadas() {
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear("126.255.255.250-128.0.0.5");
+        assertFalse(objetivos.contiene(ip("127.0.0.1")));
+        assertEquals(6 + 6, objetivos.tamanio());
+    }
+
+    @Test
+    void entradasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> ConjuntoObjetivos.parsear(""));
+        assertThrows(IllegalArgumentException.class, () -> ConjuntoObjetivos.parsear("10.0.0.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> ConjuntoObjetivos.parsear("10.0.0.300"));
+    }
+}
@@ -0,0 +1,126 @@
+package controlador;
+
+import modelo.Dispositivo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.ConjuntoObjetivos;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste propio de EscanerRed (recorrido de objetivos, ventana de sondas, despacho
+ * de eventos y listeners) con una sonda que responde al instante sin tocar la red.
+ * Un escaneo completo de una /16 por operación; uno de cada cuatro hosts está activo.
+ * intervaloMs = 0 entrega cada evento por separado; 100 es el valor por defecto.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EscanerRedBenchmark {
+    private static final ConjuntoObjetivos OBJETIVOS = ConjuntoObjetivos.parsear("10.0.0.0/16");
+
+    @Param({"0", "100"})
+    public long intervaloMs;
+
+    @Param({"1", "8"})
+    public int listeners;
+
+    private SondaHost sonda;
+
+    /**
+     * Sonda sin red: completa el futuro en el acto
+     */
+    private static final class SondaInstantanea implements SondaHost {
+        @Override
+        public Dispositivo sondear(int ip, int tiempoEsperaMs) {
+            return new Dispositivo(ip, "", (ip & 3) == 0, 0);
+        }
+
+        @Override
+        public CompletableFuture<Dispositivo> sondearAsync(int ip, int tiempoEsperaMs, Executor executor) {
+            return CompletableFuture.completedFuture(sondear(ip, tiempoEsperaMs));
+        }
+
+        @Override
+        public int getCapacidad() {
+            return 1024;
+        }
+    }
+
+    /**
+     * Listener que solo consume los eventos
+     */
+    private static final class ListenerVacio implements EscanerRed.EscanerRedListener {
+        private final Blackhole bh;
+
+        ListenerVacio(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onEscaneoIniciado(long totalIps) {
+            bh.consume(totalIps);
+        }
+
+        @Override
+        public void onHostDescubierto(Dispositivo dispositivo) {
+            bh.consume(dispositivo);
+        }
+
+        @Override
+        public void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+            bh.consume(dispositivos);
+        }
+
+        @Override
+        public void onProgreso(long completados, long total, double porcentaje) {
+            bh.consume(completados);
+        }
+
+        @Override
+        public void onErrorEscaneo(String ip, String error) {
+            bh.consume(error);
+        }
+
+        @Override
+        public void onEscaneoCompletado(int totalActivos, long duracionMs) {
+            bh.consume(totalActivos);
+        }
+
+        @Override
+        public void onEscaneoCancelado() {
+        }
+    }
+
+    @Setup
+    public void preparar() {
+        sonda = new SondaInstantanea();
+    }
+
+    @Benchmark
+    public void escanearSinRed(Blackhole bh) {
+        EscanerRed escaner = new EscanerRed(OBJETIVOS, 1000, 1024, true, sonda);
+        escaner.setResolvedorNombres(null);
+        escaner.setIntervaloDespacho(intervaloMs);
+        for (int i = 0; i < listeners; i++) {
+            escaner.agregarListener(new ListenerVacio(bh));
+        }
+        escaner.escanear();
+    }
+}
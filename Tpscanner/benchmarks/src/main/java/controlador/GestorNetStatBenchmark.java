@@ -0,0 +1,76 @@
+package controlador;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser de líneas de netstat sobre salidas grabadas (netstat-*.txt de
+ * aplicacion/src/test/resources/netstat, las mismas de las pruebas), incluidas
+ * las cabeceras y las líneas que no son conexiones. El parser no lanza
+ * procesos, así que se mide solo el parseo. Resultado por operación: la salida completa.
+ * Al preparar se verifica que toda línea tcp/udp de la captura se entienda.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GestorNetStatBenchmark {
+    @Param({"windows", "linux", "macos"})
+    public String sistema;
+
+    private GestorNetStat gestor;
+    private String[] lineas;
+
+    @Setup
+    public void preparar() throws IOException {
+        gestor = new GestorNetStat();
+        List<String> leidas = new ArrayList<>();
+        String recurso = "/netstat-" + sistema + ".txt";
+        try (InputStream entrada = GestorNetStatBenchmark.class.getResourceAsStream(recurso)) {
+            if (entrada == null) {
+                throw new IOException("Falta el recurso " + recurso);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                leidas.add(linea);
+            }
+        }
+        lineas = leidas.toArray(new String[0]);
+
+        for (String linea : lineas) {
+            String inicio = linea.stripLeading().toLowerCase();
+            if ((inicio.startsWith("tcp") || inicio.startsWith("udp")) && gestor.parsearLineaNetstat(linea) == null) {
+                throw new IllegalStateException("El parser no entiende la línea de " + recurso + ": " + linea);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parsearSalida(Blackhole bh) {
+        for (String linea : lineas) {
+            bh.consume(gestor.parsearLineaNetstat(linea));
+        }
+    }
+}
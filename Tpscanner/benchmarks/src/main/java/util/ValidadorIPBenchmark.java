@@ -0,0 +1,87 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación y conversión de direcciones IPv4 sobre un lote fijo de entradas.
+ * Una de cada ocho entradas es inválida para que la ruta de error también cuente.
+ * Los resultados son por operación (un lote de TAMANIO_LOTE direcciones).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidadorIPBenchmark {
+    private static final int TAMANIO_LOTE = 1024;
+    private static final String[] INVALIDAS = {
+        "256.1.1.1", "10.0.0", "10.0.0.0.1", "abc.def.ghi.jkl", "", "1..2.3", "01234.1.1.1", " "
+    };
+
+    private String[] textos;
+    private String[] validas;
+    private long[] valores;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(36);
+        textos = new String[TAMANIO_LOTE];
+        validas = new String[TAMANIO_LOTE];
+        valores = new long[TAMANIO_LOTE];
+        for (int i = 0; i < TAMANIO_LOTE; i++) {
+            long valor = aleatorio.nextInt() & 0xFFFFFFFFL;
+            valores[i] = valor;
+            validas[i] = ValidadorIP.longToIp(valor);
+            textos[i] = i % 8 == 7 ? INVALIDAS[aleatorio.nextInt(INVALIDAS.length)] : validas[i];
+        }
+    }
+
+    @Benchmark
+    public void esIPValida(Blackhole bh) {
+        for (String texto : textos) {
+            bh.consume(ValidadorIP.esIPValida(texto));
+        }
+    }
+
+    @Benchmark
+    public void ipToLong(Blackhole bh) {
+        for (String texto : validas) {
+            bh.consume(ValidadorIP.ipToLong(texto));
+        }
+    }
+
+    @Benchmark
+    public void longToIp(Blackhole bh) {
+        for (long valor : valores) {
+            bh.consume(ValidadorIP.longToIp(valor));
+        }
+    }
+
+    @Benchmark
+    public void ipToInt(Blackhole bh) {
+        for (String texto : validas) {
+            bh.consume(ValidadorIP.ipToInt(texto));
+        }
+    }
+
+    @Benchmark
+    public void intToIp(Blackhole bh) {
+        for (long valor : valores) {
+            bh.consume(ValidadorIP.intToIp((int) valor));
+        }
+    }
+}
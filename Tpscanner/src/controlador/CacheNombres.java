@@ -0,0 +1,189 @@
+package controlador;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de DNS inverso acotada y thread-safe, compartida por todos los escáneres.
+ * Guarda también las respuestas negativas (sin nombre) con un TTL propio y
+ * expulsa la entrada menos usada cuando se llena.
+ */
+public class CacheNombres {
+    private static final int CAPACIDAD_POR_DEFECTO = 10_000;
+    private static final long TTL_POR_DEFECTO_MS = 60 * 60 * 1000L;
+    private static final long TTL_NEGATIVO_POR_DEFECTO_MS = 5 * 60 * 1000L;
+    private static final CacheNombres COMPARTIDA =
+        new CacheNombres(CAPACIDAD_POR_DEFECTO, TTL_POR_DEFECTO_MS, TTL_NEGATIVO_POR_DEFECTO_MS);
+
+    private static final class Entrada {
+        final String nombre;
+        final long expiraMs;
+
+        Entrada(String nombre, long expiraMs) {
+            this.nombre = nombre;
+            this.expiraMs = expiraMs;
+        }
+    }
+
+    private final LinkedHashMap<String, Entrada> entradas;
+    private int capacidad;
+    private volatile long ttlMs;
+    private volatile long ttlNegativoMs;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+
+    public CacheNombres(int capacidad, long ttlMs, long ttlNegativoMs) {
+        this.capacidad = Math.max(1, capacidad);
+        this.ttlMs = Math.max(0, ttlMs);
+        this.ttlNegativoMs = Math.max(0, ttlNegativoMs);
+        // accessOrder = true: el orden de iteración es de menos a más recientemente usado
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                if (size() > CacheNombres.this.capacidad) {
+                    expulsiones.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Caché compartida por todos los EscanerRed del proceso
+     */
+    public static CacheNombres compartida() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Devuelve el nombre en caché ("" para respuestas negativas) o null si no está o expiró
+     */
+    public String obtener(String ip) {
+        long ahora = System.currentTimeMillis();
+        synchronized (this) {
+            Entrada entrada = entradas.get(ip);
+            if (entrada != null && entrada.expiraMs > ahora) {
+                aciertos.increment();
+                return entrada.nombre;
+            }
+            if (entrada != null) {
+                entradas.remove(ip);
+            }
+        }
+        fallos.increment();
+        return null;
+    }
+
+    /**
+     * Almacena un nombre; la cadena vacía se guarda como respuesta negativa
+     */
+    public void guardar(String ip, String nombre) {
+        String valor = nombre == null ? "" : nombre;
+        long ttl = valor.isEmpty() ? ttlNegativoMs : ttlMs;
+        if (ttl <= 0) {
+            return;
+        }
+        Entrada entrada = new Entrada(valor, System.currentTimeMillis() + ttl);
+        synchronized (this) {
+            entradas.put(ip, entrada);
+        }
+    }
+
+    public synchronized void configurar(int capacidad, long ttlMs, long ttlNegativoMs) {
+        this.capacidad = Math.max(1, capacidad);
+        this.ttlMs = Math.max(0, ttlMs);
+        this.ttlNegativoMs = Math.max(0, ttlNegativoMs);
+        while (entradas.size() > this.capacidad) {
+            entradas.remove(entradas.keySet().iterator().next());
+            expulsiones.increment();
+        }
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+    }
+
+    public synchronized int tamanio() {
+        return entradas.size();
+    }
+
+    public long getAciertos() { return aciertos.sum(); }
+    public long getFallos() { return fallos.sum(); }
+    public long getExpulsiones() { return expulsiones.sum(); }
+    public long getTtlMs() { return ttlMs; }
+    public long getTtlNegativoMs() { return ttlNegativoMs; }
+
+    /**
+     * Vuelca las entradas vigentes en un archivo de texto (ip, nombre, expiración)
+     */
+    public void guardarEn(Path archivo) throws IOException {
+        List<String> lineas = new ArrayList<>();
+        long ahora = System.currentTimeMillis();
+        synchronized (this) {
+            for (Map.Entry<String, Entrada> e : entradas.entrySet()) {
+                if (e.getValue().expiraMs > ahora) {
+                    lineas.add(e.getKey() + '\t' + e.getValue().nombre + '\t' + e.getValue().expiraMs);
+                }
+            }
+        }
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            for (String linea : lineas) {
+                writer.write(linea);
+                writer.newLine();
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga entradas no expiradas desde un archivo creado con guardarEn
+     */
+    public int cargarDe(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+
+        int cargadas = 0;
+        long ahora = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split("\t", -1);
+                if (partes.length != 3) {
+                    continue;
+                }
+                try {
+                    long expira = Long.parseLong(partes[2]);
+                    if (expira > ahora) {
+                        synchronized (this) {
+                            entradas.put(partes[0], new Entrada(partes[1], expira));
+                        }
+                        cargadas++;
+                    }
+                } catch (NumberFormatException e) {
+                    // Ignorar líneas corruptas
+                }
+            }
+        }
+        return cargadas;
+    }
+}
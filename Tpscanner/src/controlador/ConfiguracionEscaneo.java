@@ -1,6 +1,9 @@
 // File: src/controlador/ConfiguracionEscaneo.java
 package controlador;
 
+import util.ConjuntoObjetivos;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.prefs.Preferences;
 
 
@@ -9,6 +12,17 @@ public class ConfiguracionEscaneo {
     private static final String KEY_IP_BASE = "ip_base";
     private static final String KEY_TIEMPO_ESPERA = "tiempo_espera";
     private static final String KEY_ULTIMA_RED = "ultima_red";
+    private static final String KEY_TIMEOUT_ADAPTATIVO = "timeout_adaptativo";
+    private static final String KEY_OBJETIVOS = "objetivos";
+    private static final String KEY_INCREMENTAL = "incremental";
+    private static final String KEY_TASA_PAQUETES = "tasa_paquetes";
+    private static final String KEY_RAFAGA = "rafaga";
+    private static final String KEY_PUERTOS = "puertos";
+    private static final String KEY_CACHE_DNS_PERSISTENTE = "cache_dns_persistente";
+    private static final String KEY_CACHE_DNS_CAPACIDAD = "cache_dns_capacidad";
+    private static final String KEY_CACHE_DNS_TTL = "cache_dns_ttl";
+    private static final String KEY_CACHE_DNS_TTL_NEGATIVO = "cache_dns_ttl_negativo";
+    private static final String DIRECTORIO_DATOS = ".escaner_red";
 
     private final Preferences prefs;
 
@@ -33,6 +47,63 @@ public class ConfiguracionEscaneo {
         return prefs.getInt(KEY_TIEMPO_ESPERA, 1000);
     }
 
+    public void guardarTimeoutAdaptativo(boolean adaptativo) {
+        prefs.putBoolean(KEY_TIMEOUT_ADAPTATIVO, adaptativo);
+    }
+
+    public boolean cargarTimeoutAdaptativo() {
+        return prefs.getBoolean(KEY_TIMEOUT_ADAPTATIVO, false);
+    }
+
+    /**
+     * Especificación de objetivos (CIDR, rangos, exclusiones); vacía usa IP inicio/fin
+     */
+    public void guardarObjetivos(String objetivos) {
+        prefs.put(KEY_OBJETIVOS, objetivos == null ? "" : objetivos.trim());
+    }
+
+    public String cargarObjetivos() {
+        return prefs.get(KEY_OBJETIVOS, "");
+    }
+
+    public void guardarIncremental(boolean incremental) {
+        prefs.putBoolean(KEY_INCREMENTAL, incremental);
+    }
+
+    public boolean cargarIncremental() {
+        return prefs.getBoolean(KEY_INCREMENTAL, false);
+    }
+
+    /**
+     * Sondas por segundo; 0 significa sin límite
+     */
+    public void guardarTasaPaquetes(int paquetesPorSegundo) {
+        prefs.putInt(KEY_TASA_PAQUETES, Math.max(0, paquetesPorSegundo));
+    }
+
+    public int cargarTasaPaquetes() {
+        return prefs.getInt(KEY_TASA_PAQUETES, 0);
+    }
+
+    public void guardarRafaga(int rafaga) {
+        prefs.putInt(KEY_RAFAGA, Math.max(1, rafaga));
+    }
+
+    public int cargarRafaga() {
+        return prefs.getInt(KEY_RAFAGA, 10);
+    }
+
+    /**
+     * Lista de puertos del escaneo de puertos, p. ej. "1-1024,8080"
+     */
+    public void guardarPuertos(String puertos) {
+        prefs.put(KEY_PUERTOS, puertos == null ? "" : puertos.trim());
+    }
+
+    public String cargarPuertos() {
+        return prefs.get(KEY_PUERTOS, "1-1024");
+    }
+
     public void guardarUltimaRed(String red) {
         if (red == null) return;
         prefs.put(KEY_ULTIMA_RED, red);
@@ -42,6 +113,92 @@ public class ConfiguracionEscaneo {
         return prefs.get(KEY_ULTIMA_RED, "");
     }
 
+    public void guardarCacheDnsPersistente(boolean persistente) {
+        prefs.putBoolean(KEY_CACHE_DNS_PERSISTENTE, persistente);
+    }
+
+    public boolean cargarCacheDnsPersistente() {
+        return prefs.getBoolean(KEY_CACHE_DNS_PERSISTENTE, false);
+    }
+
+    public void guardarCapacidadCacheDns(int entradas) {
+        prefs.putInt(KEY_CACHE_DNS_CAPACIDAD, Math.max(1, entradas));
+    }
+
+    public int cargarCapacidadCacheDns() {
+        return prefs.getInt(KEY_CACHE_DNS_CAPACIDAD, 10_000);
+    }
+
+    public void guardarTtlCacheDns(int segundos) {
+        prefs.putInt(KEY_CACHE_DNS_TTL, Math.max(0, segundos));
+    }
+
+    public int cargarTtlCacheDns() {
+        return prefs.getInt(KEY_CACHE_DNS_TTL, 3600);
+    }
+
+    public void guardarTtlNegativoCacheDns(int segundos) {
+        prefs.putInt(KEY_CACHE_DNS_TTL_NEGATIVO, Math.max(0, segundos));
+    }
+
+    public int cargarTtlNegativoCacheDns() {
+        return prefs.getInt(KEY_CACHE_DNS_TTL_NEGATIVO, 300);
+    }
+
+    /**
+     * Directorio de datos de la aplicación (~/.escaner_red)
+     */
+    public Path obtenerDirectorioDatos() {
+        return Paths.get(System.getProperty("user.home"), DIRECTORIO_DATOS);
+    }
+
+    public Path obtenerArchivoCacheDns() {
+        return obtenerDirectorioDatos().resolve("cache-dns.txt");
+    }
+
+    public Path obtenerDirectorioHistorial() {
+        return obtenerDirectorioDatos().resolve("historial");
+    }
+
+    public Path obtenerArchivoPuntoControl() {
+        return obtenerDirectorioDatos().resolve("punto-control.txt");
+    }
+
+    /**
+     * Resultado del último escaneo incremental de esos objetivos
+     */
+    public Path obtenerArchivoResultados(ConjuntoObjetivos objetivos) {
+        String nombre = String.format("%08x.txt", objetivos.toString().hashCode());
+        return obtenerDirectorioDatos().resolve("resultados").resolve(nombre);
+    }
+
+    /**
+     * Aplica los TTL guardados a la caché y, si es persistente, carga su contenido del disco
+     */
+    public void aplicarCacheDns(CacheNombres cache) {
+        cache.configurar(cargarCapacidadCacheDns(),
+            cargarTtlCacheDns() * 1000L, cargarTtlNegativoCacheDns() * 1000L);
+        if (cargarCacheDnsPersistente()) {
+            try {
+                cache.cargarDe(obtenerArchivoCacheDns());
+            } catch (Exception e) {
+                System.err.println("Error cargando caché DNS: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vuelca la caché al disco si la persistencia está activada
+     */
+    public void persistirCacheDns(CacheNombres cache) {
+        if (!cargarCacheDnsPersistente()) return;
+        try {
+            cache.guardarEn(obtenerArchivoCacheDns());
+        } catch (Exception e) {
+            System.err.println("Error guardando caché DNS: " + e.getMessage());
+        }
+    }
+
     public void limpiarConfiguracion() {
         try {
             prefs.clear();
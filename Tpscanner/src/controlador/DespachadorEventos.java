@@ -0,0 +1,90 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Agrupa los eventos de EscanerRed en instantáneas periódicas: los hosts se
+ * entregan en lotes y el progreso se emite como mucho una vez por intervalo.
+ * Así el coste para la interfaz no crece con el tamaño del rango.
+ * Se usa desde un único hilo (el del escaneo); tick() debe llamarse con regularidad.
+ */
+class DespachadorEventos {
+    private final List<EscanerRed.EscanerRedListener> listeners;
+    private final long intervaloNanos;
+    private final int maxLote;
+    private final Consumer<List<Dispositivo>> trasEnviarLote;
+
+    private List<Dispositivo> lote = new ArrayList<>();
+    private long ultimoEnvioNanos = System.nanoTime();
+    private long completados = -1;
+    private long total;
+    private boolean progresoPendiente;
+
+    /**
+     * @param intervaloMs 0 entrega cada evento en el momento
+     * @param maxLote     hosts acumulados que fuerzan un envío antes del intervalo
+     * @param trasEnviarLote se invoca con cada lote ya entregado a los listeners
+     */
+    DespachadorEventos(List<EscanerRed.EscanerRedListener> listeners, long intervaloMs, int maxLote,
+                       Consumer<List<Dispositivo>> trasEnviarLote) {
+        this.listeners = listeners;
+        this.intervaloNanos = Math.max(0, intervaloMs) * 1_000_000L;
+        this.maxLote = Math.max(1, maxLote);
+        this.trasEnviarLote = trasEnviarLote;
+    }
+
+    void hostDescubierto(Dispositivo dispositivo) {
+        lote.add(dispositivo);
+        if (intervaloNanos == 0 || lote.size() >= maxLote) {
+            enviarLote();
+        }
+    }
+
+    void progreso(long completados, long total) {
+        this.completados = completados;
+        this.total = total;
+        progresoPendiente = true;
+        tick();
+    }
+
+    /**
+     * Envía lo acumulado si venció el intervalo
+     */
+    void tick() {
+        long ahora = System.nanoTime();
+        if (ahora - ultimoEnvioNanos >= intervaloNanos) {
+            vaciar();
+            ultimoEnvioNanos = ahora;
+        }
+    }
+
+    /**
+     * Envía todo lo pendiente sin esperar al intervalo
+     */
+    void vaciar() {
+        enviarLote();
+        if (progresoPendiente) {
+            progresoPendiente = false;
+            double porcentaje = total > 0 ? (completados * 100.0) / total : 100.0;
+            for (EscanerRed.EscanerRedListener listener : listeners) {
+                listener.onProgreso(completados, total, porcentaje);
+            }
+        }
+    }
+
+    private void enviarLote() {
+        if (lote.isEmpty()) {
+            return;
+        }
+        List<Dispositivo> enviado = Collections.unmodifiableList(lote);
+        lote = new ArrayList<>();
+        for (EscanerRed.EscanerRedListener listener : listeners) {
+            listener.onHostsDescubiertos(enviado);
+        }
+        trasEnviarLote.accept(enviado);
+    }
+}
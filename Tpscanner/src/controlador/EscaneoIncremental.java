@@ -0,0 +1,469 @@
+package controlador;
+
+import modelo.Dispositivo;
+import util.ConjuntoObjetivos;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Reescaneo que parte del resultado anterior del mismo conjunto de objetivos:
+ * 1. sondea los hosts que estaban activos con un timeout ajustado a su RTT previo,
+ * 2. repite con el timeout completo los que no respondieron antes de darlos por desaparecidos,
+ * 3. barre el resto de direcciones en busca de hosts nuevos.
+ * Solo informa diferencias con el escaneo anterior y al terminar guarda el resultado nuevo.
+ */
+public class EscaneoIncremental {
+    private static final double FACTOR_CAMBIO_RTT = 2.0;
+    private static final long MINIMO_CAMBIO_RTT_MS = 20;
+    private static final int MARGEN_TIMEOUT_CONOCIDOS_MS = 20;
+    private static final String PREFIJO_CABECERA = "# ";
+
+    private final ConjuntoObjetivos objetivos;
+    private final int tiempoEsperaMs;
+    private final int maxHilos;
+    private final boolean hilosVirtuales;
+    private final SondaHost sonda;
+    private final Path archivoResultados;
+    private volatile ResolvedorNombres resolvedorNombres = ResolvedorNombres.porDefecto();
+    private boolean timeoutAdaptativo;
+    private double paquetesPorSegundo;
+    private int rafaga;
+    private final List<EscaneoIncrementalListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean escaneoEnCurso = false;
+    private volatile EscanerRed faseActual;
+    private Future<?> tareaEscaneo;
+
+    // Hosts cuyo nombre interesa a los listeners (nuevos o con cambio de RTT)
+    private final Set<Integer> informados = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Una diferencia con el escaneo anterior
+     */
+    public static final class Cambio {
+        public enum Tipo { NUEVO, DESAPARECIDO, CAMBIO_RTT }
+
+        private final Tipo tipo;
+        private final Dispositivo dispositivo;
+        private final long rttAnteriorMs;
+
+        public Cambio(Tipo tipo, Dispositivo dispositivo, long rttAnteriorMs) {
+            this.tipo = tipo;
+            this.dispositivo = dispositivo;
+            this.rttAnteriorMs = rttAnteriorMs;
+        }
+
+        public Tipo getTipo() { return tipo; }
+        public Dispositivo getDispositivo() { return dispositivo; }
+        public long getRttAnteriorMs() { return rttAnteriorMs; }
+    }
+
+    public interface EscaneoIncrementalListener {
+        void onHostNuevo(Dispositivo dispositivo);
+        void onHostDesaparecido(Dispositivo anterior);
+        void onCambioRtt(Dispositivo dispositivo, long rttAnteriorMs);
+        void onEscaneoCompletado(int totalActivos, int nuevos, int desaparecidos, long duracionMs);
+
+        /**
+         * Cambios de un mismo envío (un lote de una fase o todos los desaparecidos).
+         * Por defecto se reparten en los métodos de cada tipo; la interfaz puede
+         * sobrescribirlo para pintar el lote de una vez
+         */
+        default void onCambios(List<Cambio> cambios) {
+            for (Cambio cambio : cambios) {
+                switch (cambio.tipo) {
+                    case NUEVO -> onHostNuevo(cambio.dispositivo);
+                    case DESAPARECIDO -> onHostDesaparecido(cambio.dispositivo);
+                    case CAMBIO_RTT -> onCambioRtt(cambio.dispositivo, cambio.rttAnteriorMs);
+                }
+            }
+        }
+
+        /**
+         * Cuenta sondas, no hosts: el total crece con los reintentos de la fase 2
+         * cuando se sabe cuántos hosts conocidos no respondieron
+         */
+        default void onProgreso(long completados, long total, double porcentaje) {
+        }
+
+        /**
+         * Solo para hosts ya informados como nuevos o con cambio de RTT
+         */
+        default void onNombreHostResuelto(Dispositivo dispositivo) {
+        }
+
+        default void onErrorEscaneo(String ip, String error) {
+        }
+
+        default void onEscaneoCancelado() {
+        }
+    }
+
+    /**
+     * @param archivoResultados resultado anterior (si existe) y destino del nuevo
+     */
+    public EscaneoIncremental(ConjuntoObjetivos objetivos, int tiempoEsperaMs, int maxHilos,
+                              boolean hilosVirtuales, SondaHost sonda, Path archivoResultados) {
+        if (objetivos == null || sonda == null || archivoResultados == null) {
+            throw new IllegalArgumentException("Se requieren objetivos, sonda y archivo de resultados");
+        }
+        this.objetivos = objetivos;
+        this.tiempoEsperaMs = tiempoEsperaMs;
+        this.maxHilos = maxHilos;
+        this.hilosVirtuales = hilosVirtuales;
+        this.sonda = sonda;
+        this.archivoResultados = archivoResultados;
+    }
+
+    public void agregarListener(EscaneoIncrementalListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removerListener(EscaneoIncrementalListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Null desactiva el DNS inverso
+     */
+    public void setResolvedorNombres(ResolvedorNombres resolvedorNombres) {
+        this.resolvedorNombres = resolvedorNombres;
+    }
+
+    /**
+     * Se aplica al barrido de direcciones no conocidas
+     */
+    public void setTimeoutAdaptativo(boolean timeoutAdaptativo) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.timeoutAdaptativo = timeoutAdaptativo;
+    }
+
+    /**
+     * Límite de sondas por segundo para todas las fases; 0 lo quita
+     */
+    public void setLimiteTasa(double paquetesPorSegundo, int rafaga) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.paquetesPorSegundo = paquetesPorSegundo;
+        this.rafaga = rafaga;
+    }
+
+    public boolean isEscaneoEnCurso() {
+        return escaneoEnCurso;
+    }
+
+    public SondaHost getSonda() {
+        return sonda;
+    }
+
+    public void iniciarEscaneo() {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        escaneoEnCurso = true;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        tareaEscaneo = executor.submit(this::ejecutarEscaneo);
+        executor.shutdown();
+    }
+
+    public void cancelarEscaneo() {
+        if (escaneoEnCurso && tareaEscaneo != null) {
+            tareaEscaneo.cancel(true);
+            EscanerRed fase = faseActual;
+            if (fase != null) {
+                fase.cancelarEscaneo();
+            }
+            escaneoEnCurso = false;
+            notifyEscaneoCancelado();
+        }
+    }
+
+    private void ejecutarEscaneo() {
+        try {
+            long inicio = System.currentTimeMillis();
+            informados.clear();
+
+            Map<Integer, Dispositivo> anteriores = cargarResultados(archivoResultados, objetivos);
+            int[] conocidas = new int[anteriores.size()];
+            long rttMaximo = 0;
+            int n = 0;
+            for (Dispositivo anterior : anteriores.values()) {
+                conocidas[n++] = anterior.getIpEntera();
+                rttMaximo = Math.max(rttMaximo, anterior.getTiempoRespuesta());
+            }
+            ConjuntoObjetivos conocidos = ConjuntoObjetivos.deDirecciones(conocidas);
+            long total = objetivos.tamanio();
+            Map<Integer, Dispositivo> actuales = new ConcurrentHashMap<>();
+
+            // Fase 1: los hosts conocidos, con poco margen sobre su RTT anterior
+            int timeoutConocidos = (int) Math.min(tiempoEsperaMs,
+                FACTOR_CAMBIO_RTT * rttMaximo + MARGEN_TIMEOUT_CONOCIDOS_MS);
+            ejecutarFase(conocidos, timeoutConocidos, false, 0, total, actuales,
+                dispositivo -> compararRtt(dispositivo, anteriores.get(dispositivo.getIpEntera())));
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            // Fase 2: los que no respondieron, con el timeout completo
+            ConjuntoObjetivos pendientes = conocidos.menos(
+                ConjuntoObjetivos.deDirecciones(claves(actuales)));
+            total += pendientes.tamanio();
+            ejecutarFase(pendientes, tiempoEsperaMs, false, conocidos.tamanio(), total, actuales,
+                dispositivo -> compararRtt(dispositivo, anteriores.get(dispositivo.getIpEntera())));
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            List<Cambio> desaparecidos = new ArrayList<>();
+            for (Dispositivo anterior : anteriores.values()) {
+                if (!actuales.containsKey(anterior.getIpEntera())) {
+                    desaparecidos.add(new Cambio(Cambio.Tipo.DESAPARECIDO, new Dispositivo(anterior.getIpEntera(),
+                        anterior.getNombreHost(), false, anterior.getTiempoRespuesta()), 0));
+                }
+            }
+            if (!desaparecidos.isEmpty()) {
+                notifyCambios(desaparecidos);
+            }
+
+            // Fase 3: el resto del conjunto, en busca de hosts nuevos
+            int[] nuevos = {0};
+            ejecutarFase(objetivos.menos(conocidos), tiempoEsperaMs, timeoutAdaptativo,
+                conocidos.tamanio() + pendientes.tamanio(), total, actuales, dispositivo -> {
+                    nuevos[0]++;
+                    informados.add(dispositivo.getIpEntera());
+                    return new Cambio(Cambio.Tipo.NUEVO, dispositivo, 0);
+                });
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            // El escaneo no espera al DNS: los hosts cuyo nombre todavía no llegó conservan el anterior
+            for (Dispositivo anterior : anteriores.values()) {
+                actuales.computeIfPresent(anterior.getIpEntera(), (ip, actual) -> actual.getNombreHost().isEmpty()
+                    ? actual.conNombreHost(anterior.getNombreHost()) : actual);
+            }
+            try {
+                guardarResultados(archivoResultados, objetivos, actuales.values());
+            } catch (IOException e) {
+                System.err.println("Error guardando resultados incrementales: " + e.getMessage());
+            }
+            notifyEscaneoCompletado(actuales.size(), nuevos[0], desaparecidos.size(),
+                System.currentTimeMillis() - inicio);
+        } finally {
+            faseActual = null;
+            escaneoEnCurso = false;
+        }
+    }
+
+    /**
+     * Escanea un subconjunto en este hilo. Cada lote de descubiertos se convierte
+     * con alDescubrir (null si no es un cambio) y sale en un solo onCambios;
+     * el progreso de la fase se suma a base sondas ya hechas
+     */
+    private void ejecutarFase(ConjuntoObjetivos fase, int timeoutMs, boolean adaptativo, long base,
+                              long total, Map<Integer, Dispositivo> actuales, Function<Dispositivo, Cambio> alDescubrir) {
+        if (fase.estaVacio()) {
+            return;
+        }
+        EscanerRed escaner = new EscanerRed(fase, timeoutMs, maxHilos, hilosVirtuales, sonda);
+        if (timeoutMs < tiempoEsperaMs) {
+            // El constructor no baja de 100 ms y en la fase 1 el plazo sale del RTT anterior
+            escaner.setTiempoEsperaAjustado(timeoutMs);
+        }
+        escaner.setResolvedorNombres(resolvedorNombres);
+        escaner.setTimeoutAdaptativo(adaptativo);
+        escaner.setLimiteTasa(paquetesPorSegundo, rafaga);
+        escaner.agregarListener(new EscanerRed.EscanerRedListener() {
+            @Override
+            public void onEscaneoIniciado(long totalIps) {
+            }
+
+            @Override
+            public void onHostDescubierto(Dispositivo dispositivo) {
+                onHostsDescubiertos(List.of(dispositivo));
+            }
+
+            @Override
+            public void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+                List<Cambio> cambios = new ArrayList<>();
+                for (Dispositivo dispositivo : dispositivos) {
+                    actuales.put(dispositivo.getIpEntera(), dispositivo);
+                    Cambio cambio = alDescubrir.apply(dispositivo);
+                    if (cambio != null) {
+                        cambios.add(cambio);
+                    }
+                }
+                if (!cambios.isEmpty()) {
+                    notifyCambios(cambios);
+                }
+            }
+
+            @Override
+            public void onNombreHostResuelto(Dispositivo dispositivo) {
+                actuales.put(dispositivo.getIpEntera(), dispositivo);
+                if (informados.contains(dispositivo.getIpEntera())) {
+                    notifyNombreHostResuelto(dispositivo);
+                }
+            }
+
+            @Override
+            public void onProgreso(long completados, long totalFase, double porcentaje) {
+                notifyProgreso(base + completados, total);
+            }
+
+            @Override
+            public void onErrorEscaneo(String ip, String error) {
+                notifyErrorEscaneo(ip, error);
+            }
+
+            @Override
+            public void onEscaneoCompletado(int totalActivos, long duracionMs) {
+            }
+
+            @Override
+            public void onEscaneoCancelado() {
+            }
+        });
+
+        faseActual = escaner;
+        if (escaneoEnCurso) {
+            escaner.escanear();
+        }
+    }
+
+    /**
+     * Cambio de RTT si el nuevo es al menos el doble o la mitad del anterior; null si no
+     */
+    private Cambio compararRtt(Dispositivo actual, Dispositivo anterior) {
+        if (anterior == null) {
+            return null;
+        }
+        long antes = anterior.getTiempoRespuesta();
+        long ahora = actual.getTiempoRespuesta();
+        long diferencia = Math.abs(ahora - antes);
+        if (diferencia >= MINIMO_CAMBIO_RTT_MS
+                && Math.max(ahora, antes) >= FACTOR_CAMBIO_RTT * Math.max(1, Math.min(ahora, antes))) {
+            informados.add(actual.getIpEntera());
+            return new Cambio(Cambio.Tipo.CAMBIO_RTT, actual, antes);
+        }
+        return null;
+    }
+
+    private static int[] claves(Map<Integer, Dispositivo> dispositivos) {
+        return dispositivos.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Hosts activos guardados para estos objetivos; vacío si no hay archivo o es de otros objetivos
+     */
+    public static Map<Integer, Dispositivo> cargarResultados(Path archivo, ConjuntoObjetivos objetivos) {
+        Map<Integer, Dispositivo> resultado = new HashMap<>();
+        if (!Files.exists(archivo)) {
+            return resultado;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String cabecera = reader.readLine();
+            if (cabecera == null || !cabecera.equals(PREFIJO_CABECERA + objetivos)) {
+                return resultado;
+            }
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split("\t", -1);
+                if (partes.length != 3) {
+                    continue;
+                }
+                try {
+                    Dispositivo dispositivo = new Dispositivo(partes[0], partes[2], true, Long.parseLong(partes[1]));
+                    if (objetivos.contiene(dispositivo.getIpEntera())) {
+                        resultado.put(dispositivo.getIpEntera(), dispositivo);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Ignorar líneas corruptas
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error cargando resultados anteriores: " + e.getMessage());
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda los hosts activos (IP, RTT y nombre) con escritura atómica
+     */
+    public static void guardarResultados(Path archivo, ConjuntoObjetivos objetivos,
+                                         Collection<Dispositivo> activos) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            writer.write(PREFIJO_CABECERA + objetivos);
+            writer.newLine();
+            for (Dispositivo dispositivo : activos) {
+                writer.write(dispositivo.getDireccionIP() + '\t' + dispositivo.getTiempoRespuesta()
+                    + '\t' + dispositivo.getNombreHost());
+                writer.newLine();
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void notifyCambios(List<Cambio> cambios) {
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onCambios(cambios);
+        }
+    }
+
+    private void notifyProgreso(long completados, long total) {
+        double porcentaje = total > 0 ? (completados * 100.0) / total : 100.0;
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onProgreso(completados, total, porcentaje);
+        }
+    }
+
+    private void notifyNombreHostResuelto(Dispositivo dispositivo) {
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onNombreHostResuelto(dispositivo);
+        }
+    }
+
+    private void notifyErrorEscaneo(String ip, String error) {
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onErrorEscaneo(ip, error);
+        }
+    }
+
+    private void notifyEscaneoCompletado(int totalActivos, int nuevos, int desaparecidos, long duracionMs) {
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onEscaneoCompletado(totalActivos, nuevos, desaparecidos, duracionMs);
+        }
+    }
+
+    private void notifyEscaneoCancelado() {
+        for (EscaneoIncrementalListener listener : listeners) {
+            listener.onEscaneoCancelado();
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package controlador;
+
+import modelo.Dispositivo;
+import modelo.PuertosHost;
+import modelo.ResultadoPuerto;
+import util.RuedaTemporizadores;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Escaneo de puertos TCP por connect() no bloqueante sobre hosts ya descubiertos.
+ * El hilo del escaneo mantiene un Selector con hasta maxConexiones conexiones en
+ * vuelo y como mucho maxPorHost por host; los hosts se atienden por turnos para
+ * repartir la carga. Los plazos van en una rueda de temporizadores.
+ * ABIERTO si acepta la conexión, CERRADO si responde con RST y FILTRADO si no
+ * contesta a tiempo o es inalcanzable.
+ */
+public class EscanerPuertos {
+    public static final int MAX_CONEXIONES_POR_DEFECTO = 8192;
+    public static final int MAX_POR_HOST_POR_DEFECTO = 256;
+    private static final long RESOLUCION_RUEDA_MS = 10;
+    private static final int RANURAS_RUEDA = 1024;
+    private static final long INTERVALO_DESPACHO_MS = 100;
+    private static final int MAX_LOTE_DESPACHO = 1024;
+    private static final long RECUPERACION_LIMITE_NANOS = 1_000_000_000L;
+
+    private final int[] hosts;
+    private final int[] puertos;
+    private final int tiempoEsperaMs;
+    private final int maxConexiones;
+    private final int maxPorHost;
+    private final List<EscanerPuertosListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean escaneoEnCurso = false;
+    private Future<?> tareaEscaneo;
+    private volatile Thread hiloEscaneo;
+
+    // Estado exclusivo del hilo del escaneo
+    private InetAddress[] direcciones;
+    private int[] siguientePuerto;
+    private int[] enVuelo;
+    private int[] terminadas;
+    private int[] cerrados;
+    private int[] filtrados;
+    private BitSet[] abiertos;
+    private boolean[] enTurno;
+    private final ArrayDeque<Integer> turnos = new ArrayDeque<>();
+    private RuedaTemporizadores<Sonda> rueda;
+    private int conexionesAbiertas;
+    private int limiteConexiones;
+    private long ultimoAjusteNanos;
+    private long completadas;
+    private int totalAbiertos;
+    private List<ResultadoPuerto> lote = new ArrayList<>();
+    private List<PuertosHost> hostsTerminados = new ArrayList<>();
+    private long ultimoDespachoNanos;
+
+    public interface EscanerPuertosListener {
+        default void onEscaneoIniciado(int totalHosts, long totalSondas) {}
+        /**
+         * Lote de resultados en el orden en que llegaron, de cualquier estado
+         */
+        void onResultados(List<ResultadoPuerto> resultados);
+        /**
+         * Un host terminó todos sus puertos
+         */
+        void onHostCompletado(PuertosHost puertos);
+        default void onProgreso(long completadas, long total, double porcentaje) {}
+        default void onErrorEscaneo(String ip, String error) {}
+        void onEscaneoCompletado(int puertosAbiertos, long duracionMs);
+        default void onEscaneoCancelado() {}
+    }
+
+    private static final class Sonda {
+        final int host;
+        final int puerto;
+        final long inicioNanos = System.nanoTime();
+        SelectionKey clave;
+        RuedaTemporizadores.Temporizador<Sonda> temporizador;
+        boolean terminada;
+
+        Sonda(int host, int puerto) {
+            this.host = host;
+            this.puerto = puerto;
+        }
+    }
+
+    public EscanerPuertos(List<Dispositivo> dispositivos, int[] puertos, int tiempoEsperaMs) {
+        this(dispositivos, puertos, tiempoEsperaMs, MAX_CONEXIONES_POR_DEFECTO, MAX_POR_HOST_POR_DEFECTO);
+    }
+
+    /**
+     * @param maxConexiones conexiones en vuelo en total; baja sola si se agotan los descriptores
+     *                      y vuelve a subir de a poco
+     * @param maxPorHost    conexiones en vuelo contra un mismo host
+     */
+    public EscanerPuertos(List<Dispositivo> dispositivos, int[] puertos, int tiempoEsperaMs,
+                          int maxConexiones, int maxPorHost) {
+        if (puertos == null || puertos.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un puerto");
+        }
+        for (int puerto : puertos) {
+            if (puerto < 1 || puerto > 65535) {
+                throw new IllegalArgumentException("Puerto inválido: " + puerto);
+            }
+        }
+        if (tiempoEsperaMs <= 0) {
+            throw new IllegalArgumentException("El tiempo de espera debe ser positivo");
+        }
+
+        this.hosts = dispositivos.stream().mapToInt(Dispositivo::getIpEntera).distinct().toArray();
+        this.puertos = puertos.clone();
+        this.tiempoEsperaMs = tiempoEsperaMs;
+        this.maxConexiones = Math.max(1, maxConexiones);
+        this.maxPorHost = Math.max(1, maxPorHost);
+    }
+
+    public void agregarListener(EscanerPuertosListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removerListener(EscanerPuertosListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void iniciarEscaneo() {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        tareaEscaneo = executor.submit(this::ejecutarEscaneo);
+        executor.shutdown();
+    }
+
+    /**
+     * Ejecuta el escaneo en el hilo actual y vuelve al terminar
+     */
+    public void escanear() {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        tareaEscaneo = null;
+        ejecutarEscaneo();
+    }
+
+    public void cancelarEscaneo() {
+        Thread hilo = hiloEscaneo;
+        if (escaneoEnCurso && (tareaEscaneo != null || hilo != null)) {
+            if (tareaEscaneo != null) {
+                tareaEscaneo.cancel(true);
+            } else {
+                hilo.interrupt();
+            }
+            escaneoEnCurso = false;
+            notifyEscaneoCancelado();
+        }
+    }
+
+    public boolean isEscaneoEnCurso() {
+        return escaneoEnCurso;
+    }
+
+    public int getCantidadHosts() {
+        return hosts.length;
+    }
+
+    public int[] getPuertos() {
+        return puertos.clone();
+    }
+
+    private void ejecutarEscaneo() {
+        escaneoEnCurso = true;
+        hiloEscaneo = Thread.currentThread();
+        long total = (long) hosts.length * puertos.length;
+        long inicio = System.currentTimeMillis();
+        notifyEscaneoIniciado(hosts.length, total);
+
+        Selector selector = null;
+        try {
+            prepararEstado();
+            selector = Selector.open();
+            while (completadas < total && escaneoEnCurso && !Thread.currentThread().isInterrupted()) {
+                lanzarSondas(selector);
+                selector.select(RESOLUCION_RUEDA_MS);
+
+                for (SelectionKey clave : selector.selectedKeys()) {
+                    if (clave.isValid() && clave.isConnectable()) {
+                        completarConexion(clave);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                rueda.avanzar(System.currentTimeMillis(), sonda -> terminar(sonda, ResultadoPuerto.Estado.FILTRADO));
+                despacharSiToca(false);
+            }
+        } catch (IOException e) {
+            notifyErrorEscaneo("", "Error en escaneo de puertos: " + e.getMessage());
+        } finally {
+            if (selector != null) {
+                for (SelectionKey clave : selector.keys()) {
+                    cerrar(clave.channel());
+                }
+                cerrar(selector);
+            }
+            hiloEscaneo = null;
+        }
+
+        if (escaneoEnCurso && completadas == total) {
+            despacharSiToca(true);
+            escaneoEnCurso = false;
+            notifyEscaneoCompletado(totalAbiertos, System.currentTimeMillis() - inicio);
+        } else if (escaneoEnCurso) {
+            // Terminó por un error antes de completar
+            escaneoEnCurso = false;
+            notifyEscaneoCancelado();
+        }
+        liberarEstado();
+    }
+
+    private void prepararEstado() throws IOException {
+        int n = hosts.length;
+        direcciones = new InetAddress[n];
+        siguientePuerto = new int[n];
+        enVuelo = new int[n];
+        terminadas = new int[n];
+        cerrados = new int[n];
+        filtrados = new int[n];
+        abiertos = new BitSet[n];
+        enTurno = new boolean[n];
+        turnos.clear();
+        for (int h = 0; h < n; h++) {
+            direcciones[h] = SondaHost.direccion(hosts[h]);
+            abiertos[h] = new BitSet();
+            enTurno[h] = true;
+            turnos.add(h);
+        }
+        rueda = new RuedaTemporizadores<>(RANURAS_RUEDA, RESOLUCION_RUEDA_MS, System.currentTimeMillis());
+        conexionesAbiertas = 0;
+        limiteConexiones = maxConexiones;
+        completadas = 0;
+        totalAbiertos = 0;
+        lote = new ArrayList<>();
+        hostsTerminados = new ArrayList<>();
+        ultimoDespachoNanos = System.nanoTime();
+    }
+
+    private void liberarEstado() {
+        direcciones = null;
+        abiertos = null;
+        turnos.clear();
+        rueda = null;
+    }
+
+    /**
+     * Lanza connect() por turnos entre los hosts con puertos pendientes y cupo libre
+     * hasta llenar el límite global
+     */
+    private void lanzarSondas(Selector selector) throws IOException {
+        recuperarLimite();
+        while (conexionesAbiertas < limiteConexiones && !turnos.isEmpty()) {
+            int h = turnos.poll();
+            enTurno[h] = false;
+            if (!lanzar(selector, h, puertos[siguientePuerto[h]])) {
+                // Sin descriptores: el host conserva su turno y el límite baja a lo que hay abierto
+                if (conexionesAbiertas == 0) {
+                    // Un canal cerrado con su clave cancelada suelta el descriptor en la
+                    // siguiente selección: se fuerza una antes de darse por vencido
+                    selector.selectNow();
+                    if (!lanzar(selector, h, puertos[siguientePuerto[h]])) {
+                        throw new IOException("No se pudo abrir ninguna conexión");
+                    }
+                    encolarSiTieneCupo(h);
+                    continue;
+                }
+                limiteConexiones = conexionesAbiertas;
+                ultimoAjusteNanos = System.nanoTime();
+                enTurno[h] = true;
+                turnos.addFirst(h);
+                return;
+            }
+            encolarSiTieneCupo(h);
+        }
+    }
+
+    /**
+     * Devuelve false si no se pudo crear el socket; en ese caso no cambia el estado
+     */
+    private boolean lanzar(Selector selector, int h, int puerto) {
+        SocketChannel canal;
+        try {
+            canal = SocketChannel.open();
+        } catch (IOException e) {
+            return false;
+        }
+
+        siguientePuerto[h]++;
+        enVuelo[h]++;
+        Sonda sonda = new Sonda(h, puerto);
+        try {
+            canal.configureBlocking(false);
+            if (canal.connect(new InetSocketAddress(direcciones[h], puerto))) {
+                cerrar(canal);
+                terminar(sonda, ResultadoPuerto.Estado.ABIERTO);
+                return true;
+            }
+            sonda.clave = canal.register(selector, SelectionKey.OP_CONNECT, sonda);
+            conexionesAbiertas++;
+            sonda.temporizador = rueda.programar(sonda, tiempoEsperaMs, System.currentTimeMillis());
+        } catch (ConnectException e) {
+            // RST inmediato (p. ej. en loopback)
+            cerrar(canal);
+            terminar(sonda, ResultadoPuerto.Estado.CERRADO);
+        } catch (IOException e) {
+            // Sin ruta o red inalcanzable
+            cerrar(canal);
+            terminar(sonda, ResultadoPuerto.Estado.FILTRADO);
+        }
+        return true;
+    }
+
+    private void completarConexion(SelectionKey clave) {
+        Sonda sonda = (Sonda) clave.attachment();
+        ResultadoPuerto.Estado estado;
+        try {
+            estado = ((SocketChannel) clave.channel()).finishConnect()
+                ? ResultadoPuerto.Estado.ABIERTO : null;
+        } catch (ConnectException e) {
+            // Solo ECONNREFUSED llega antes del plazo como ConnectException
+            estado = ResultadoPuerto.Estado.CERRADO;
+        } catch (IOException e) {
+            estado = ResultadoPuerto.Estado.FILTRADO;
+        }
+        if (estado != null) {
+            terminar(sonda, estado);
+        }
+    }
+
+    private void terminar(Sonda sonda, ResultadoPuerto.Estado estado) {
+        if (sonda.terminada) {
+            return;
+        }
+        sonda.terminada = true;
+        if (sonda.clave != null) {
+            sonda.clave.cancel();
+            cerrar(sonda.clave.channel());
+            conexionesAbiertas--;
+        }
+        if (sonda.temporizador != null) {
+            sonda.temporizador.cancelar();
+        }
+
+        int h = sonda.host;
+        long rtt = 0;
+        switch (estado) {
+            case ABIERTO -> {
+                abiertos[h].set(sonda.puerto);
+                totalAbiertos++;
+                rtt = (System.nanoTime() - sonda.inicioNanos) / 1_000_000;
+            }
+            case CERRADO -> {
+                cerrados[h]++;
+                rtt = (System.nanoTime() - sonda.inicioNanos) / 1_000_000;
+            }
+            case FILTRADO -> filtrados[h]++;
+        }
+        lote.add(new ResultadoPuerto(hosts[h], sonda.puerto, estado, rtt));
+        completadas++;
+
+        enVuelo[h]--;
+        terminadas[h]++;
+        if (terminadas[h] == puertos.length) {
+            hostsTerminados.add(new PuertosHost(hosts[h], abiertos[h].stream().toArray(), cerrados[h], filtrados[h]));
+            abiertos[h] = null;
+        } else {
+            encolarSiTieneCupo(h);
+        }
+    }
+
+    private void encolarSiTieneCupo(int h) {
+        if (!enTurno[h] && siguientePuerto[h] < puertos.length && enVuelo[h] < maxPorHost) {
+            enTurno[h] = true;
+            turnos.add(h);
+        }
+    }
+
+    /**
+     * Entrega resultados y progreso como mucho una vez por intervalo, o antes si el lote se llena
+     */
+    private void despacharSiToca(boolean forzar) {
+        long ahora = System.nanoTime();
+        if (!forzar && lote.size() < MAX_LOTE_DESPACHO
+                && ahora - ultimoDespachoNanos < INTERVALO_DESPACHO_MS * 1_000_000L) {
+            return;
+        }
+        ultimoDespachoNanos = ahora;
+
+        if (!lote.isEmpty()) {
+            List<ResultadoPuerto> enviar = lote;
+            lote = new ArrayList<>();
+            notifyResultados(enviar);
+        }
+        if (!hostsTerminados.isEmpty()) {
+            List<PuertosHost> enviar = hostsTerminados;
+            hostsTerminados = new ArrayList<>();
+            for (PuertosHost puertosHost : enviar) {
+                notifyHostCompletado(puertosHost);
+            }
+        }
+        long total = (long) hosts.length * puertos.length;
+        notifyProgreso(completadas, total, total == 0 ? 100.0 : completadas * 100.0 / total);
+    }
+
+    /**
+     * El límite que bajó por falta de descriptores crece un 25% por segundo hasta
+     * maxConexiones (p. ej. cuando otro proceso los liberó)
+     */
+    private void recuperarLimite() {
+        long ahora = System.nanoTime();
+        if (limiteConexiones < maxConexiones && ahora - ultimoAjusteNanos >= RECUPERACION_LIMITE_NANOS) {
+            limiteConexiones = Math.min(maxConexiones, limiteConexiones + Math.max(1, limiteConexiones / 4));
+            ultimoAjusteNanos = ahora;
+        }
+    }
+
+    private static void cerrar(AutoCloseable recurso) {
+        if (recurso == null) return;
+        try {
+            recurso.close();
+        } catch (Exception e) {
+            // Ignorar errores al cerrar
+        }
+    }
+
+    private void notifyEscaneoIniciado(int totalHosts, long totalSondas) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onEscaneoIniciado(totalHosts, totalSondas);
+        }
+    }
+
+    private void notifyResultados(List<ResultadoPuerto> resultados) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onResultados(resultados);
+        }
+    }
+
+    private void notifyHostCompletado(PuertosHost puertosHost) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onHostCompletado(puertosHost);
+        }
+    }
+
+    private void notifyProgreso(long completadas, long total, double porcentaje) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onProgreso(completadas, total, porcentaje);
+        }
+    }
+
+    private void notifyErrorEscaneo(String ip, String error) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onErrorEscaneo(ip, error);
+        }
+    }
+
+    private void notifyEscaneoCompletado(int puertosAbiertos, long duracionMs) {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onEscaneoCompletado(puertosAbiertos, duracionMs);
+        }
+    }
+
+    private void notifyEscaneoCancelado() {
+        for (EscanerPuertosListener listener : listeners) {
+            listener.onEscaneoCancelado();
+        }
+    }
+}
@@ -1,37 +1,82 @@
 package controlador;
 
 import modelo.Dispositivo;
+import util.ConjuntoObjetivos;
+import util.LimitadorTasa;
+import util.RangoIPv4;
 import util.ValidadorIP;
-import java.net.InetAddress;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Escáner de red profesional con gestión avanzada de hilos y métricas
  */
 public class EscanerRed {
-    private static final int MAX_HILOS = 50;
+    public static final int MAX_HILOS = 50;
+    public static final int MAX_HILOS_VIRTUALES = 10_000;
+    private static final long INTERVALO_DESPACHO_MS = 100;
+    private static final int MAX_LOTE_DESPACHO = 256;
+    private static final long INTERVALO_PUNTO_CONTROL_MS = 5000;
     
-    private final String ipInicio;
-    private final String ipFin;
-    private final int tiempoEsperaMs;
+    private final ConjuntoObjetivos objetivos;
+    private int tiempoEsperaMs;
     private final int maxHilos;
+    private final boolean hilosVirtuales;
+    private final SondaHost sonda;
+    private volatile ResolvedorNombres resolvedorNombres = ResolvedorNombres.porDefecto();
+    private boolean timeoutAdaptativo;
+    private EstimadorRtt estimadorRtt;
+    private long intervaloDespachoMs = INTERVALO_DESPACHO_MS;
+    private PuntoControl puntoControl;
+    private LimitadorTasa limitadorTasa;
+    private MetricasEscaneo metricas;
+    private MetricasEscaneo.Medidores medidores;
+    // DNS inversos en curso; cada uno se quita solo al terminar
+    private final Set<CompletableFuture<Void>> nombresPendientes = ConcurrentHashMap.newKeySet();
     private final List<EscanerRedListener> listeners;
     private volatile boolean escaneoEnCurso = false;
     private Future<?> tareaEscaneo;
+    private volatile Thread hiloEscaneo;
     
-    private final AtomicInteger ipsEscaneadas = new AtomicInteger(0);
+    private final AtomicLong ipsEscaneadas = new AtomicLong(0);
     private final AtomicInteger ipsActivas = new AtomicInteger(0);
     private long tiempoInicioEscaneo;
 
     public interface EscanerRedListener {
-        void onEscaneoIniciado(int totalIps);
+        void onEscaneoIniciado(long totalIps);
         void onHostDescubierto(Dispositivo dispositivo);
-        void onProgreso(int completados, int total, double porcentaje);
+
+        /**
+         * Hosts descubiertos desde el último envío. Por defecto se reparten en
+         * onHostDescubierto; la interfaz puede sobrescribirlo para pintar el lote de una vez
+         */
+        default void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+            for (Dispositivo dispositivo : dispositivos) {
+                onHostDescubierto(dispositivo);
+            }
+        }
+
+        /**
+         * Con el despacho agrupado llega como mucho una vez por intervalo
+         */
+        void onProgreso(long completados, long total, double porcentaje);
         void onErrorEscaneo(String ip, String error);
         void onEscaneoCompletado(int totalActivos, long duracionMs);
         void onEscaneoCancelado();
+
+        /**
+         * Llega después de onHostDescubierto para cada host activo, cuando termina
+         * su DNS inverso; el nombre puede quedar vacío si no tiene registro PTR.
+         * El escaneo no espera a los nombres: pueden llegar después de onEscaneoCompletado
+         */
+        default void onNombreHostResuelto(Dispositivo dispositivo) {
+        }
     }
 
     public EscanerRed(String ipInicio, String ipFin, int tiempoEsperaMs) {
@@ -39,17 +84,82 @@ public class EscanerRed {
     }
     
     public EscanerRed(String ipInicio, String ipFin, int tiempoEsperaMs, int maxHilos) {
-        if (!ValidadorIP.esIPValida(ipInicio) || !ValidadorIP.esIPValida(ipFin)) {
-            throw new IllegalArgumentException("Rango de IP inválido");
+        this(ipInicio, ipFin, tiempoEsperaMs, maxHilos, false);
+    }
+
+    /**
+     * Con hilosVirtuales cada sonda corre en su propio hilo virtual y maxHilos
+     * pasa a ser el techo de sondas simultáneas (hasta MAX_HILOS_VIRTUALES).
+     * La sonda es SondaEcoTcp con hilos virtuales y SondaIcmp con el pool
+     */
+    public EscanerRed(String ipInicio, String ipFin, int tiempoEsperaMs, int maxHilos, boolean hilosVirtuales) {
+        this(ipInicio, ipFin, tiempoEsperaMs, maxHilos, hilosVirtuales, sondaPorDefecto(hilosVirtuales));
+    }
+
+    /**
+     * Sonda para cuando el usuario no eligió otra: ICMP solo con el pool de
+     * hilos de plataforma, porque con hilos virtuales retiene el portador
+     */
+    public static SondaHost sondaPorDefecto(boolean hilosVirtuales) {
+        return hilosVirtuales ? new SondaEcoTcp() : new SondaIcmp();
+    }
+
+    public EscanerRed(String ipInicio, String ipFin, int tiempoEsperaMs, SondaHost sonda) {
+        this(ipInicio, ipFin, tiempoEsperaMs, MAX_HILOS, false, sonda);
+    }
+
+    /**
+     * La sonda decide cómo se comprueba cada host; quien la crea es quien la cierra
+     */
+    public EscanerRed(String ipInicio, String ipFin, int tiempoEsperaMs, int maxHilos, 
+                      boolean hilosVirtuales, SondaHost sonda) {
+        this(rangoValidado(ipInicio, ipFin), tiempoEsperaMs, maxHilos, hilosVirtuales, sonda);
+    }
+
+    /**
+     * Escanea un conjunto de objetivos (CIDR, rangos y exclusiones); solo se
+     * sondean las direcciones que contiene
+     */
+    public EscanerRed(ConjuntoObjetivos objetivos, int tiempoEsperaMs, int maxHilos, 
+                      boolean hilosVirtuales, SondaHost sonda) {
+        if (sonda == null) {
+            throw new IllegalArgumentException("Se requiere una sonda");
+        }
+        if (objetivos == null) {
+            throw new IllegalArgumentException("Se requieren objetivos");
+        }
+        if (hilosVirtuales && sonda.retieneHiloPortador()) {
+            throw new IllegalArgumentException(
+                "La sonda ICMP retiene el hilo portador; con hilos virtuales use la sonda Eco TCP o TCP");
         }
         
-        this.ipInicio = ipInicio;
-        this.ipFin = ipFin;
+        this.objetivos = objetivos;
         this.tiempoEsperaMs = Math.max(100, tiempoEsperaMs);
-        this.maxHilos = Math.max(1, Math.min(maxHilos, MAX_HILOS));
+        this.hilosVirtuales = hilosVirtuales;
+        this.sonda = sonda;
+        this.maxHilos = Math.max(1, Math.min(maxHilos, hilosVirtuales ? MAX_HILOS_VIRTUALES : MAX_HILOS));
         this.listeners = new CopyOnWriteArrayList<>();
     }
 
+    /**
+     * Continúa un escaneo desde su punto de control: solo sondea lo pendiente
+     * y sigue guardando el avance en el mismo archivo
+     */
+    public static EscanerRed reanudar(PuntoControl puntoControl, int tiempoEsperaMs, int maxHilos,
+                                      boolean hilosVirtuales, SondaHost sonda) {
+        EscanerRed escaner = new EscanerRed(puntoControl.getPendientes(), tiempoEsperaMs, maxHilos,
+            hilosVirtuales, sonda);
+        escaner.puntoControl = puntoControl;
+        return escaner;
+    }
+
+    private static ConjuntoObjetivos rangoValidado(String ipInicio, String ipFin) {
+        if (!ValidadorIP.esIPValida(ipInicio) || !ValidadorIP.esIPValida(ipFin)) {
+            throw new IllegalArgumentException("Rango de IP inválido");
+        }
+        return ConjuntoObjetivos.deRango(RangoIPv4.de(ipInicio.trim(), ipFin.trim()));
+    }
+
     public void agregarListener(EscanerRedListener listener) {
         listeners.add(listener);
     }
@@ -68,9 +178,26 @@ public class EscanerRed {
         executor.shutdown();
     }
 
+    /**
+     * Ejecuta el escaneo en el hilo actual y vuelve al terminar. cancelarEscaneo
+     * interrumpe ese hilo, que queda con la marca de interrupción puesta
+     */
+    public void escanear() {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        tareaEscaneo = null;
+        ejecutarEscaneo();
+    }
+
     public void cancelarEscaneo() {
-        if (escaneoEnCurso && tareaEscaneo != null) {
-            tareaEscaneo.cancel(true);
+        Thread hilo = hiloEscaneo;
+        if (escaneoEnCurso && (tareaEscaneo != null || hilo != null)) {
+            if (tareaEscaneo != null) {
+                tareaEscaneo.cancel(true);
+            } else {
+                hilo.interrupt();
+            }
             escaneoEnCurso = false;
             notifyEscaneoCancelado();
         }
@@ -80,122 +207,350 @@ public class EscanerRed {
         return escaneoEnCurso;
     }
 
+    public boolean isHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    public int getMaxHilos() {
+        return maxHilos;
+    }
+
+    public SondaHost getSonda() {
+        return sonda;
+    }
+
+    public ConjuntoObjetivos getObjetivos() {
+        return objetivos;
+    }
+
+    /**
+     * Resolvedor de nombres para los hosts activos; null desactiva el DNS inverso
+     */
+    public void setResolvedorNombres(ResolvedorNombres resolvedorNombres) {
+        this.resolvedorNombres = resolvedorNombres;
+    }
+
+    public ResolvedorNombres getResolvedorNombres() {
+        return resolvedorNombres;
+    }
+
+    /**
+     * Ajusta el plazo de cada sonda al RTT medido en su /24; tiempoEsperaMs queda como techo
+     */
+    public void setTimeoutAdaptativo(boolean timeoutAdaptativo) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.timeoutAdaptativo = timeoutAdaptativo;
+    }
+
+    public boolean isTimeoutAdaptativo() {
+        return timeoutAdaptativo;
+    }
+
+    /**
+     * Plazo por sonda sin el piso de 100 ms del constructor. EscaneoIncremental lo
+     * usa para los hosts cuyo RTT ya conoce, que responden en pocos milisegundos
+     */
+    void setTiempoEsperaAjustado(int tiempoEsperaMs) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.tiempoEsperaMs = Math.max(1, tiempoEsperaMs);
+    }
+
+    /**
+     * Cada cuánto se entregan lotes de hosts y progreso; 0 notifica cada evento al instante
+     */
+    public void setIntervaloDespacho(long intervaloMs) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.intervaloDespachoMs = Math.max(0, intervaloMs);
+    }
+
+    public long getIntervaloDespacho() {
+        return intervaloDespachoMs;
+    }
+
+    /**
+     * Limita las sondas lanzadas por segundo con una cubeta de fichas, repartiéndolas
+     * de forma pareja; paquetesPorSegundo 0 quita el límite (solo cuenta la concurrencia)
+     */
+    public void setLimiteTasa(double paquetesPorSegundo, int rafaga) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.limitadorTasa = paquetesPorSegundo > 0 ? new LimitadorTasa(paquetesPorSegundo, rafaga) : null;
+    }
+
+    public LimitadorTasa getLimitadorTasa() {
+        return limitadorTasa;
+    }
+
+    /**
+     * Métricas a las que reporta el escaneo; null (por defecto) usa MetricasEscaneo.global()
+     */
+    public void setMetricas(MetricasEscaneo metricas) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.metricas = metricas;
+    }
+
+    /**
+     * Guarda el avance en ese archivo cada INTERVALO_PUNTO_CONTROL_MS y al cancelar;
+     * se borra cuando el escaneo termina. Null lo desactiva
+     */
+    public void setPuntoControl(Path archivo) {
+        if (escaneoEnCurso) {
+            throw new IllegalStateException("Escaneo ya en curso");
+        }
+        this.puntoControl = archivo == null ? null : PuntoControl.nuevo(archivo, objetivos);
+    }
+
+    public PuntoControl getPuntoControl() {
+        return puntoControl;
+    }
+
     private void ejecutarEscaneo() {
         escaneoEnCurso = true;
+        hiloEscaneo = Thread.currentThread();
         ipsEscaneadas.set(0);
         ipsActivas.set(0);
+        MetricasEscaneo metricasEscaneo = metricasActivas();
+        medidores = metricasEscaneo.escaneoIniciado();
+        boolean completo = false;
         
         try {
-            long inicio = ValidadorIP.ipToLong(ipInicio);
-            long fin = ValidadorIP.ipToLong(ipFin);
-            
-            if (fin < inicio) {
-                long temp = inicio;
-                inicio = fin;
-                fin = temp;
-            }
-
-            int totalIps = (int) (fin - inicio + 1);
+            long totalIps = objetivos.tamanio();
+            estimadorRtt = timeoutAdaptativo ? new EstimadorRtt(tiempoEsperaMs) : null;
             tiempoInicioEscaneo = System.currentTimeMillis();
             
             notifyEscaneoIniciado(totalIps);
 
-            ExecutorService executor = Executors.newFixedThreadPool(maxHilos);
-            CompletionService<Dispositivo> completionService = 
-                new ExecutorCompletionService<>(executor);
-
-            // Enviar todas las tareas de escaneo
-            for (long ip = inicio; ip <= fin; ip++) {
+            ExecutorService executor = crearEjecutor();
+            BlockingQueue<Future<Dispositivo>> completadas = new LinkedBlockingQueue<>();
+            
+            // Solo se mantiene una ventana acotada de sondas en vuelo: el rango se
+            // recorre a medida que llegan resultados y la memoria no crece con él.
+            // Con hilos virtuales la ventana es además el techo de concurrencia.
+            int ventana = sonda.getCapacidad() > 0 ? sonda.getCapacidad()
+                : hilosVirtuales ? maxHilos : maxHilos * 2;
+            // El DNS inverso arranca cuando el lote ya se entregó, así onNombreHostResuelto
+            // nunca adelanta al descubrimiento del host
+            DespachadorEventos despachador = new DespachadorEventos(listeners, intervaloDespachoMs, 
+                MAX_LOTE_DESPACHO, this::resolverNombres);
+            PrimitiveIterator.OfInt direcciones = objetivos.direcciones();
+            FronteraEscaneo frontera = puntoControl != null ? new FronteraEscaneo() : null;
+            long ultimoPuntoControl = System.currentTimeMillis();
+            int enVuelo = 0;
+            long completados = 0;
+            
+            while (completados < totalIps) {
                 if (Thread.currentThread().isInterrupted()) {
                     break;
                 }
                 
-                final String ipStr = ValidadorIP.longToIp(ip);
-                completionService.submit(() -> escanearDireccionIP(ipStr));
-            }
-
-            // Recolectar resultados
-            int completados = 0;
-            for (int i = 0; i < totalIps; i++) {
-                if (Thread.currentThread().isInterrupted()) {
-                    break;
+                long esperaTasaNanos = 0;
+                while (enVuelo < ventana && direcciones.hasNext()) {
+                    if (limitadorTasa != null
+                            && (esperaTasaNanos = limitadorTasa.intentarAdquirir(System.nanoTime())) > 0) {
+                        break;
+                    }
+                    CompletableFuture<Dispositivo> futuro = sondearDireccionIP(direcciones.nextInt(), executor);
+                    futuro.whenComplete((d, error) -> completadas.add(futuro));
+                    enVuelo++;
                 }
                 
                 try {
-                    Future<Dispositivo> future = completionService.take();
-                    Dispositivo dispositivo = future.get();
-                    
+                    // Sin fichas se espera solo hasta la próxima, para no frenar el ritmo
+                    long esperaNanos = intervaloDespachoMs > 0 
+                        ? TimeUnit.MILLISECONDS.toNanos(intervaloDespachoMs) : Long.MAX_VALUE;
+                    if (esperaTasaNanos > 0) {
+                        esperaNanos = Math.min(esperaNanos, esperaTasaNanos);
+                    }
+                    Future<Dispositivo> future = esperaNanos < Long.MAX_VALUE
+                        ? completadas.poll(esperaNanos, TimeUnit.NANOSECONDS)
+                        : completadas.take();
+                    if (future == null) {
+                        despachador.tick();
+                        continue;
+                    }
+                    enVuelo--;
                     completados++;
                     ipsEscaneadas.incrementAndGet();
+                    metricasEscaneo.resultadoProcesado(medidores);
                     
+                    Dispositivo dispositivo = future.get();
                     if (dispositivo != null && dispositivo.estaEnLinea()) {
                         ipsActivas.incrementAndGet();
-                        notifyHostDescubierto(dispositivo);
+                        if (estimadorRtt != null) {
+                            estimadorRtt.registrarMuestra(
+                                dispositivo.getIpEntera() & 0xFFFFFFFFL, dispositivo.getTiempoRespuesta());
+                        }
+                        despachador.hostDescubierto(dispositivo);
                     }
                     
-                    double porcentaje = (completados * 100.0) / totalIps;
-                    notifyProgreso(completados, totalIps, porcentaje);
+                    despachador.progreso(completados, totalIps);
+                    
+                    if (frontera != null && dispositivo != null) {
+                        frontera.terminar(objetivos.posicionDe(dispositivo.getIpEntera()),
+                            dispositivo.estaEnLinea() ? dispositivo : null);
+                        long ahora = System.currentTimeMillis();
+                        if (ahora - ultimoPuntoControl >= INTERVALO_PUNTO_CONTROL_MS) {
+                            ultimoPuntoControl = ahora;
+                            guardarPuntoControl(frontera);
+                        }
+                    }
                     
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
                 } catch (ExecutionException e) {
-                    notifyErrorEscaneo("IP_" + i, e.getCause().getMessage());
+                    notifyErrorEscaneo("IP_" + completados, e.getCause().getMessage());
                 }
             }
 
             executor.shutdownNow();
             
+            if (frontera != null) {
+                if (completados < totalIps) {
+                    guardarPuntoControl(frontera);
+                } else {
+                    eliminarPuntoControl();
+                }
+            }
+            
+            // El escaneo termina con la última sonda; los nombres siguen llegando después
             if (!Thread.currentThread().isInterrupted()) {
+                despachador.vaciar();
+                completo = true;
                 long duracion = System.currentTimeMillis() - tiempoInicioEscaneo;
                 notifyEscaneoCompletado(ipsActivas.get(), duracion);
             }
             
         } finally {
+            metricasEscaneo.escaneoTerminado(medidores, completo);
             escaneoEnCurso = false;
+            hiloEscaneo = null;
         }
     }
 
-    private Dispositivo escanearDireccionIP(String ip) {
+    private MetricasEscaneo metricasActivas() {
+        return metricas != null ? metricas : MetricasEscaneo.global();
+    }
+
+    private void guardarPuntoControl(FronteraEscaneo frontera) {
         try {
-            long inicio = System.currentTimeMillis();
-            InetAddress direccion = InetAddress.getByName(ip);
-            boolean alcanzable = direccion.isReachable(tiempoEsperaMs);
-            long fin = System.currentTimeMillis();
-            
-            String nombreHost = "";
-            try {
-                nombreHost = direccion.getCanonicalHostName();
-                if (nombreHost.equals(ip)) {
-                    nombreHost = "";
-                }
-            } catch (Exception e) {
-                // Ignorar errores de resolución de nombre
-            }
-            
-            return new Dispositivo(ip, nombreHost, alcanzable, alcanzable ? (fin - inicio) : 0);
-            
-        } catch (Exception e) {
-            notifyErrorEscaneo(ip, e.getMessage());
-            return new Dispositivo(ip, "", false, 0);
+            puntoControl.guardar(frontera.getFrontera(), frontera.getConfirmados());
+        } catch (IOException e) {
+            notifyErrorEscaneo("punto de control", e.getMessage());
         }
     }
 
-    private void notifyEscaneoIniciado(int totalIps) {
-        for (EscanerRedListener listener : listeners) {
-            listener.onEscaneoIniciado(totalIps);
+    private void eliminarPuntoControl() {
+        try {
+            puntoControl.eliminar();
+        } catch (IOException e) {
+            notifyErrorEscaneo("punto de control", e.getMessage());
+        }
+    }
+
+    private void resolverNombres(List<Dispositivo> dispositivos) {
+        ResolvedorNombres resolvedor = resolvedorNombres;
+        if (resolvedor == null) {
+            return;
+        }
+        MetricasEscaneo metricasEscaneo = metricasActivas();
+        for (Dispositivo dispositivo : dispositivos) {
+            long inicio = System.nanoTime();
+            CompletableFuture<Void> pendiente = resolvedor.resolver(dispositivo.getDireccionIP())
+                .thenAccept(nombre -> {
+                    metricasEscaneo.nombreResuelto(System.nanoTime() - inicio);
+                    notifyNombreHostResuelto(dispositivo.conNombreHost(nombre));
+                });
+            nombresPendientes.add(pendiente);
+            pendiente.whenComplete((nada, error) -> nombresPendientes.remove(pendiente));
+        }
+    }
+
+    /**
+     * DNS inversos que siguen en curso, también después de terminado el escaneo
+     */
+    public int getNombresPendientes() {
+        return nombresPendientes.size();
+    }
+
+    /**
+     * Espera como mucho plazoMs a los nombres pendientes. Sirve al cerrar (p. ej.
+     * antes de salir de la línea de comandos o de cerrar un exportador con nombres);
+     * el escaneo en sí nunca los espera
+     * @return true si no quedó ninguno pendiente
+     */
+    public boolean esperarNombres(long plazoMs) {
+        CompletableFuture<?>[] pendientes = nombresPendientes.toArray(new CompletableFuture<?>[0]);
+        if (pendientes.length == 0) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(pendientes).get(Math.max(0, plazoMs), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Los errores de resolución ya se absorben en ResolvedorNombres
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private ExecutorService crearEjecutor() {
+        if (hilosVirtuales) {
+            return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("Sonda-", 0).factory());
         }
+        return Executors.newFixedThreadPool(maxHilos);
     }
 
-    private void notifyHostDescubierto(Dispositivo dispositivo) {
+    private CompletableFuture<Dispositivo> sondearDireccionIP(int ip, Executor executor) {
+        int plazo = estimadorRtt != null ? estimadorRtt.timeoutPara(ip & 0xFFFFFFFFL) : tiempoEsperaMs;
+        MetricasEscaneo metricasEscaneo = metricasActivas();
+        MetricasEscaneo.Medidores medidoresEscaneo = medidores;
+        long inicio = System.nanoTime();
+        metricasEscaneo.sondaLanzada(medidoresEscaneo);
+        CompletableFuture<Dispositivo> futuro;
+        try {
+            futuro = sonda.sondearAsync(ip, plazo, executor);
+        } catch (RuntimeException e) {
+            futuro = CompletableFuture.failedFuture(e);
+        }
+        
+        return futuro.handle((dispositivo, error) -> {
+            if (error == null) {
+                metricasEscaneo.sondaTerminada(medidoresEscaneo, System.nanoTime() - inicio,
+                    dispositivo != null && dispositivo.estaEnLinea(), false);
+                return dispositivo;
+            }
+            metricasEscaneo.sondaTerminada(medidoresEscaneo, System.nanoTime() - inicio, false, true);
+            Throwable causa = error instanceof CompletionException && error.getCause() != null 
+                ? error.getCause() : error;
+            notifyErrorEscaneo(ValidadorIP.intToIp(ip), causa.getMessage());
+            return new Dispositivo(ip, "", false, 0);
+        });
+    }
+
+    private void notifyEscaneoIniciado(long totalIps) {
         for (EscanerRedListener listener : listeners) {
-            listener.onHostDescubierto(dispositivo);
+            listener.onEscaneoIniciado(totalIps);
         }
     }
 
-    private void notifyProgreso(int completados, int total, double porcentaje) {
+    private void notifyNombreHostResuelto(Dispositivo dispositivo) {
         for (EscanerRedListener listener : listeners) {
-            listener.onProgreso(completados, total, porcentaje);
+            listener.onNombreHostResuelto(dispositivo);
         }
     }
 
@@ -0,0 +1,89 @@
+package controlador;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimador de RTT por subred /24 al estilo del RTO de TCP (RFC 6298):
+ * mantiene un RTT suavizado y su variación, y deriva de ellos el plazo de cada sonda.
+ * Hasta reunir suficientes muestras de una subred se usa el techo configurado.
+ */
+public class EstimadorRtt {
+    private static final double ALFA = 0.125;
+    private static final double BETA = 0.25;
+    private static final int K = 4;
+    private static final int MUESTRAS_MINIMAS = 3;
+    public static final int PISO_POR_DEFECTO_MS = 50;
+
+    private static final class Estado {
+        double srtt;
+        double rttvar;
+        int muestras;
+    }
+
+    private final int techoMs;
+    private final int pisoMs;
+    private final Map<Integer, Estado> subredes = new ConcurrentHashMap<>();
+
+    public EstimadorRtt(int techoMs) {
+        this(techoMs, PISO_POR_DEFECTO_MS);
+    }
+
+    /**
+     * @param techoMs plazo máximo (el configurado por el usuario)
+     * @param pisoMs  plazo mínimo, aunque la subred responda en menos
+     */
+    public EstimadorRtt(int techoMs, int pisoMs) {
+        this.techoMs = Math.max(1, techoMs);
+        this.pisoMs = Math.max(1, Math.min(pisoMs, this.techoMs));
+    }
+
+    /**
+     * Plazo para sondear la IP según lo medido en su /24
+     */
+    public int timeoutPara(long ip) {
+        Estado estado = subredes.get(subred(ip));
+        if (estado == null) {
+            return techoMs;
+        }
+
+        double rto;
+        synchronized (estado) {
+            if (estado.muestras < MUESTRAS_MINIMAS) {
+                return techoMs;
+            }
+            rto = estado.srtt + Math.max(1.0, K * estado.rttvar);
+        }
+        return (int) Math.max(pisoMs, Math.min(techoMs, Math.ceil(rto)));
+    }
+
+    /**
+     * Incorpora el RTT de un host que respondió
+     */
+    public void registrarMuestra(long ip, long rttMs) {
+        Estado estado = subredes.computeIfAbsent(subred(ip), k -> new Estado());
+        double r = Math.max(0, rttMs);
+        synchronized (estado) {
+            if (estado.muestras == 0) {
+                estado.srtt = r;
+                estado.rttvar = r / 2;
+            } else {
+                estado.rttvar = (1 - BETA) * estado.rttvar + BETA * Math.abs(estado.srtt - r);
+                estado.srtt = (1 - ALFA) * estado.srtt + ALFA * r;
+            }
+            estado.muestras++;
+        }
+    }
+
+    public int getTechoMs() {
+        return techoMs;
+    }
+
+    public int getSubredesMedidas() {
+        return subredes.size();
+    }
+
+    private static int subred(long ip) {
+        return (int) (ip >>> 8);
+    }
+}
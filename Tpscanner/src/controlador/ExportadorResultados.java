@@ -0,0 +1,378 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta los hosts a CSV o NDJSON a medida que el escaneo los descubre.
+ * Codifica cada línea directo en un buffer fijo, así la memoria no crece con
+ * el escaneo, y vuelca como mucho cada INTERVALO_VOLCADO_MS: si el proceso
+ * se corta, el archivo queda con líneas completas hasta el último volcado.
+ * Con gzip cada volcado es un SYNC_FLUSH, legible aunque falte el final.
+ * Escribe con un FileOutputStream y no con un FileChannel: los listeners corren
+ * en el hilo del escaneo, y cancelarlo cerraría un canal interrumpible.
+ * En el escaneo incremental exporta las diferencias (desaparecidos como INACTIVO).
+ */
+public class ExportadorResultados implements EscanerRed.EscanerRedListener,
+        EscaneoIncremental.EscaneoIncrementalListener, AutoCloseable {
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final long INTERVALO_VOLCADO_MS = 1000;
+
+    public enum Formato {
+        CSV, NDJSON;
+
+        /**
+         * Deduce el formato por la extensión (.ndjson o .jsonl, opcionalmente con .gz); CSV si no
+         */
+        public static Formato desdeNombre(String nombreArchivo) {
+            String nombre = nombreArchivo.toLowerCase();
+            if (nombre.endsWith(".gz")) {
+                nombre = nombre.substring(0, nombre.length() - 3);
+            }
+            return nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    private final Formato formato;
+    private final boolean conNombres;
+    private final OutputStream salida;
+    // null si se exporta a un flujo ajeno, que no se sincroniza ni se cierra
+    private final FileOutputStream archivo;
+    private final GZIPOutputStream gzip;
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BUFFER);
+    private final StringBuilder linea = new StringBuilder(128);
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] caracteres = new char[256];
+    private CharBuffer pendiente = CharBuffer.wrap(caracteres);
+    // Con nombres: hosts descubiertos cuyo DNS inverso todavía no llegó
+    private final Map<Integer, Dispositivo> sinNombre = new LinkedHashMap<>();
+    private long ultimoVolcadoMs = System.currentTimeMillis();
+    private long exportados;
+    private boolean cerrado;
+
+    /**
+     * @param conNombres escribe cada host al llegar su DNS inverso en lugar de al descubrirlo;
+     *                   solo sirve si el escáner tiene resolvedor de nombres. Como los nombres
+     *                   llegan después de terminado el escaneo, en ese modo no se cierra solo:
+     *                   quien lo crea lo cierra tras EscanerRed.esperarNombres, y los hosts
+     *                   que siguen sin nombre se escriben al cerrar con el nombre vacío
+     */
+    public ExportadorResultados(Path archivo, Formato formato, boolean comprimir, boolean conNombres)
+            throws IOException {
+        this(new FileOutputStream(archivo.toFile()), true, formato, comprimir, conNombres);
+    }
+
+    private ExportadorResultados(OutputStream salida, boolean propia, Formato formato,
+                                 boolean comprimir, boolean conNombres) throws IOException {
+        this.formato = formato;
+        this.conNombres = conNombres;
+        this.salida = salida;
+        this.archivo = propia ? (FileOutputStream) salida : null;
+        GZIPOutputStream compresor = null;
+        try {
+            if (comprimir) {
+                compresor = new GZIPOutputStream(salida, TAMANIO_BUFFER, true);
+            }
+            this.gzip = compresor;
+            if (formato == Formato.CSV) {
+                escribirLinea("ip,nombre_host,estado,tiempo_respuesta_ms,timestamp");
+            }
+        } catch (IOException e) {
+            if (propia) {
+                salida.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Exporta a un flujo ya abierto, p. ej. System.out. Cada volcado hace flush
+     * del flujo y close() no lo cierra
+     */
+    public static ExportadorResultados paraSalida(OutputStream salida, Formato formato, boolean conNombres)
+            throws IOException {
+        return new ExportadorResultados(salida, false, formato, false, conNombres);
+    }
+
+    /**
+     * Crea el exportador con formato y compresión según la extensión del archivo
+     */
+    public static ExportadorResultados paraArchivo(Path archivo, boolean conNombres) throws IOException {
+        String nombre = archivo.getFileName().toString();
+        return new ExportadorResultados(archivo, Formato.desdeNombre(nombre),
+            nombre.toLowerCase().endsWith(".gz"), conNombres);
+    }
+
+    public synchronized long getExportados() {
+        return exportados;
+    }
+
+    @Override
+    public void onEscaneoIniciado(long totalIps) {
+    }
+
+    @Override
+    public void onHostDescubierto(Dispositivo dispositivo) {
+        onHostsDescubiertos(List.of(dispositivo));
+    }
+
+    @Override
+    public synchronized void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+        for (Dispositivo dispositivo : dispositivos) {
+            if (!conNombres) {
+                exportar(dispositivo);
+            } else if (!cerrado) {
+                sinNombre.put(dispositivo.getIpEntera(), dispositivo);
+            }
+        }
+        volcarSiToca();
+    }
+
+    @Override
+    public void onHostNuevo(Dispositivo dispositivo) {
+        onHostsDescubiertos(List.of(dispositivo));
+    }
+
+    @Override
+    public void onHostDesaparecido(Dispositivo anterior) {
+        onCambios(List.of(new EscaneoIncremental.Cambio(EscaneoIncremental.Cambio.Tipo.DESAPARECIDO, anterior, 0)));
+    }
+
+    @Override
+    public void onCambioRtt(Dispositivo dispositivo, long rttAnteriorMs) {
+        onHostsDescubiertos(List.of(dispositivo));
+    }
+
+    /**
+     * Los desaparecidos se escriben enseguida: ya traen el nombre del escaneo
+     * anterior y no habrá DNS inverso para ellos
+     */
+    @Override
+    public synchronized void onCambios(List<EscaneoIncremental.Cambio> cambios) {
+        for (EscaneoIncremental.Cambio cambio : cambios) {
+            Dispositivo dispositivo = cambio.getDispositivo();
+            if (!conNombres || cambio.getTipo() == EscaneoIncremental.Cambio.Tipo.DESAPARECIDO) {
+                exportar(dispositivo);
+            } else if (!cerrado) {
+                sinNombre.put(dispositivo.getIpEntera(), dispositivo);
+            }
+        }
+        volcarSiToca();
+    }
+
+    @Override
+    public synchronized void onNombreHostResuelto(Dispositivo dispositivo) {
+        if (conNombres) {
+            sinNombre.remove(dispositivo.getIpEntera());
+            exportar(dispositivo);
+            volcarSiToca();
+        }
+    }
+
+    @Override
+    public synchronized void onProgreso(long completados, long total, double porcentaje) {
+        volcarSiToca();
+    }
+
+    @Override
+    public void onErrorEscaneo(String ip, String error) {
+    }
+
+    @Override
+    public void onEscaneoCompletado(int totalActivos, long duracionMs) {
+        if (!conNombres) {
+            cerrarSilencioso();
+        }
+    }
+
+    @Override
+    public void onEscaneoCompletado(int totalActivos, int nuevos, int desaparecidos, long duracionMs) {
+        onEscaneoCompletado(totalActivos, duracionMs);
+    }
+
+    @Override
+    public void onEscaneoCancelado() {
+        cerrarSilencioso();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        List<Dispositivo> pendientes = List.copyOf(sinNombre.values());
+        sinNombre.clear();
+        for (Dispositivo dispositivo : pendientes) {
+            exportar(dispositivo);
+        }
+        if (cerrado) {
+            // Un error de escritura ya lo cerró
+            return;
+        }
+        cerrado = true;
+        try {
+            volcar();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            if (archivo != null) {
+                archivo.getFD().sync();
+            }
+        } finally {
+            if (archivo != null) {
+                archivo.close();
+            }
+        }
+    }
+
+    private void cerrarSilencioso() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Error cerrando exportación: " + e.getMessage());
+        }
+    }
+
+    private void exportar(Dispositivo dispositivo) {
+        if (cerrado) {
+            return;
+        }
+        linea.setLength(0);
+        String marca = Instant.now().toString();
+        if (formato == Formato.CSV) {
+            linea.append(dispositivo.getDireccionIP()).append(',');
+            anexarCsv(dispositivo.getNombreHost());
+            linea.append(',').append(dispositivo.estaEnLinea() ? "ACTIVO" : "INACTIVO")
+                .append(',').append(dispositivo.getTiempoRespuesta())
+                .append(',').append(marca);
+        } else {
+            linea.append("{\"ip\":\"").append(dispositivo.getDireccionIP())
+                .append("\",\"nombreHost\":\"");
+            anexarJson(dispositivo.getNombreHost());
+            linea.append("\",\"enLinea\":").append(dispositivo.estaEnLinea())
+                .append(",\"tiempoRespuestaMs\":").append(dispositivo.getTiempoRespuesta())
+                .append(",\"timestamp\":\"").append(marca).append("\"}");
+        }
+        try {
+            escribirLinea(linea);
+            exportados++;
+        } catch (IOException e) {
+            System.err.println("Error exportando resultados: " + e.getMessage());
+            cerrarSilencioso();
+        }
+    }
+
+    /**
+     * Codifica la línea y su salto en el buffer sin Strings ni byte[] intermedios.
+     * Si puede no entrar se vuelca antes, así el archivo nunca queda con media línea;
+     * solo una línea más grande que el buffer se escribe en varias partes
+     */
+    private void escribirLinea(CharSequence texto) throws IOException {
+        int largo = texto.length();
+        if (largo + 1 > caracteres.length) {
+            caracteres = new char[Math.max(largo + 1, caracteres.length * 2)];
+            pendiente = CharBuffer.wrap(caracteres);
+        }
+        for (int i = 0; i < largo; i++) {
+            caracteres[i] = texto.charAt(i);
+        }
+        caracteres[largo] = '\n';
+        pendiente.limit(largo + 1).position(0);
+        if (buffer.remaining() < (largo + 1) * (int) codificador.maxBytesPerChar()) {
+            volcar();
+        }
+        codificador.reset();
+        while (codificador.encode(pendiente, buffer, true).isOverflow()) {
+            volcar();
+        }
+        while (codificador.flush(buffer).isOverflow()) {
+            volcar();
+        }
+    }
+
+    private void volcarSiToca() {
+        long ahora = System.currentTimeMillis();
+        if (cerrado || ahora - ultimoVolcadoMs < INTERVALO_VOLCADO_MS) {
+            return;
+        }
+        ultimoVolcadoMs = ahora;
+        try {
+            volcar();
+        } catch (IOException e) {
+            System.err.println("Error exportando resultados: " + e.getMessage());
+            cerrarSilencioso();
+        }
+    }
+
+    /**
+     * Pasa el buffer al canal; con gzip fuerza un SYNC_FLUSH del compresor
+     */
+    private void volcar() throws IOException {
+        buffer.flip();
+        escribir(buffer);
+        buffer.clear();
+        if (gzip != null) {
+            gzip.flush();
+        }
+        if (archivo == null) {
+            salida.flush();
+        }
+    }
+
+    private void escribir(ByteBuffer datos) throws IOException {
+        OutputStream destino = gzip != null ? gzip : salida;
+        destino.write(datos.array(), datos.arrayOffset() + datos.position(), datos.remaining());
+        datos.position(datos.limit());
+    }
+
+    private void anexarCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            linea.append(valor);
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linea.append('"');
+            }
+            linea.append(c);
+        }
+        linea.append('"');
+    }
+
+    private void anexarJson(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> linea.append("\\\"");
+                case '\\' -> linea.append("\\\\");
+                case '\n' -> linea.append("\\n");
+                case '\r' -> linea.append("\\r");
+                case '\t' -> linea.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sigue qué posiciones del recorrido terminaron para calcular la frontera
+ * (el prefijo sin huecos) y separa los hosts activos que ya quedaron detrás de ella.
+ * Los resultados llegan desordenados; el BitSet solo cubre el tramo entre la
+ * frontera y la última sonda lanzada y se compacta a medida que la frontera avanza.
+ * Se usa desde un único hilo (el del escaneo).
+ */
+class FronteraEscaneo {
+    private static final int COMPACTAR_CADA = 1 << 16;
+
+    private BitSet terminadas = new BitSet();
+    private long base;
+    private long frontera;
+    private final List<Dispositivo> confirmados = new ArrayList<>();
+    private final TreeMap<Long, Dispositivo> adelantados = new TreeMap<>();
+
+    /**
+     * @param activo el host si respondió, null si no
+     */
+    void terminar(long posicion, Dispositivo activo) {
+        if (posicion < frontera) {
+            return;
+        }
+        if (activo != null) {
+            adelantados.put(posicion, activo);
+        }
+        terminadas.set((int) (posicion - base));
+        frontera = base + terminadas.nextClearBit((int) (frontera - base));
+
+        Map<Long, Dispositivo> alcanzados = adelantados.headMap(frontera);
+        if (!alcanzados.isEmpty()) {
+            confirmados.addAll(alcanzados.values());
+            alcanzados.clear();
+        }
+        if (frontera - base >= COMPACTAR_CADA) {
+            int desplazamiento = (int) (frontera - base);
+            terminadas = terminadas.get(desplazamiento, Math.max(desplazamiento, terminadas.length()));
+            base = frontera;
+        }
+    }
+
+    long getFrontera() {
+        return frontera;
+    }
+
+    /**
+     * Hosts activos en posiciones anteriores a la frontera
+     */
+    List<Dispositivo> getConfirmados() {
+        return confirmados;
+    }
+}
@@ -1,32 +1,95 @@
 package controlador;
 
 import modelo.ConexionRed;
+import modelo.InstantaneaConexiones;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Gestor profesional de NetStat con 3 funciones específicas:
  * 1. Conexiones activas establecidas
  * 2. Puertos en escucha locales
  * 3. Estadísticas de protocolos
+ * En Linux la tabla de sockets se lee de /proc/net sin lanzar procesos;
+ * en otros sistemas, o si /proc falla, se ejecuta netstat. Los nombres de
+ * procesos se resuelven por lotes una vez por consulta, no uno por conexión.
+ * La tabla se captura una vez en una InstantaneaConexiones y las funciones la
+ * consultan; dentro de la vigencia configurada las consultas comparten la captura.
+ * En modo monitoreo se captura periódicamente y solo se notifican los cambios.
  */
 public class GestorNetStat {
-    private static final Pattern TCP_UDP_PATTERN = Pattern.compile(
-        "(TCP|UDP)\\s+([^\\s]+):(\\d+)\\s+([^\\s]+):(\\d+)\\s+(\\w+)"
-    );
-    private static final Pattern PID_PATTERN = Pattern.compile("\\[(\\d+)\\]");
+    private static final long VIGENCIA_POR_DEFECTO_MS = 1000;
+    private static final long INTERVALO_MONITOREO_MINIMO_MS = 100;
     
     private final List<NetStatListener> listeners = new CopyOnWriteArrayList<>();
+    private final MetricasNetStat metricas = MetricasNetStat.global();
+    // La tabla de sockets es del sistema: todas las ventanas comparten la última captura
+    private static final ResolutorProcesos PROCESOS = new ResolutorProcesos();
+    private static final LectorProcNet LECTOR_PROC_NET = !isWindows() && LectorProcNet.estaDisponible()
+        ? new LectorProcNet(PROCESOS) : null;
+    private static final Object CAPTURA_LOCK = new Object();
+    private static volatile InstantaneaConexiones ultimaInstantanea;
+    private volatile long vigenciaMs = VIGENCIA_POR_DEFECTO_MS;
+    private final Object monitoreoLock = new Object();
+    private ScheduledExecutorService monitor;
+
+    /**
+     * Una diferencia entre dos capturas del monitoreo. En ABIERTA anterior es
+     * null y en CERRADA lo es actual
+     */
+    public static final class CambioConexion {
+        public enum Tipo { ABIERTA, CERRADA, ESTADO }
+
+        private final Tipo tipo;
+        private final ConexionRed anterior;
+        private final ConexionRed actual;
+
+        public CambioConexion(Tipo tipo, ConexionRed anterior, ConexionRed actual) {
+            this.tipo = tipo;
+            this.anterior = anterior;
+            this.actual = actual;
+        }
+
+        public Tipo getTipo() { return tipo; }
+        public ConexionRed getAnterior() { return anterior; }
+        public ConexionRed getActual() { return actual; }
+    }
     
     public interface NetStatListener {
         void onNetStatIniciado(String funcion);
         void onConexionEncontrada(ConexionRed conexion);
         void onNetStatCompletado(String funcion, int totalConexiones);
         void onErrorNetStat(String error);
+
+        /** Monitoreo: apareció una conexión que no estaba en la captura anterior */
+        default void onConexionAbierta(ConexionRed conexion) {}
+
+        /** Monitoreo: una conexión de la captura anterior ya no está */
+        default void onConexionCerrada(ConexionRed conexion) {}
+
+        /** Monitoreo: la misma conexión pasó a otro estado */
+        default void onEstadoCambiado(ConexionRed anterior, ConexionRed actual) {}
+
+        /**
+         * Monitoreo: todos los cambios de una vuelta. Por defecto se reparten en
+         * los métodos de cada tipo; la interfaz puede sobrescribirlo para aplicar
+         * la vuelta de una vez
+         */
+        default void onCambiosMonitoreo(List<CambioConexion> cambios) {
+            for (CambioConexion cambio : cambios) {
+                switch (cambio.tipo) {
+                    case ABIERTA -> onConexionAbierta(cambio.actual);
+                    case CERRADA -> onConexionCerrada(cambio.anterior);
+                    case ESTADO -> onEstadoCambiado(cambio.anterior, cambio.actual);
+                }
+            }
+        }
     }
 
     public void agregarListener(NetStatListener listener) {
@@ -37,37 +100,157 @@ public class GestorNetStat {
         listeners.remove(listener);
     }
 
+    /**
+     * Tiempo durante el cual una captura se reutiliza en lugar de volver a leer
+     * la tabla de sockets; 0 captura siempre
+     */
+    public void setVigenciaInstantanea(long vigenciaMs) {
+        this.vigenciaMs = Math.max(0, vigenciaMs);
+    }
+
+    public long getVigenciaInstantanea() {
+        return vigenciaMs;
+    }
+
+    /**
+     * Instantánea de la tabla de sockets: la última si sigue vigente o una nueva.
+     * La última captura es común a todos los gestores; si varios hilos piden a la
+     * vez, se captura una sola vez
+     * @throws IOException si no se pudo leer la tabla
+     */
+    public InstantaneaConexiones obtenerInstantanea() throws IOException {
+        return obtenerInstantanea(vigenciaMs);
+    }
+
+    private InstantaneaConexiones obtenerInstantanea(long vigenciaMs) throws IOException {
+        InstantaneaConexiones instantanea = ultimaInstantanea;
+        if (vigente(instantanea, vigenciaMs)) {
+            metricas.instantaneaReutilizada();
+            return instantanea;
+        }
+        synchronized (CAPTURA_LOCK) {
+            instantanea = ultimaInstantanea;
+            if (vigente(instantanea, vigenciaMs)) {
+                metricas.instantaneaReutilizada();
+                return instantanea;
+            }
+            instantanea = capturar();
+            ultimaInstantanea = instantanea;
+            return instantanea;
+        }
+    }
+
+    private static boolean vigente(InstantaneaConexiones instantanea, long vigenciaMs) {
+        return instantanea != null && System.currentTimeMillis() - instantanea.getCapturadaMs() < vigenciaMs;
+    }
+
+    /**
+     * Inicia el modo monitoreo: cada intervaloMs (mínimo 100 ms) se captura la tabla
+     * y se notifican solo las diferencias con la captura anterior. Si ya había un
+     * monitoreo en curso, se reemplaza. Un error de lectura lo detiene
+     * @return la captura inicial, sobre la que se aplican los cambios
+     * @throws IOException si no se pudo leer la tabla inicial
+     */
+    public InstantaneaConexiones iniciarMonitoreo(long intervaloMs) throws IOException {
+        long intervalo = Math.max(INTERVALO_MONITOREO_MINIMO_MS, intervaloMs);
+        synchronized (monitoreoLock) {
+            detenerMonitoreo();
+            InstantaneaConexiones inicial = obtenerInstantanea(intervalo / 2);
+            ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "NetStat-Monitor");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            ejecutor.scheduleWithFixedDelay(new Monitoreo(ejecutor, inicial, intervalo / 2),
+                intervalo, intervalo, TimeUnit.MILLISECONDS);
+            monitor = ejecutor;
+            return inicial;
+        }
+    }
+
+    public void detenerMonitoreo() {
+        synchronized (monitoreoLock) {
+            if (monitor != null) {
+                monitor.shutdownNow();
+                monitor = null;
+            }
+        }
+    }
+
+    public boolean isMonitoreando() {
+        synchronized (monitoreoLock) {
+            return monitor != null;
+        }
+    }
+
+    /**
+     * Una vuelta del monitoreo: compara la captura nueva con la anterior por la
+     * identidad del socket (protocolo, direcciones, puertos y PID) con un HashMap
+     * y notifica todas las diferencias en un solo onCambiosMonitoreo
+     */
+    private final class Monitoreo implements Runnable {
+        private final ScheduledExecutorService ejecutor;
+        private final long vigenciaMs;
+        private InstantaneaConexiones anterior;
+
+        Monitoreo(ScheduledExecutorService ejecutor, InstantaneaConexiones inicial, long vigenciaMs) {
+            this.ejecutor = ejecutor;
+            this.anterior = inicial;
+            this.vigenciaMs = vigenciaMs;
+        }
+
+        @Override
+        public void run() {
+            InstantaneaConexiones actual;
+            try {
+                actual = obtenerInstantanea(vigenciaMs);
+            } catch (IOException e) {
+                synchronized (monitoreoLock) {
+                    ejecutor.shutdown();
+                    if (monitor == ejecutor) {
+                        monitor = null;
+                    }
+                }
+                notifyError("Monitoreo detenido: " + e.getMessage());
+                return;
+            }
+            if (actual == anterior) {
+                return;
+            }
+            List<CambioConexion> cambios = new ArrayList<>();
+            for (ConexionRed conexion : actual.getConexiones()) {
+                ConexionRed previa = anterior.buscar(conexion);
+                if (previa == null) {
+                    cambios.add(new CambioConexion(CambioConexion.Tipo.ABIERTA, null, conexion));
+                } else if (previa.getEstado() != conexion.getEstado()) {
+                    cambios.add(new CambioConexion(CambioConexion.Tipo.ESTADO, previa, conexion));
+                }
+            }
+            for (ConexionRed conexion : anterior.getConexiones()) {
+                if (actual.buscar(conexion) == null) {
+                    cambios.add(new CambioConexion(CambioConexion.Tipo.CERRADA, conexion, null));
+                }
+            }
+            anterior = actual;
+            if (!cambios.isEmpty()) {
+                notifyCambiosMonitoreo(cambios);
+            }
+        }
+    }
+
     /**
      * FUNCIÓN 1: Obtener conexiones activas establecidas
      */
     public List<ConexionRed> obtenerConexionesActivas() {
         notifyIniciado("CONEXIONES_ACTIVAS");
         List<ConexionRed> conexiones = new ArrayList<>();
-        
         try {
-            String comando = isWindows() ? "netstat -anop tcp" : "netstat -tupan";
-            Process process = Runtime.getRuntime().exec(comando);
-            
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    ConexionRed conexion = parsearLineaNetstat(line);
-                    if (conexion != null && 
-                        (conexion.getEstado() == ConexionRed.EstadoConexion.ESTABLISHED ||
-                         conexion.getEstado() == ConexionRed.EstadoConexion.CLOSE_WAIT)) {
-                        conexiones.add(conexion);
-                        notifyConexionEncontrada(conexion);
-                    }
-                }
-            }
-            
-            process.waitFor();
-        } catch (Exception e) {
+            conexiones.addAll(obtenerInstantanea().porEstado(
+                ConexionRed.EstadoConexion.ESTABLISHED, ConexionRed.EstadoConexion.CLOSE_WAIT));
+            conexiones.forEach(this::notifyConexionEncontrada);
+        } catch (IOException e) {
             notifyError("Error obteniendo conexiones activas: " + e.getMessage());
         }
-        
         notifyCompletado("CONEXIONES_ACTIVAS", conexiones.size());
         return conexiones;
     }
@@ -78,7 +261,43 @@ public class GestorNetStat {
     public List<ConexionRed> obtenerPuertosEscucha() {
         notifyIniciado("PUERTOS_ESPERA");
         List<ConexionRed> puertos = new ArrayList<>();
-        
+        try {
+            for (ConexionRed conexion : obtenerInstantanea().porEstado(ConexionRed.EstadoConexion.LISTENING)) {
+                if (conexion.esLocal()) {
+                    puertos.add(conexion);
+                    notifyConexionEncontrada(conexion);
+                }
+            }
+        } catch (IOException e) {
+            notifyError("Error obteniendo puertos en escucha: " + e.getMessage());
+        }
+        notifyCompletado("PUERTOS_ESPERA", puertos.size());
+        return puertos;
+    }
+
+    /**
+     * Lee la tabla de sockets completa. En Linux de /proc/net; si no está
+     * disponible o falla, se ejecuta netstat
+     */
+    private InstantaneaConexiones capturar() throws IOException {
+        long inicio = System.nanoTime();
+
+        if (LECTOR_PROC_NET != null) {
+            try {
+                InstantaneaConexiones instantanea = new InstantaneaConexiones(
+                    LECTOR_PROC_NET.leer(), System.currentTimeMillis());
+                long duracion = System.nanoTime() - inicio;
+                metricas.consultaTerminada(duracion, duracion, LECTOR_PROC_NET.getLineasLeidas(),
+                    instantanea.size(), false);
+                return instantanea;
+            } catch (IOException e) {
+                // Se intenta con netstat
+            }
+        }
+
+        List<ConexionRed> conexiones = new ArrayList<>();
+        long parseoNanos = 0;
+        long lineas = 0;
         try {
             String comando = isWindows() ? "netstat -anop tcp" : "netstat -tupan";
             Process process = Runtime.getRuntime().exec(comando);
@@ -88,23 +307,29 @@ public class GestorNetStat {
                 
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    lineas++;
+                    long inicioParseo = System.nanoTime();
                     ConexionRed conexion = parsearLineaNetstat(line);
-                    if (conexion != null && 
-                        conexion.getEstado() == ConexionRed.EstadoConexion.LISTENING &&
-                        conexion.esLocal()) {
-                        puertos.add(conexion);
-                        notifyConexionEncontrada(conexion);
+                    parseoNanos += System.nanoTime() - inicioParseo;
+                    if (conexion != null) {
+                        conexiones.add(conexion);
                     }
                 }
             }
             
             process.waitFor();
-        } catch (Exception e) {
-            notifyError("Error obteniendo puertos en escucha: " + e.getMessage());
+        } catch (IOException e) {
+            metricas.consultaTerminada(System.nanoTime() - inicio, parseoNanos, lineas, 0, true);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metricas.consultaTerminada(System.nanoTime() - inicio, parseoNanos, lineas, 0, true);
+            throw new IOException("Interrumpido esperando a netstat", e);
         }
-        
-        notifyCompletado("PUERTOS_ESPERA", puertos.size());
-        return puertos;
+        InstantaneaConexiones instantanea = new InstantaneaConexiones(
+            PROCESOS.completarNombres(conexiones), System.currentTimeMillis());
+        metricas.consultaTerminada(System.nanoTime() - inicio, parseoNanos, lineas, instantanea.size(), false);
+        return instantanea;
     }
 
     /**
@@ -113,6 +338,10 @@ public class GestorNetStat {
     public Map<String, Integer> obtenerEstadisticasProtocolos() {
         notifyIniciado("ESTADISTICAS_PROTOCOLOS");
         Map<String, Integer> estadisticas = new HashMap<>();
+        long inicio = System.nanoTime();
+        long parseoNanos = 0;
+        long lineas = 0;
+        boolean error = false;
         
         try {
             String comando = isWindows() ? "netstat -s" : "netstat -s";
@@ -125,6 +354,8 @@ public class GestorNetStat {
                 String protocoloActual = "";
                 
                 while ((line = reader.readLine()) != null) {
+                    lineas++;
+                    long inicioParseo = System.nanoTime();
                     line = line.trim();
                     
                     if (line.startsWith("TCP") || line.startsWith("UDP")) {
@@ -143,94 +374,37 @@ public class GestorNetStat {
                             }
                         }
                     }
+                    parseoNanos += System.nanoTime() - inicioParseo;
                 }
             }
             
             process.waitFor();
         } catch (Exception e) {
+            error = true;
             notifyError("Error obteniendo estadísticas: " + e.getMessage());
         }
-        
-        notifyCompletado("ESTADISTICAS_PROTOCOLOS", estadisticas.size());
-        return estadisticas;
-    }
-
-    private ConexionRed parsearLineaNetstat(String linea) {
-        try {
-            Matcher matcher = TCP_UDP_PATTERN.matcher(linea);
-            if (matcher.find()) {
-                ConexionRed.TipoProtocolo protocolo = ConexionRed.TipoProtocolo.valueOf(matcher.group(1));
-                String dirLocal = matcher.group(2);
-                int puertoLocal = Integer.parseInt(matcher.group(3));
-                String dirRemota = matcher.group(4);
-                int puertoRemoto = Integer.parseInt(matcher.group(5));
-                ConexionRed.EstadoConexion estado = parsearEstado(matcher.group(6));
-                
-                // Extraer PID si está disponible
-                int pid = extraerPID(linea);
-                String proceso = obtenerNombreProceso(pid);
-                
-                return new ConexionRed(protocolo, dirLocal, puertoLocal, 
-                                      dirRemota, puertoRemoto, estado, pid, proceso);
-            }
-        } catch (Exception e) {
-            // Ignorar líneas que no se pueden parsear
-        }
-        return null;
-    }
+        metricas.consultaTerminada(System.nanoTime() - inicio, parseoNanos, lineas, estadisticas.size(), error);
 
-    private ConexionRed.EstadoConexion parsearEstado(String estadoStr) {
+        // Sockets por estado, sacados de la misma instantánea que las otras funciones
         try {
-            return ConexionRed.EstadoConexion.valueOf(estadoStr.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return ConexionRed.EstadoConexion.ESTABLISHED; // Valor por defecto
-        }
-    }
-
-    private int extraerPID(String linea) {
-        Matcher matcher = PID_PATTERN.matcher(linea);
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1));
-            } catch (NumberFormatException e) {
-                return -1;
-            }
+            obtenerInstantanea().contarPorEstado().forEach((estado, cantidad) ->
+                estadisticas.put("SOCKETS_" + estado, cantidad));
+        } catch (IOException e) {
+            // Se muestran igual los contadores de netstat -s
         }
-        return -1;
+        
+        notifyCompletado("ESTADISTICAS_PROTOCOLOS", estadisticas.size());
+        return estadisticas;
     }
 
-    private String obtenerNombreProceso(int pid) {
-        if (pid <= 0) return "N/A";
-        
-        try {
-            String comando = isWindows() ? "tasklist /FI \"PID eq " + pid + "\"" : "ps -p " + pid + " -o comm=";
-            Process process = Runtime.getRuntime().exec(comando);
-            
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                
-                String line;
-                if (isWindows()) {
-                    // Saltar líneas de encabezado en Windows
-                    reader.readLine();
-                    reader.readLine();
-                    line = reader.readLine();
-                    if (line != null) {
-                        String[] partes = line.split("\\s+");
-                        return partes.length > 0 ? partes[0] : "N/A";
-                    }
-                } else {
-                    line = reader.readLine();
-                    return line != null ? line.trim() : "N/A";
-                }
-            }
-        } catch (Exception e) {
-            return "N/A";
-        }
-        return "N/A";
+    /**
+     * Visible en el paquete para los benchmarks del parser
+     */
+    ConexionRed parsearLineaNetstat(String linea) {
+        return ParserNetstat.parsear(linea);
     }
 
-    private boolean isWindows() {
+    private static boolean isWindows() {
         return System.getProperty("os.name").toLowerCase().contains("win");
     }
 
@@ -252,6 +426,13 @@ public class GestorNetStat {
         }
     }
 
+    private void notifyCambiosMonitoreo(List<CambioConexion> cambios) {
+        List<CambioConexion> lote = Collections.unmodifiableList(cambios);
+        for (NetStatListener listener : listeners) {
+            listener.onCambiosMonitoreo(lote);
+        }
+    }
+
     private void notifyError(String error) {
         for (NetStatListener listener : listeners) {
             listener.onErrorNetStat(error);
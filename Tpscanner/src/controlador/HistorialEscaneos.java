@@ -0,0 +1,665 @@
+package controlador;
+
+import modelo.Dispositivo;
+import util.ConjuntoObjetivos;
+import util.RangoIPv4;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial persistente de escaneos en un archivo binario de solo anexado.
+ * Cada host activo ocupa un registro fijo de 24 bytes (IP, RTT, marca de tiempo,
+ * indicadores, id de escaneo) y el archivo se abre con mmap, sin parsearlo.
+ * En paralelo, cadenas.dat enlaza cada registro con el anterior de su IP y el
+ * anterior de su escaneo, de modo que las consultas solo leen sus registros.
+ * Los índices se mantienen al anexar y se guardan en disco: al abrir se lee el
+ * último registro de cada IP (ips.idx) y solo se reindexa lo anexado después.
+ * resumenes.idx guarda por escaneo su estado y su tramo de registros, y
+ * objetivos.dat los tramos de IP que cubría.
+ */
+public class HistorialEscaneos implements AutoCloseable {
+    private static final int MAGIA = 0x45534831; // "ESH1"
+    private static final int VERSION = 1;
+    private static final int TAMANIO_CABECERA = 16;
+    private static final int TAMANIO_REGISTRO = 24;
+    private static final int TAMANIO_ENLACE = 8;
+    private static final int REGISTROS_POR_SEGMENTO = 1 << 18;
+    private static final long TAMANIO_SEGMENTO = (long) REGISTROS_POR_SEGMENTO * TAMANIO_REGISTRO;
+    private static final long TAMANIO_SEGMENTO_CADENAS = (long) REGISTROS_POR_SEGMENTO * TAMANIO_ENLACE;
+    private static final int TAMANIO_ENTRADA_ESCANEO = 64;
+
+    private static final String ARCHIVO_DATOS = "historial.dat";
+    private static final String ARCHIVO_CADENAS = "cadenas.dat";
+    private static final String ARCHIVO_RESUMENES = "resumenes.idx";
+    private static final String ARCHIVO_OBJETIVOS = "objetivos.dat";
+    private static final String ARCHIVO_ULTIMOS = "ips.idx";
+
+    public static final int INDICADOR_EN_LINEA = 1;
+
+    public static final int ESTADO_EN_CURSO = 0;
+    public static final int ESTADO_COMPLETADO = 1;
+    public static final int ESTADO_CANCELADO = 2;
+
+    /**
+     * Un resultado guardado
+     */
+    public static final class Registro {
+        private final int ip;
+        private final int tiempoRespuesta;
+        private final long marcaTiempo;
+        private final int indicadores;
+        private final int idEscaneo;
+
+        Registro(int ip, int tiempoRespuesta, long marcaTiempo, int indicadores, int idEscaneo) {
+            this.ip = ip;
+            this.tiempoRespuesta = tiempoRespuesta;
+            this.marcaTiempo = marcaTiempo;
+            this.indicadores = indicadores;
+            this.idEscaneo = idEscaneo;
+        }
+
+        public int getIp() { return ip; }
+        public int getTiempoRespuesta() { return tiempoRespuesta; }
+        public long getMarcaTiempo() { return marcaTiempo; }
+        public int getIndicadores() { return indicadores; }
+        public int getIdEscaneo() { return idEscaneo; }
+
+        public boolean estaEnLinea() {
+            return (indicadores & INDICADOR_EN_LINEA) != 0;
+        }
+    }
+
+    /**
+     * Entrada del índice de escaneos: estado, fechas, tramo de registros y
+     * tramos de IP cubiertos
+     */
+    public static final class ResumenEscaneo {
+        private final int id;
+        private int estado;
+        private final long inicioMs;
+        private long finMs;
+        private final long primerRegistro;
+        private long ultimoRegistro;
+        private final int ipMinima;
+        private final int ipMaxima;
+        // Inicio y fin (sin signo) de cada tramo, ordenados; null si objetivos.dat
+        // quedó truncado por un corte y solo se conoce el rango mínimo..máximo
+        private final int[] tramos;
+        private final long desplazamientoTramos;
+        // Posición + 1 del último registro propio, 0 si no tiene; sigue la cadena del escaneo
+        private long ultimoPropio;
+
+        ResumenEscaneo(int id, int estado, long inicioMs, long finMs, long primerRegistro,
+                       long ultimoRegistro, int ipMinima, int ipMaxima, int[] tramos,
+                       long desplazamientoTramos, long ultimoPropio) {
+            this.id = id;
+            this.estado = estado;
+            this.inicioMs = inicioMs;
+            this.finMs = finMs;
+            this.primerRegistro = primerRegistro;
+            this.ultimoRegistro = ultimoRegistro;
+            this.ipMinima = ipMinima;
+            this.ipMaxima = ipMaxima;
+            this.tramos = tramos;
+            this.desplazamientoTramos = desplazamientoTramos;
+            this.ultimoPropio = ultimoPropio;
+        }
+
+        public int getId() { return id; }
+        public int getEstado() { return estado; }
+        public long getInicioMs() { return inicioMs; }
+        public long getFinMs() { return finMs; }
+        public long getCantidadRegistros() { return ultimoRegistro - primerRegistro; }
+
+        /**
+         * Búsqueda binaria en los tramos: 10.0.0.0/24 + 10.9.0.0/24 no cubre 10.5.0.1
+         */
+        public boolean cubre(int ip) {
+            if (tramos == null) {
+                return Integer.compareUnsigned(ip, ipMinima) >= 0 && Integer.compareUnsigned(ip, ipMaxima) <= 0;
+            }
+            int bajo = 0;
+            int alto = tramos.length / 2 - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (Integer.compareUnsigned(ip, tramos[2 * medio]) < 0) {
+                    alto = medio - 1;
+                } else if (Integer.compareUnsigned(ip, tramos[2 * medio + 1]) > 0) {
+                    bajo = medio + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final FileChannel datos;
+    private final FileChannel cadenas;
+    private final FileChannel indiceEscaneos;
+    private final FileChannel objetivosEscaneos;
+    private final Path archivoUltimos;
+    private final MappedByteBuffer cabecera;
+    private final List<MappedByteBuffer> segmentos = new ArrayList<>();
+    private final List<MappedByteBuffer> segmentosCadenas = new ArrayList<>();
+    private final List<ResumenEscaneo> escaneos = new ArrayList<>();
+    private long registros;
+    // Último registro de cada IP; los anteriores se siguen por cadenas.dat
+    private final Map<Integer, Integer> ultimoPorIp = new HashMap<>();
+
+    private HistorialEscaneos(Path directorio, FileChannel datos, FileChannel cadenas,
+                              FileChannel indiceEscaneos, FileChannel objetivosEscaneos) throws IOException {
+        this.datos = datos;
+        this.cadenas = cadenas;
+        this.indiceEscaneos = indiceEscaneos;
+        this.objetivosEscaneos = objetivosEscaneos;
+        this.archivoUltimos = directorio.resolve(ARCHIVO_ULTIMOS);
+
+        boolean nuevo = datos.size() < TAMANIO_CABECERA;
+        cabecera = datos.map(FileChannel.MapMode.READ_WRITE, 0, TAMANIO_CABECERA);
+        if (nuevo) {
+            cabecera.putInt(0, MAGIA);
+            cabecera.putInt(4, VERSION);
+            cabecera.putLong(8, 0);
+        } else if (cabecera.getInt(0) != MAGIA || cabecera.getInt(4) != VERSION) {
+            throw new IOException("El archivo no es un historial de escaneos compatible");
+        }
+        // Tras un corte, la cabecera nunca cuenta registros que no llegaron al disco
+        long disponibles = (datos.size() - TAMANIO_CABECERA) / TAMANIO_REGISTRO;
+        registros = Math.max(0, Math.min(cabecera.getLong(8), disponibles));
+
+        cargarIndiceEscaneos();
+        cargarIndices();
+    }
+
+    /**
+     * Abre (o crea) el historial del directorio indicado
+     */
+    public static HistorialEscaneos abrir(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        List<FileChannel> abiertos = new ArrayList<>();
+        try {
+            for (String nombre : new String[] {ARCHIVO_DATOS, ARCHIVO_CADENAS, ARCHIVO_RESUMENES, ARCHIVO_OBJETIVOS}) {
+                abiertos.add(FileChannel.open(directorio.resolve(nombre),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE));
+            }
+            return new HistorialEscaneos(directorio, abiertos.get(0), abiertos.get(1), abiertos.get(2), abiertos.get(3));
+        } catch (IOException | RuntimeException e) {
+            for (FileChannel canal : abiertos) {
+                try {
+                    canal.close();
+                } catch (IOException ignorada) {
+                    e.addSuppressed(ignorada);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Registra el inicio de un escaneo sobre esos objetivos y devuelve su id.
+     * Los tramos se anexan a objetivos.dat antes de escribir la entrada que los apunta
+     */
+    public synchronized int iniciarEscaneo(ConjuntoObjetivos objetivos) throws IOException {
+        int cantidad = objetivos.getCantidadTramos();
+        int[] tramos = new int[cantidad * 2];
+        ByteBuffer buffer = ByteBuffer.allocate(4 + cantidad * 8);
+        buffer.putInt(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            RangoIPv4 tramo = objetivos.getTramo(i);
+            tramos[2 * i] = tramo.getInicio();
+            tramos[2 * i + 1] = tramo.getFin();
+            buffer.putInt(tramo.getInicio()).putInt(tramo.getFin());
+        }
+        buffer.flip();
+        long desplazamiento = objetivosEscaneos.size();
+        escribirCompleto(objetivosEscaneos, buffer, desplazamiento);
+
+        int ipMinima = cantidad > 0 ? tramos[0] : 0;
+        int ipMaxima = cantidad > 0 ? tramos[tramos.length - 1] : 0;
+        ResumenEscaneo escaneo = new ResumenEscaneo(escaneos.size() + 1, ESTADO_EN_CURSO,
+            System.currentTimeMillis(), 0, registros, registros, ipMinima, ipMaxima, tramos, desplazamiento, 0);
+        escaneos.add(escaneo);
+        escribirEntrada(escaneo);
+        return escaneo.id;
+    }
+
+    /**
+     * Anexa los dispositivos del lote; se ignoran si el escaneo ya terminó
+     */
+    public synchronized void registrar(int idEscaneo, List<Dispositivo> dispositivos) throws IOException {
+        ResumenEscaneo escaneo = buscarEscaneo(idEscaneo);
+        if (escaneo == null || escaneo.estado != ESTADO_EN_CURSO) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        for (Dispositivo dispositivo : dispositivos) {
+            long posicion = registros;
+            MappedByteBuffer segmento = segmento((int) (posicion / REGISTROS_POR_SEGMENTO));
+            int desplazamiento = (int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANIO_REGISTRO;
+            segmento.putInt(desplazamiento, dispositivo.getIpEntera());
+            segmento.putInt(desplazamiento + 4, (int) Math.min(Integer.MAX_VALUE, dispositivo.getTiempoRespuesta()));
+            segmento.putLong(desplazamiento + 8, ahora);
+            segmento.putInt(desplazamiento + 16, dispositivo.estaEnLinea() ? INDICADOR_EN_LINEA : 0);
+            segmento.putInt(desplazamiento + 20, idEscaneo);
+            enlazar(posicion, dispositivo.getIpEntera(), escaneo);
+            registros++;
+        }
+        // El contador se publica después de los registros
+        cabecera.putLong(8, registros);
+        escaneo.ultimoRegistro = registros;
+    }
+
+    public synchronized void finalizarEscaneo(int idEscaneo, int estado) throws IOException {
+        ResumenEscaneo escaneo = buscarEscaneo(idEscaneo);
+        if (escaneo == null || escaneo.estado != ESTADO_EN_CURSO) {
+            return;
+        }
+        escaneo.estado = estado;
+        escaneo.finMs = System.currentTimeMillis();
+        escribirEntrada(escaneo);
+        forzar();
+    }
+
+    /**
+     * Listener que vuelca al historial los resultados de un EscanerRed a medida que salen
+     */
+    public EscanerRed.EscanerRedListener crearListener(ConjuntoObjetivos objetivos) {
+        return crearListener(objetivos, List.of());
+    }
+
+    /**
+     * Para un escaneo reanudado: objetivos es el conjunto original y previos los
+     * hosts del punto de control, que se registran al iniciar junto con el escaneo
+     */
+    public EscanerRed.EscanerRedListener crearListener(ConjuntoObjetivos objetivos, List<Dispositivo> previos) {
+        return new EscanerRed.EscanerRedListener() {
+            private int idEscaneo = -1;
+
+            @Override
+            public void onEscaneoIniciado(long totalIps) {
+                try {
+                    idEscaneo = iniciarEscaneo(objetivos);
+                    if (!previos.isEmpty()) {
+                        registrar(idEscaneo, previos);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error iniciando historial: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void onHostDescubierto(Dispositivo dispositivo) {
+                onHostsDescubiertos(List.of(dispositivo));
+            }
+
+            @Override
+            public void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+                try {
+                    registrar(idEscaneo, dispositivos);
+                } catch (IOException e) {
+                    System.err.println("Error escribiendo historial: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void onProgreso(long completados, long total, double porcentaje) {
+            }
+
+            @Override
+            public void onErrorEscaneo(String ip, String error) {
+            }
+
+            @Override
+            public void onEscaneoCompletado(int totalActivos, long duracionMs) {
+                finalizar(ESTADO_COMPLETADO);
+            }
+
+            @Override
+            public void onEscaneoCancelado() {
+                finalizar(ESTADO_CANCELADO);
+            }
+
+            private void finalizar(int estado) {
+                try {
+                    finalizarEscaneo(idEscaneo, estado);
+                } catch (IOException e) {
+                    System.err.println("Error cerrando historial: " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    public synchronized long getCantidadRegistros() {
+        return registros;
+    }
+
+    public synchronized List<ResumenEscaneo> getEscaneos() {
+        return Collections.unmodifiableList(new ArrayList<>(escaneos));
+    }
+
+    public synchronized Registro leer(long posicion) throws IOException {
+        if (posicion < 0 || posicion >= registros) {
+            throw new IndexOutOfBoundsException("Registro inexistente: " + posicion);
+        }
+        MappedByteBuffer segmento = segmento((int) (posicion / REGISTROS_POR_SEGMENTO));
+        int desplazamiento = (int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANIO_REGISTRO;
+        return new Registro(segmento.getInt(desplazamiento), segmento.getInt(desplazamiento + 4),
+            segmento.getLong(desplazamiento + 8), segmento.getInt(desplazamiento + 16),
+            segmento.getInt(desplazamiento + 20));
+    }
+
+    /**
+     * Registros del escaneo en orden de anexado, siguiendo su cadena
+     */
+    public synchronized List<Registro> registrosDeEscaneo(int idEscaneo) throws IOException {
+        List<Registro> resultado = new ArrayList<>();
+        ResumenEscaneo escaneo = buscarEscaneo(idEscaneo);
+        if (escaneo == null) {
+            return resultado;
+        }
+        for (long posicion = escaneo.ultimoPropio - 1; posicion >= 0; posicion = enlace(posicion, 4) - 1) {
+            resultado.add(leer(posicion));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /**
+     * Registros de una IP en orden cronológico
+     */
+    public synchronized List<Registro> registrosDe(int ip) throws IOException {
+        List<Registro> resultado = new ArrayList<>();
+        Integer ultimo = ultimoPorIp.get(ip);
+        for (long posicion = ultimo != null ? ultimo : -1; posicion >= 0; posicion = enlace(posicion, 0) - 1) {
+            resultado.add(leer(posicion));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /**
+     * Fracción de escaneos completados en [desdeMs, hastaMs] que cubrían la IP
+     * y la encontraron activa; -1 si ninguno la cubría
+     */
+    public synchronized double disponibilidad(int ip, long desdeMs, long hastaMs) throws IOException {
+        int cubiertos = 0;
+        Map<Integer, Boolean> candidatos = new HashMap<>();
+        for (ResumenEscaneo escaneo : escaneos) {
+            if (escaneo.estado == ESTADO_COMPLETADO && escaneo.inicioMs >= desdeMs
+                    && escaneo.inicioMs <= hastaMs && escaneo.cubre(ip)) {
+                cubiertos++;
+                candidatos.put(escaneo.id, Boolean.FALSE);
+            }
+        }
+        if (cubiertos == 0) {
+            return -1;
+        }
+
+        int presentes = 0;
+        Integer ultimo = ultimoPorIp.get(ip);
+        for (long posicion = ultimo != null ? ultimo : -1; posicion >= 0; posicion = enlace(posicion, 0) - 1) {
+            Registro registro = leer(posicion);
+            if (registro.estaEnLinea() && candidatos.replace(registro.idEscaneo, Boolean.TRUE) == Boolean.FALSE) {
+                presentes++;
+            }
+        }
+        return (double) presentes / cubiertos;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            forzar();
+        } finally {
+            try {
+                datos.close();
+            } finally {
+                try {
+                    cadenas.close();
+                } finally {
+                    try {
+                        indiceEscaneos.close();
+                    } finally {
+                        objetivosEscaneos.close();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Baja a disco registros, cadenas y entradas antes de guardar ips.idx, que
+     * solo puede contar registros cuyos enlaces ya están escritos
+     */
+    private void forzar() throws IOException {
+        for (MappedByteBuffer segmento : segmentos) {
+            if (segmento != null) {
+                segmento.force();
+            }
+        }
+        for (MappedByteBuffer segmento : segmentosCadenas) {
+            if (segmento != null) {
+                segmento.force();
+            }
+        }
+        cabecera.force();
+        // Los escaneos en curso también guardan hasta dónde llega su cadena
+        for (ResumenEscaneo escaneo : escaneos) {
+            if (escaneo.estado == ESTADO_EN_CURSO) {
+                escribirEntrada(escaneo);
+            }
+        }
+        objetivosEscaneos.force(false);
+        indiceEscaneos.force(false);
+        guardarUltimos();
+    }
+
+    /**
+     * Segmentos mapeados bajo demanda; mapear más allá del final extiende el archivo
+     */
+    private MappedByteBuffer segmento(int indice) throws IOException {
+        return mapear(datos, segmentos, indice, TAMANIO_CABECERA + indice * TAMANIO_SEGMENTO, TAMANIO_SEGMENTO);
+    }
+
+    private MappedByteBuffer segmentoCadenas(int indice) throws IOException {
+        return mapear(cadenas, segmentosCadenas, indice, indice * TAMANIO_SEGMENTO_CADENAS, TAMANIO_SEGMENTO_CADENAS);
+    }
+
+    private static MappedByteBuffer mapear(FileChannel canal, List<MappedByteBuffer> mapeados, int indice,
+                                           long desde, long tamanio) throws IOException {
+        while (mapeados.size() <= indice) {
+            mapeados.add(null);
+        }
+        MappedByteBuffer segmento = mapeados.get(indice);
+        if (segmento == null) {
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, desde, tamanio);
+            mapeados.set(indice, segmento);
+        }
+        return segmento;
+    }
+
+    /**
+     * Enlaza el registro con el anterior de su IP y el anterior de su escaneo
+     * (posición + 1, 0 si no hay) y lo deja como último de ambos
+     */
+    private void enlazar(long posicion, int ip, ResumenEscaneo escaneo) throws IOException {
+        MappedByteBuffer segmento = segmentoCadenas((int) (posicion / REGISTROS_POR_SEGMENTO));
+        int desplazamiento = (int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANIO_ENLACE;
+        Integer anterior = ultimoPorIp.put(ip, (int) posicion);
+        segmento.putInt(desplazamiento, anterior != null ? anterior + 1 : 0);
+        segmento.putInt(desplazamiento + 4, escaneo != null ? (int) escaneo.ultimoPropio : 0);
+        if (escaneo != null) {
+            escaneo.ultimoPropio = posicion + 1;
+        }
+    }
+
+    /**
+     * Campo del enlace: 0 para el anterior de la IP, 4 para el anterior del escaneo
+     */
+    private int enlace(long posicion, int campo) throws IOException {
+        MappedByteBuffer segmento = segmentoCadenas((int) (posicion / REGISTROS_POR_SEGMENTO));
+        return segmento.getInt((int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANIO_ENLACE + campo);
+    }
+
+    /**
+     * Carga ips.idx y reindexa solo los registros anexados después de guardarlo.
+     * Si no existe o no concuerda con las entradas (p. ej. tras un corte a mitad)
+     * se reconstruye todo una vez y se vuelve a guardar
+     */
+    private void cargarIndices() throws IOException {
+        long indexados = cargarUltimos();
+        boolean coherente = indexados >= 0 && indexados <= registros;
+        for (ResumenEscaneo escaneo : escaneos) {
+            coherente &= escaneo.ultimoPropio <= indexados;
+        }
+        if (!coherente) {
+            ultimoPorIp.clear();
+            for (ResumenEscaneo escaneo : escaneos) {
+                escaneo.ultimoPropio = 0;
+            }
+            indexados = 0;
+        }
+        for (long posicion = indexados; posicion < registros; posicion++) {
+            MappedByteBuffer segmento = segmento((int) (posicion / REGISTROS_POR_SEGMENTO));
+            int desplazamiento = (int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANIO_REGISTRO;
+            enlazar(posicion, segmento.getInt(desplazamiento), buscarEscaneo(segmento.getInt(desplazamiento + 20)));
+        }
+        if (indexados < registros) {
+            forzar();
+        }
+    }
+
+    /**
+     * ips.idx: registros indexados (long), cantidad de IPs (int) y pares
+     * IP, último registro. Devuelve los indexados, o -1 si el archivo no sirve
+     */
+    private long cargarUltimos() throws IOException {
+        if (!Files.exists(archivoUltimos)) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(archivoUltimos));
+        if (buffer.remaining() < 12) {
+            return -1;
+        }
+        long indexados = buffer.getLong();
+        int cantidad = buffer.getInt();
+        if (cantidad < 0 || buffer.remaining() != cantidad * 8L) {
+            return -1;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            int ip = buffer.getInt();
+            int posicion = buffer.getInt();
+            if (posicion < 0 || posicion >= indexados) {
+                ultimoPorIp.clear();
+                return -1;
+            }
+            ultimoPorIp.put(ip, posicion);
+        }
+        return indexados;
+    }
+
+    /**
+     * Se escribe aparte y se reemplaza de una vez, así un corte deja el anterior
+     */
+    private void guardarUltimos() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + ultimoPorIp.size() * 8);
+        buffer.putLong(registros).putInt(ultimoPorIp.size());
+        for (Map.Entry<Integer, Integer> ultimo : ultimoPorIp.entrySet()) {
+            buffer.putInt(ultimo.getKey()).putInt(ultimo.getValue());
+        }
+        buffer.flip();
+        Path temporal = archivoUltimos.resolveSibling(ARCHIVO_ULTIMOS + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            escribirCompleto(canal, buffer, 0);
+            canal.force(false);
+        }
+        Files.move(temporal, archivoUltimos, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private ResumenEscaneo buscarEscaneo(int id) {
+        return id >= 1 && id <= escaneos.size() ? escaneos.get(id - 1) : null;
+    }
+
+    private void cargarIndiceEscaneos() throws IOException {
+        ByteBuffer buffer = leerCompleto(indiceEscaneos,
+            indiceEscaneos.size() / TAMANIO_ENTRADA_ESCANEO * TAMANIO_ENTRADA_ESCANEO);
+        ByteBuffer tramos = leerCompleto(objetivosEscaneos, objetivosEscaneos.size());
+        while (buffer.remaining() >= TAMANIO_ENTRADA_ESCANEO) {
+            int id = buffer.getInt();
+            int estado = buffer.getInt();
+            long inicioMs = buffer.getLong();
+            long finMs = buffer.getLong();
+            long primero = Math.min(buffer.getLong(), registros);
+            long ultimo = Math.min(buffer.getLong(), registros);
+            int ipMinima = buffer.getInt();
+            int ipMaxima = buffer.getInt();
+            long desplazamiento = buffer.getLong();
+            long ultimoPropio = buffer.getLong();
+            // Un escaneo que quedó a medias por un corte se da por cancelado
+            if (estado == ESTADO_EN_CURSO) {
+                estado = ESTADO_CANCELADO;
+                ultimo = registros;
+            }
+            escaneos.add(new ResumenEscaneo(id, estado, inicioMs, finMs, primero, ultimo, ipMinima, ipMaxima,
+                leerTramos(tramos, desplazamiento), desplazamiento, ultimoPropio));
+        }
+    }
+
+    /**
+     * Tramos de objetivos.dat: cantidad (int) y pares inicio, fin. null si no están
+     */
+    private static int[] leerTramos(ByteBuffer buffer, long desplazamiento) {
+        if (desplazamiento < 0 || desplazamiento + 4 > buffer.limit()) {
+            return null;
+        }
+        int cantidad = buffer.getInt((int) desplazamiento);
+        if (cantidad < 0 || desplazamiento + 4 + cantidad * 8L > buffer.limit()) {
+            return null;
+        }
+        int[] tramos = new int[cantidad * 2];
+        for (int i = 0; i < tramos.length; i++) {
+            tramos[i] = buffer.getInt((int) desplazamiento + 4 + i * 4);
+        }
+        return tramos;
+    }
+
+    private void escribirEntrada(ResumenEscaneo escaneo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_ENTRADA_ESCANEO);
+        buffer.putInt(escaneo.id).putInt(escaneo.estado)
+            .putLong(escaneo.inicioMs).putLong(escaneo.finMs)
+            .putLong(escaneo.primerRegistro).putLong(escaneo.ultimoRegistro)
+            .putInt(escaneo.ipMinima).putInt(escaneo.ipMaxima)
+            .putLong(escaneo.desplazamientoTramos).putLong(escaneo.ultimoPropio)
+            .flip();
+        escribirCompleto(indiceEscaneos, buffer, (long) (escaneo.id - 1) * TAMANIO_ENTRADA_ESCANEO);
+    }
+
+    private static ByteBuffer leerCompleto(FileChannel canal, long tamanio) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanio);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package controlador;
+
+import modelo.ConexionRed;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de sockets de Linux leída de /proc/net/{tcp,tcp6,udp,udp6}, sin lanzar procesos.
+ * Cada archivo se lee entero y se recorre byte a byte: las direcciones vienen en
+ * hexadecimal con el orden de bytes del host y el estado es el código del kernel.
+ * Los sockets UDP sin conectar (estado 07) se informan como LISTENING, igual que
+ * los muestra netstat en la vista de puertos en escucha. El dueño de cada socket
+ * se obtiene por su inodo con ResolutorProcesos.
+ */
+class LectorProcNet {
+    private static final Path DIRECTORIO = Path.of("/proc/net");
+    private static final boolean HOST_LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    // Columnas de cada línea: sl, local_address, rem_address, st, tx_queue:rx_queue,
+    // tr:tm->when, retrnsmt, uid, timeout, inode, ...
+    private static final int COLUMNA_LOCAL = 1;
+    private static final int COLUMNA_REMOTA = 2;
+    private static final int COLUMNA_ESTADO = 3;
+    private static final int COLUMNA_INODO = 9;
+    private static final int COLUMNAS_NECESARIAS = 4;
+
+    private final Path directorio;
+    private final ResolutorProcesos procesos;
+    private long lineasLeidas;
+
+    LectorProcNet(ResolutorProcesos procesos) {
+        this(DIRECTORIO, procesos);
+    }
+
+    /**
+     * @param directorio carpeta con los archivos tcp, tcp6, udp y udp6 (para leer capturas)
+     * @param procesos resolutor de dueños de sockets, o null para dejar los PID en -1
+     */
+    LectorProcNet(Path directorio, ResolutorProcesos procesos) {
+        this.directorio = directorio;
+        this.procesos = procesos;
+    }
+
+    /**
+     * Hay /proc/net/tcp legible, es decir, estamos en Linux con procfs montado
+     */
+    static boolean estaDisponible() {
+        return Files.isReadable(DIRECTORIO.resolve("tcp"));
+    }
+
+    /**
+     * Lee todas las tablas; los archivos que no existen (p. ej. sin IPv6) se omiten
+     * @throws IOException si no se pudo leer ninguna tabla
+     */
+    List<ConexionRed> leer() throws IOException {
+        List<ConexionRed> conexiones = new ArrayList<>();
+        Map<Long, Integer> inodos = procesos != null ? procesos.mapearInodos() : Map.of();
+        lineasLeidas = 0;
+        int leidas = 0;
+        IOException primerError = null;
+        for (String nombre : new String[] {"tcp", "tcp6", "udp", "udp6"}) {
+            Path archivo = directorio.resolve(nombre);
+            if (!Files.exists(archivo)) {
+                continue;
+            }
+            try {
+                parsear(Files.readAllBytes(archivo), nombre.startsWith("tcp")
+                    ? ConexionRed.TipoProtocolo.TCP : ConexionRed.TipoProtocolo.UDP, inodos, conexiones);
+                leidas++;
+            } catch (IOException e) {
+                if (primerError == null) {
+                    primerError = e;
+                }
+            }
+        }
+        if (leidas == 0) {
+            throw primerError != null ? primerError : new IOException("No hay tablas de sockets en " + directorio);
+        }
+        return procesos != null ? procesos.completarNombres(conexiones) : conexiones;
+    }
+
+    /**
+     * Líneas de datos procesadas en la última lectura
+     */
+    long getLineasLeidas() {
+        return lineasLeidas;
+    }
+
+    /**
+     * Recorre el contenido de una tabla; las líneas mal formadas se ignoran
+     * @param inodos inodo de socket -> PID del dueño
+     */
+    void parsear(byte[] datos, ConexionRed.TipoProtocolo protocolo, Map<Long, Integer> inodos,
+                 List<ConexionRed> destino) {
+        int[] inicios = new int[COLUMNA_INODO + 1];
+        int[] fines = new int[COLUMNA_INODO + 1];
+        int pos = saltarLinea(datos, 0); // cabecera
+        while (pos < datos.length) {
+            int finLinea = pos;
+            while (finLinea < datos.length && datos[finLinea] != '\n') {
+                finLinea++;
+            }
+
+            int columnas = 0;
+            int i = pos;
+            while (columnas <= COLUMNA_INODO) {
+                while (i < finLinea && datos[i] == ' ') {
+                    i++;
+                }
+                if (i >= finLinea) {
+                    break;
+                }
+                inicios[columnas] = i;
+                while (i < finLinea && datos[i] != ' ') {
+                    i++;
+                }
+                fines[columnas++] = i;
+            }
+
+            if (columnas >= COLUMNAS_NECESARIAS) {
+                lineasLeidas++;
+                long inodo = columnas > COLUMNA_INODO ? decimal(datos, inicios[COLUMNA_INODO], fines[COLUMNA_INODO]) : -1;
+                Integer pid = inodo > 0 ? inodos.get(inodo) : null;
+                ConexionRed conexion = crearConexion(datos, protocolo, inicios, fines, pid != null ? pid : -1);
+                if (conexion != null) {
+                    destino.add(conexion);
+                }
+            }
+            pos = finLinea + 1;
+        }
+    }
+
+    private static ConexionRed crearConexion(byte[] datos, ConexionRed.TipoProtocolo protocolo,
+                                             int[] inicios, int[] fines, int pid) {
+        int separadorLocal = indiceDe(datos, inicios[COLUMNA_LOCAL], fines[COLUMNA_LOCAL], (byte) ':');
+        int separadorRemoto = indiceDe(datos, inicios[COLUMNA_REMOTA], fines[COLUMNA_REMOTA], (byte) ':');
+        if (separadorLocal < 0 || separadorRemoto < 0) {
+            return null;
+        }
+        String local = direccion(datos, inicios[COLUMNA_LOCAL], separadorLocal);
+        String remota = direccion(datos, inicios[COLUMNA_REMOTA], separadorRemoto);
+        long puertoLocal = hex(datos, separadorLocal + 1, fines[COLUMNA_LOCAL]);
+        long puertoRemoto = hex(datos, separadorRemoto + 1, fines[COLUMNA_REMOTA]);
+        long codigoEstado = hex(datos, inicios[COLUMNA_ESTADO], fines[COLUMNA_ESTADO]);
+        if (local == null || remota == null || puertoLocal < 0 || puertoRemoto < 0 || codigoEstado < 0) {
+            return null;
+        }
+        ConexionRed.EstadoConexion estado = estado((int) codigoEstado, protocolo);
+        if (estado == null) {
+            return null;
+        }
+        return new ConexionRed(protocolo, local, (int) puertoLocal, remota, (int) puertoRemoto,
+            estado, pid, "N/A");
+    }
+
+    /**
+     * Códigos de include/net/tcp_states.h
+     */
+    static ConexionRed.EstadoConexion estado(int codigo, ConexionRed.TipoProtocolo protocolo) {
+        return switch (codigo) {
+            case 0x01 -> ConexionRed.EstadoConexion.ESTABLISHED;
+            case 0x02 -> ConexionRed.EstadoConexion.SYN_SENT;
+            case 0x03 -> ConexionRed.EstadoConexion.SYN_RECEIVED;
+            case 0x04 -> ConexionRed.EstadoConexion.FIN_WAIT_1;
+            case 0x05 -> ConexionRed.EstadoConexion.FIN_WAIT_2;
+            case 0x06 -> ConexionRed.EstadoConexion.TIME_WAIT;
+            case 0x07 -> protocolo == ConexionRed.TipoProtocolo.UDP
+                ? ConexionRed.EstadoConexion.LISTENING : ConexionRed.EstadoConexion.CLOSE;
+            case 0x08 -> ConexionRed.EstadoConexion.CLOSE_WAIT;
+            case 0x09 -> ConexionRed.EstadoConexion.LAST_ACK;
+            case 0x0A -> ConexionRed.EstadoConexion.LISTENING;
+            case 0x0B -> ConexionRed.EstadoConexion.CLOSING;
+            default -> null;
+        };
+    }
+
+    /**
+     * Dirección en hex: 8 dígitos para IPv4, 32 para IPv6 (cuatro palabras de 32 bits).
+     * Cada palabra está en el orden de bytes del host
+     */
+    private static String direccion(byte[] datos, int desde, int hasta) {
+        int digitos = hasta - desde;
+        if (digitos != 8 && digitos != 32) {
+            return null;
+        }
+        byte[] bytes = new byte[digitos / 2];
+        for (int palabra = 0; palabra < digitos / 8; palabra++) {
+            long valor = hex(datos, desde + palabra * 8, desde + palabra * 8 + 8);
+            if (valor < 0) {
+                return null;
+            }
+            int red = HOST_LITTLE_ENDIAN ? Integer.reverseBytes((int) valor) : (int) valor;
+            bytes[palabra * 4] = (byte) (red >>> 24);
+            bytes[palabra * 4 + 1] = (byte) (red >>> 16);
+            bytes[palabra * 4 + 2] = (byte) (red >>> 8);
+            bytes[palabra * 4 + 3] = (byte) red;
+        }
+        return bytes.length == 4 ? formatearIPv4(bytes, 0) : formatearIPv6(bytes);
+    }
+
+    private static String formatearIPv4(byte[] bytes, int desde) {
+        return (bytes[desde] & 0xFF) + "." + (bytes[desde + 1] & 0xFF) + "."
+            + (bytes[desde + 2] & 0xFF) + "." + (bytes[desde + 3] & 0xFF);
+    }
+
+    /**
+     * Forma canónica de RFC 5952: minúsculas, sin ceros a la izquierda y la serie
+     * de grupos cero más larga (de al menos dos) abreviada con "::".
+     * Las IPv4 mapeadas se escriben como ::ffff:a.b.c.d
+     */
+    static String formatearIPv6(byte[] bytes) {
+        int[] grupos = new int[8];
+        for (int i = 0; i < 8; i++) {
+            grupos[i] = ((bytes[i * 2] & 0xFF) << 8) | (bytes[i * 2 + 1] & 0xFF);
+        }
+        if (grupos[0] == 0 && grupos[1] == 0 && grupos[2] == 0 && grupos[3] == 0
+                && grupos[4] == 0 && grupos[5] == 0xFFFF) {
+            return "::ffff:" + formatearIPv4(bytes, 12);
+        }
+
+        int mejorInicio = -1;
+        int mejorLargo = 1;
+        for (int i = 0; i < 8; ) {
+            if (grupos[i] != 0) {
+                i++;
+                continue;
+            }
+            int j = i;
+            while (j < 8 && grupos[j] == 0) {
+                j++;
+            }
+            if (j - i > mejorLargo) {
+                mejorInicio = i;
+                mejorLargo = j - i;
+            }
+            i = j;
+        }
+
+        StringBuilder texto = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == mejorInicio) {
+                texto.append("::");
+                i += mejorLargo - 1;
+                continue;
+            }
+            if (texto.length() > 0 && texto.charAt(texto.length() - 1) != ':') {
+                texto.append(':');
+            }
+            texto.append(Integer.toHexString(grupos[i]));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Valor hexadecimal de datos[desde, hasta), o -1 si no es hex o está vacío
+     */
+    private static long hex(byte[] datos, int desde, int hasta) {
+        if (desde >= hasta || hasta - desde > 15) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            int c = datos[i];
+            int digito;
+            if (c >= '0' && c <= '9') {
+                digito = c - '0';
+            } else if (c >= 'A' && c <= 'F') {
+                digito = c - 'A' + 10;
+            } else if (c >= 'a' && c <= 'f') {
+                digito = c - 'a' + 10;
+            } else {
+                return -1;
+            }
+            valor = (valor << 4) | digito;
+        }
+        return valor;
+    }
+
+    private static long decimal(byte[] datos, int desde, int hasta) {
+        if (desde >= hasta || hasta - desde > 18) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (datos[i] < '0' || datos[i] > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (datos[i] - '0');
+        }
+        return valor;
+    }
+
+    private static int indiceDe(byte[] datos, int desde, int hasta, byte buscado) {
+        for (int i = desde; i < hasta; i++) {
+            if (datos[i] == buscado) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int saltarLinea(byte[] datos, int desde) {
+        int i = desde;
+        while (i < datos.length && datos[i] != '\n') {
+            i++;
+        }
+        return i + 1;
+    }
+}
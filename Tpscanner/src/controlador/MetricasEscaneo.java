@@ -0,0 +1,169 @@
+package controlador;
+
+import util.HistogramaLatencias;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de EscanerRed para observar un escaneo en vivo (jconsole o
+ * cualquier lector JMX). La instancia global agrega todos los escaneos del
+ * proceso y se publica como tpscanner:type=Escaneo al usarse por primera vez.
+ * Todo es sin bloqueos: se actualiza desde los hilos de las sondas.
+ * Los valores instantáneos (en vuelo, cola) se llevan por escaneo y se suman
+ * sobre los escaneos en curso, así una sonda que termina tras cancelar no los desvía.
+ */
+public class MetricasEscaneo implements MetricasEscaneoMBean {
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+
+    private final LongAdder sondasLanzadas = new LongAdder();
+    private final LongAdder sondasCompletadas = new LongAdder();
+    private final Set<Medidores> enCurso = ConcurrentHashMap.newKeySet();
+    private final LongAdder hostsActivos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder escaneosCompletados = new LongAdder();
+    private final LongAdder escaneosCancelados = new LongAdder();
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final HistogramaLatencias dns = new HistogramaLatencias();
+
+    // Sondas completadas por segundo, una cubeta para el segundo en curso y otra
+    // para el anterior: [segundo (32 bits altos)][cantidad (32 bits bajos)]
+    private final AtomicLongArray cubetasTasa = new AtomicLongArray(2);
+
+    /**
+     * Valores instantáneos de un escaneo
+     */
+    static final class Medidores {
+        final AtomicLong enVuelo = new AtomicLong();
+        final AtomicLong cola = new AtomicLong();
+    }
+
+    private static final class Global {
+        static final MetricasEscaneo INSTANCIA = new MetricasEscaneo();
+
+        static {
+            RegistroJmx.registrar(INSTANCIA, "Escaneo");
+        }
+    }
+
+    /**
+     * Métricas compartidas del proceso, ya publicadas por JMX
+     */
+    public static MetricasEscaneo global() {
+        return Global.INSTANCIA;
+    }
+
+    Medidores escaneoIniciado() {
+        Medidores medidores = new Medidores();
+        enCurso.add(medidores);
+        return medidores;
+    }
+
+    void escaneoTerminado(Medidores medidores, boolean completo) {
+        enCurso.remove(medidores);
+        (completo ? escaneosCompletados : escaneosCancelados).increment();
+    }
+
+    void sondaLanzada(Medidores medidores) {
+        sondasLanzadas.increment();
+        medidores.enVuelo.incrementAndGet();
+    }
+
+    /**
+     * La sonda terminó y su resultado entra en la cola del hilo del escaneo
+     */
+    void sondaTerminada(Medidores medidores, long nanos, boolean activo, boolean error) {
+        medidores.enVuelo.decrementAndGet();
+        medidores.cola.incrementAndGet();
+        sondasCompletadas.increment();
+        contarEnCubeta(System.nanoTime() / NANOS_POR_SEGUNDO);
+        latencias.registrar(nanos);
+        if (error) {
+            errores.increment();
+        } else if (activo) {
+            hostsActivos.increment();
+        } else {
+            timeouts.increment();
+        }
+    }
+
+    /**
+     * Suma una sonda a la cubeta del segundo; si la cubeta tenía un segundo
+     * anterior, empieza de nuevo en el mismo CAS para no perder cuentas
+     */
+    private void contarEnCubeta(long segundo) {
+        long marca = (segundo & 0xFFFFFFFFL) << 32;
+        cubetasTasa.getAndUpdate((int) (segundo & 1),
+            valor -> (valor & 0xFFFFFFFF00000000L) == marca ? valor + 1 : marca | 1);
+    }
+
+    void resultadoProcesado(Medidores medidores) {
+        medidores.cola.decrementAndGet();
+    }
+
+    void nombreResuelto(long nanos) {
+        dns.registrar(nanos);
+    }
+
+    @Override public long getSondasLanzadas() { return sondasLanzadas.sum(); }
+    @Override public long getSondasCompletadas() { return sondasCompletadas.sum(); }
+
+    /**
+     * Sondas completadas en el último segundo entero. Solo lee las cubetas: varios
+     * lectores JMX a la vez no se desvían la tasa entre sí
+     */
+    @Override
+    public double getSondasPorSegundo() {
+        long anterior = System.nanoTime() / NANOS_POR_SEGUNDO - 1;
+        long valor = cubetasTasa.get((int) (anterior & 1));
+        return (valor >>> 32) == (anterior & 0xFFFFFFFFL) ? valor & 0xFFFFFFFFL : 0;
+    }
+
+    @Override
+    public long getSondasEnVuelo() {
+        return enCurso.stream().mapToLong(m -> m.enVuelo.get()).sum();
+    }
+
+    @Override
+    public long getProfundidadCola() {
+        return enCurso.stream().mapToLong(m -> m.cola.get()).sum();
+    }
+
+    @Override public long getHostsActivos() { return hostsActivos.sum(); }
+    @Override public long getTimeouts() { return timeouts.sum(); }
+    @Override public long getErrores() { return errores.sum(); }
+    @Override public double getLatenciaMediaMs() { return latencias.getMediaMs(); }
+    @Override public double getLatenciaP50Ms() { return latencias.percentilMs(50); }
+    @Override public double getLatenciaP95Ms() { return latencias.percentilMs(95); }
+    @Override public double getLatenciaP99Ms() { return latencias.percentilMs(99); }
+    @Override public long getResolucionesDns() { return dns.getCantidad(); }
+    @Override public double getDnsMediaMs() { return dns.getMediaMs(); }
+    @Override public double getDnsP50Ms() { return dns.percentilMs(50); }
+    @Override public double getDnsP95Ms() { return dns.percentilMs(95); }
+    @Override public double getDnsP99Ms() { return dns.percentilMs(99); }
+    @Override public long getEscaneosEnCurso() { return enCurso.size(); }
+    @Override public long getEscaneosCompletados() { return escaneosCompletados.sum(); }
+    @Override public long getEscaneosCancelados() { return escaneosCancelados.sum(); }
+
+    /**
+     * Pone a cero contadores e histogramas; los valores instantáneos (en vuelo, cola,
+     * escaneos en curso) se conservan porque describen trabajo que sigue activo
+     */
+    @Override
+    public synchronized void reiniciar() {
+        sondasLanzadas.reset();
+        sondasCompletadas.reset();
+        hostsActivos.reset();
+        timeouts.reset();
+        errores.reset();
+        escaneosCompletados.reset();
+        escaneosCancelados.reset();
+        latencias.reiniciar();
+        dns.reiniciar();
+        cubetasTasa.set(0, 0);
+        cubetasTasa.set(1, 0);
+    }
+}
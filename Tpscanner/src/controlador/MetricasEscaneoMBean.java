@@ -0,0 +1,32 @@
+package controlador;
+
+/**
+ * Métricas de los escaneos de hosts publicadas por JMX (tpscanner:type=Escaneo).
+ * Los contadores son acumulados desde el arranque o el último reiniciar().
+ */
+public interface MetricasEscaneoMBean {
+    long getSondasLanzadas();
+    long getSondasCompletadas();
+    /** Sondas completadas en el último segundo entero; leerla no cambia nada */
+    double getSondasPorSegundo();
+    long getSondasEnVuelo();
+    /** Resultados ya completados que el hilo del escaneo aún no procesó */
+    long getProfundidadCola();
+    long getHostsActivos();
+    /** Sondas sin respuesta dentro del plazo */
+    long getTimeouts();
+    long getErrores();
+    double getLatenciaMediaMs();
+    double getLatenciaP50Ms();
+    double getLatenciaP95Ms();
+    double getLatenciaP99Ms();
+    long getResolucionesDns();
+    double getDnsMediaMs();
+    double getDnsP50Ms();
+    double getDnsP95Ms();
+    double getDnsP99Ms();
+    long getEscaneosEnCurso();
+    long getEscaneosCompletados();
+    long getEscaneosCancelados();
+    void reiniciar();
+}
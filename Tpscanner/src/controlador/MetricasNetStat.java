@@ -0,0 +1,79 @@
+package controlador;
+
+import util.HistogramaLatencias;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de GestorNetStat: duración de cada consulta, tiempo de parseo y
+ * filas obtenidas. La instancia global se publica como tpscanner:type=NetStat.
+ */
+public class MetricasNetStat implements MetricasNetStatMBean {
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder lineasLeidas = new LongAdder();
+    private final LongAdder filasParseadas = new LongAdder();
+    private final LongAdder parseoNanos = new LongAdder();
+    private final LongAdder instantaneasReutilizadas = new LongAdder();
+    private final HistogramaLatencias duracionComando = new HistogramaLatencias();
+    private volatile long ultimaDuracionComandoNanos;
+    private volatile long ultimaDuracionParseoNanos;
+
+    private static final class Global {
+        static final MetricasNetStat INSTANCIA = new MetricasNetStat();
+
+        static {
+            RegistroJmx.registrar(INSTANCIA, "NetStat");
+        }
+    }
+
+    public static MetricasNetStat global() {
+        return Global.INSTANCIA;
+    }
+
+    /**
+     * @param nanosTotal duración de la consulta completa
+     * @param nanosParseo parte de esa duración dentro del parser
+     */
+    void consultaTerminada(long nanosTotal, long nanosParseo, long lineas, long filas, boolean error) {
+        consultas.increment();
+        if (error) {
+            errores.increment();
+        }
+        lineasLeidas.add(lineas);
+        filasParseadas.add(filas);
+        parseoNanos.add(nanosParseo);
+        duracionComando.registrar(nanosTotal);
+        ultimaDuracionComandoNanos = nanosTotal;
+        ultimaDuracionParseoNanos = nanosParseo;
+    }
+
+    void instantaneaReutilizada() {
+        instantaneasReutilizadas.increment();
+    }
+
+    @Override public long getConsultas() { return consultas.sum(); }
+    @Override public long getErrores() { return errores.sum(); }
+    @Override public long getLineasLeidas() { return lineasLeidas.sum(); }
+    @Override public long getFilasParseadas() { return filasParseadas.sum(); }
+    @Override public long getInstantaneasReutilizadas() { return instantaneasReutilizadas.sum(); }
+    @Override public double getDuracionComandoMediaMs() { return duracionComando.getMediaMs(); }
+    @Override public double getDuracionComandoP50Ms() { return duracionComando.percentilMs(50); }
+    @Override public double getDuracionComandoP95Ms() { return duracionComando.percentilMs(95); }
+    @Override public double getDuracionComandoP99Ms() { return duracionComando.percentilMs(99); }
+    @Override public double getUltimaDuracionComandoMs() { return ultimaDuracionComandoNanos / 1e6; }
+    @Override public double getTiempoParseoTotalMs() { return parseoNanos.sum() / 1e6; }
+    @Override public double getUltimaDuracionParseoMs() { return ultimaDuracionParseoNanos / 1e6; }
+
+    @Override
+    public void reiniciar() {
+        consultas.reset();
+        errores.reset();
+        lineasLeidas.reset();
+        filasParseadas.reset();
+        parseoNanos.reset();
+        instantaneasReutilizadas.reset();
+        duracionComando.reiniciar();
+        ultimaDuracionComandoNanos = 0;
+        ultimaDuracionParseoNanos = 0;
+    }
+}
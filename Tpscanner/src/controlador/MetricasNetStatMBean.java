@@ -0,0 +1,23 @@
+package controlador;
+
+/**
+ * Métricas de GestorNetStat publicadas por JMX (tpscanner:type=NetStat)
+ */
+public interface MetricasNetStatMBean {
+    long getConsultas();
+    long getErrores();
+    long getLineasLeidas();
+    long getFilasParseadas();
+    /** Consultas resueltas con una instantánea vigente, sin volver a leer la tabla */
+    long getInstantaneasReutilizadas();
+    /** Duración de la consulta completa: ejecutar el comando, leer y parsear */
+    double getDuracionComandoMediaMs();
+    double getDuracionComandoP50Ms();
+    double getDuracionComandoP95Ms();
+    double getDuracionComandoP99Ms();
+    double getUltimaDuracionComandoMs();
+    /** Tiempo dentro del parser, acumulado */
+    double getTiempoParseoTotalMs();
+    double getUltimaDuracionParseoMs();
+    void reiniciar();
+}
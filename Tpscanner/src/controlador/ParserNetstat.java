@@ -0,0 +1,280 @@
+package controlador;
+
+import modelo.ConexionRed;
+
+/**
+ * Parser de una línea de netstat en una sola pasada, sin expresiones regulares
+ * ni substrings intermedios: solo se crean la ConexionRed y sus textos.
+ * Columnas que entiende:
+ *   Windows: TCP  10.0.0.5:49712  [::]:0  ESTABLISHED  1234   (UDP sin estado)
+ *   Linux:   tcp6  0  0  :::22  :::*  LISTEN  412/sshd       (udp sin estado)
+ * Acepta protocolo en mayúsculas o minúsculas con sufijo de familia (tcp6, udp4),
+ * IPv6 entre corchetes o con zona (fe80::1%eth0:22) y puerto separado por ':'
+ * o por '.' (macOS).
+ */
+final class ParserNetstat {
+    private static final String CUALQUIERA_IPV4 = "0.0.0.0";
+    private static final String CUALQUIERA_IPV6 = "::";
+    private static final String[] DIRECCIONES_FRECUENTES = {CUALQUIERA_IPV4, CUALQUIERA_IPV6, "127.0.0.1", "::1"};
+
+    private ParserNetstat() {
+    }
+
+    /**
+     * @return la conexión, o null si la línea es una cabecera o no se entiende
+     */
+    static ConexionRed parsear(String linea) {
+        int largo = linea.length();
+        int i = saltarEspacios(linea, 0);
+
+        // Protocolo: tcp|udp, sin importar mayúsculas, seguido de sufijo de familia opcional
+        ConexionRed.TipoProtocolo protocolo;
+        if (linea.regionMatches(true, i, "tcp", 0, 3)) {
+            protocolo = ConexionRed.TipoProtocolo.TCP;
+        } else if (linea.regionMatches(true, i, "udp", 0, 3)) {
+            protocolo = ConexionRed.TipoProtocolo.UDP;
+        } else {
+            return null;
+        }
+        int finProtocolo = finToken(linea, i);
+        if (!sufijoFamilia(linea, i + 3, finProtocolo)) {
+            return null;
+        }
+
+        // Linux intercala Recv-Q y Send-Q; una dirección nunca es solo dígitos
+        i = saltarEspacios(linea, finProtocolo);
+        int finToken = finToken(linea, i);
+        while (i < largo && soloDigitos(linea, i, finToken)) {
+            i = saltarEspacios(linea, finToken);
+            finToken = finToken(linea, i);
+        }
+        if (i >= largo) {
+            return null;
+        }
+        int inicioLocal = i;
+        int finLocal = finToken;
+        int separadorLocal = separadorPuerto(linea, inicioLocal, finLocal);
+        // Familia para traducir "*": por el sufijo del protocolo (tcp4, tcp6) o,
+        // si no lo tiene, por un ':' en la dirección local
+        char familia = linea.charAt(finProtocolo - 1);
+        int primerDosPuntos = linea.indexOf(':', inicioLocal);
+        boolean ipv6 = familia == '6'
+            || (familia != '4' && primerDosPuntos >= 0 && primerDosPuntos < separadorLocal);
+
+        int inicioRemota = saltarEspacios(linea, finLocal);
+        int finRemota = finToken(linea, inicioRemota);
+        int separadorRemoto = separadorPuerto(linea, inicioRemota, finRemota);
+        if (separadorLocal < 0 || separadorRemoto < 0) {
+            return null;
+        }
+        int puertoLocal = puerto(linea, separadorLocal + 1, finLocal);
+        int puertoRemoto = puerto(linea, separadorRemoto + 1, finRemota);
+        if (puertoLocal < 0 || puertoRemoto < 0) {
+            return null;
+        }
+
+        // Estado (ausente en UDP) y PID: "1234" en Windows, "1234/nombre" o "-" en Linux
+        i = saltarEspacios(linea, finRemota);
+        int finSiguiente = finToken(linea, i);
+        ConexionRed.EstadoConexion estado;
+        if (i < largo && Character.isLetter(linea.charAt(i))) {
+            estado = estado(linea, i, finSiguiente);
+            i = saltarEspacios(linea, finSiguiente);
+            finSiguiente = finToken(linea, i);
+        } else if (protocolo == ConexionRed.TipoProtocolo.UDP) {
+            // UDP sin estado: sin extremo remoto es un socket que escucha, como en /proc/net
+            estado = puertoRemoto == 0
+                ? ConexionRed.EstadoConexion.LISTENING : ConexionRed.EstadoConexion.ESTABLISHED;
+        } else {
+            estado = ConexionRed.EstadoConexion.UNKNOWN;
+        }
+
+        int pid = -1;
+        String proceso = "N/A";
+        if (i < largo) {
+            int finPid = i;
+            long valor = 0;
+            while (finPid < finSiguiente && esDigito(linea.charAt(finPid)) && valor <= Integer.MAX_VALUE) {
+                valor = valor * 10 + (linea.charAt(finPid++) - '0');
+            }
+            if (finPid > i && valor > 0 && valor <= Integer.MAX_VALUE) {
+                pid = (int) valor;
+                // El nombre de Linux puede tener espacios ("avahi-daemon: r"): llega hasta el final
+                int finNombre = largo;
+                while (finNombre > finPid + 1 && linea.charAt(finNombre - 1) == ' ') {
+                    finNombre--;
+                }
+                if (finPid + 1 < finNombre && linea.charAt(finPid) == '/') {
+                    proceso = linea.substring(finPid + 1, finNombre);
+                }
+            }
+        }
+
+        return new ConexionRed(protocolo,
+            direccion(linea, inicioLocal, separadorLocal, ipv6), puertoLocal,
+            direccion(linea, inicioRemota, separadorRemoto, ipv6), puertoRemoto,
+            estado, pid, proceso);
+    }
+
+    /**
+     * Lo que sigue a tcp/udp: nada, 4, 6, 46 o v6
+     */
+    private static boolean sufijoFamilia(String linea, int desde, int hasta) {
+        int largo = hasta - desde;
+        if (largo == 0) {
+            return true;
+        }
+        if (largo == 1) {
+            char c = linea.charAt(desde);
+            return c == '4' || c == '6';
+        }
+        return largo == 2 && (linea.regionMatches(desde, "46", 0, 2)
+            || linea.regionMatches(true, desde, "v6", 0, 2));
+    }
+
+    /**
+     * Posición del separador entre dirección y puerto: el último ':' o '.' del token.
+     * Con corchetes, el que sigue a ']'. -1 si no hay
+     */
+    private static int separadorPuerto(String linea, int desde, int hasta) {
+        if (desde >= hasta) {
+            return -1;
+        }
+        if (linea.charAt(desde) == '[') {
+            int cierre = linea.indexOf(']', desde);
+            return cierre > 0 && cierre + 1 < hasta && linea.charAt(cierre + 1) == ':' ? cierre + 1 : -1;
+        }
+        for (int i = hasta - 1; i > desde; i--) {
+            char c = linea.charAt(i);
+            if (c == ':' || c == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Puerto decimal o "*" (cualquiera, 0); -1 si no es válido
+     */
+    private static int puerto(String linea, int desde, int hasta) {
+        if (hasta - desde == 1 && linea.charAt(desde) == '*') {
+            return 0;
+        }
+        if (desde >= hasta || hasta - desde > 5) {
+            return -1;
+        }
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = linea.charAt(i);
+            if (!esDigito(c)) {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor <= 65535 ? valor : -1;
+    }
+
+    /**
+     * Texto de la dirección sin corchetes ni puerto. "*" se traduce a la dirección
+     * comodín de la familia y las direcciones más comunes no crean un String nuevo
+     */
+    private static String direccion(String linea, int desde, int separador, boolean ipv6) {
+        int hasta = separador;
+        if (linea.charAt(desde) == '[') {
+            desde++;
+            hasta--; // ']'
+        }
+        int largo = hasta - desde;
+        if (largo == 1 && linea.charAt(desde) == '*') {
+            return ipv6 ? CUALQUIERA_IPV6 : CUALQUIERA_IPV4;
+        }
+        for (String frecuente : DIRECCIONES_FRECUENTES) {
+            if (frecuente.length() == largo && linea.regionMatches(desde, frecuente, 0, largo)) {
+                return frecuente;
+            }
+        }
+        return linea.substring(desde, hasta);
+    }
+
+    /**
+     * Estados de Windows (también en español) y de Linux/macOS; UNKNOWN si no se
+     * conoce (p. ej. BOUND de Windows o UNKNOWN de Linux), nunca se supone otro
+     */
+    private static ConexionRed.EstadoConexion estado(String linea, int desde, int hasta) {
+        int largo = hasta - desde;
+        switch (Character.toUpperCase(linea.charAt(desde))) {
+            case 'L':
+                if (es(linea, desde, largo, "LISTEN") || es(linea, desde, largo, "LISTENING")) {
+                    return ConexionRed.EstadoConexion.LISTENING;
+                }
+                return es(linea, desde, largo, "LAST_ACK") ? ConexionRed.EstadoConexion.LAST_ACK : ConexionRed.EstadoConexion.UNKNOWN;
+            case 'E':
+                if (es(linea, desde, largo, "ESTABLISHED") || es(linea, desde, largo, "ESTABLECIDO")) {
+                    return ConexionRed.EstadoConexion.ESTABLISHED;
+                }
+                return es(linea, desde, largo, "ESCUCHANDO") ? ConexionRed.EstadoConexion.LISTENING : ConexionRed.EstadoConexion.UNKNOWN;
+            case 'T':
+                return es(linea, desde, largo, "TIME_WAIT") ? ConexionRed.EstadoConexion.TIME_WAIT : ConexionRed.EstadoConexion.UNKNOWN;
+            case 'S':
+                if (es(linea, desde, largo, "SYN_SENT") || es(linea, desde, largo, "SYN_ENVIADO")) {
+                    return ConexionRed.EstadoConexion.SYN_SENT;
+                }
+                return es(linea, desde, largo, "SYN_RECV") || es(linea, desde, largo, "SYN_RECEIVED")
+                    || es(linea, desde, largo, "SYN_RCVD") || es(linea, desde, largo, "SYN_RECIBIDO")
+                    ? ConexionRed.EstadoConexion.SYN_RECEIVED : ConexionRed.EstadoConexion.UNKNOWN;
+            case 'F':
+                if (es(linea, desde, largo, "FIN_WAIT_1") || es(linea, desde, largo, "FIN_WAIT1")) {
+                    return ConexionRed.EstadoConexion.FIN_WAIT_1;
+                }
+                return es(linea, desde, largo, "FIN_WAIT_2") || es(linea, desde, largo, "FIN_WAIT2")
+                    ? ConexionRed.EstadoConexion.FIN_WAIT_2 : ConexionRed.EstadoConexion.UNKNOWN;
+            case 'C':
+                if (es(linea, desde, largo, "CLOSE_WAIT")) {
+                    return ConexionRed.EstadoConexion.CLOSE_WAIT;
+                }
+                if (es(linea, desde, largo, "CLOSING")) {
+                    return ConexionRed.EstadoConexion.CLOSING;
+                }
+                return es(linea, desde, largo, "CLOSE") || es(linea, desde, largo, "CLOSED")
+                    ? ConexionRed.EstadoConexion.CLOSE : ConexionRed.EstadoConexion.UNKNOWN;
+            default:
+                return ConexionRed.EstadoConexion.UNKNOWN;
+        }
+    }
+
+    private static boolean es(String linea, int desde, int largo, String estado) {
+        return largo == estado.length() && linea.regionMatches(true, desde, estado, 0, largo);
+    }
+
+    private static boolean soloDigitos(String linea, int desde, int hasta) {
+        if (desde >= hasta) {
+            return false;
+        }
+        for (int i = desde; i < hasta; i++) {
+            if (!esDigito(linea.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int saltarEspacios(String linea, int desde) {
+        int i = desde;
+        while (i < linea.length() && (linea.charAt(i) == ' ' || linea.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int finToken(String linea, int desde) {
+        int i = desde;
+        while (i < linea.length() && linea.charAt(i) != ' ' && linea.charAt(i) != '\t') {
+            i++;
+        }
+        return i;
+    }
+}
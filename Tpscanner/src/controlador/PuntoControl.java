@@ -0,0 +1,160 @@
+package controlador;
+
+import modelo.Dispositivo;
+import util.ConjuntoObjetivos;
+import util.RangoIPv4;
+import util.ValidadorIP;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estado guardado de un escaneo largo para poder reanudarlo.
+ * La frontera es la cantidad de direcciones del recorrido ya terminadas sin
+ * huecos; al reanudar solo se sondea lo que queda a partir de ella.
+ * Formato de texto con tabuladores: tramos del conjunto, frontera y hosts
+ * activos encontrados antes de la frontera.
+ */
+public class PuntoControl {
+    private static final String CABECERA = "# punto de control v1";
+
+    private final Path archivo;
+    private final ConjuntoObjetivos objetivos;
+    private final long frontera;
+    private final List<Dispositivo> resultados;
+
+    private PuntoControl(Path archivo, ConjuntoObjetivos objetivos, long frontera, List<Dispositivo> resultados) {
+        this.archivo = archivo;
+        this.objetivos = objetivos;
+        this.frontera = frontera;
+        this.resultados = resultados;
+    }
+
+    /**
+     * Punto de control vacío para empezar a escanear esos objetivos
+     */
+    public static PuntoControl nuevo(Path archivo, ConjuntoObjetivos objetivos) {
+        return new PuntoControl(archivo, objetivos, 0, Collections.emptyList());
+    }
+
+    /**
+     * Lee un punto de control guardado
+     * @throws IOException si no existe o no tiene el formato esperado
+     */
+    public static PuntoControl cargar(Path archivo) throws IOException {
+        List<RangoIPv4> tramos = new ArrayList<>();
+        List<Dispositivo> resultados = new ArrayList<>();
+        long frontera = -1;
+
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            if (!CABECERA.equals(reader.readLine())) {
+                throw new IOException("Punto de control con formato desconocido: " + archivo);
+            }
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split("\t", -1);
+                try {
+                    switch (partes[0]) {
+                        case "T" -> tramos.add(RangoIPv4.de(partes[1], partes[2]));
+                        case "F" -> frontera = Long.parseLong(partes[1]);
+                        case "H" -> resultados.add(new Dispositivo(partes[1], "", true, Long.parseLong(partes[2])));
+                        default -> {
+                            // Líneas desconocidas se ignoran
+                        }
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Línea inválida en punto de control: " + linea);
+                }
+            }
+        }
+        if (frontera < 0) {
+            throw new IOException("Punto de control incompleto: " + archivo);
+        }
+
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.deRangos(tramos);
+        return new PuntoControl(archivo, objetivos, Math.min(frontera, objetivos.tamanio()), resultados);
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Conjunto completo del escaneo original
+     */
+    public ConjuntoObjetivos getObjetivos() {
+        return objetivos;
+    }
+
+    public long getFrontera() {
+        return frontera;
+    }
+
+    /**
+     * Lo que falta escanear, en el mismo orden que el recorrido original
+     */
+    public ConjuntoObjetivos getPendientes() {
+        return objetivos.desde(frontera);
+    }
+
+    /**
+     * Hosts activos ya confirmados antes de la frontera
+     */
+    public List<Dispositivo> getResultados() {
+        return Collections.unmodifiableList(resultados);
+    }
+
+    public boolean estaCompleto() {
+        return frontera >= objetivos.tamanio();
+    }
+
+    /**
+     * Guarda el avance de un escaneo sobre getPendientes() con escritura atómica
+     * @param fronteraPendientes direcciones terminadas sin huecos dentro de los pendientes
+     * @param nuevos hosts activos hallados antes de esa frontera
+     */
+    public void guardar(long fronteraPendientes, List<Dispositivo> nuevos) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            writer.write(CABECERA);
+            writer.newLine();
+            for (int i = 0; i < objetivos.getCantidadTramos(); i++) {
+                RangoIPv4 tramo = objetivos.getTramo(i);
+                writer.write("T\t" + ValidadorIP.intToIp(tramo.getInicio()) + '\t' + ValidadorIP.intToIp(tramo.getFin()));
+                writer.newLine();
+            }
+            writer.write("F\t" + (frontera + fronteraPendientes));
+            writer.newLine();
+            for (Dispositivo dispositivo : resultados) {
+                escribirHost(writer, dispositivo);
+            }
+            for (Dispositivo dispositivo : nuevos) {
+                escribirHost(writer, dispositivo);
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Borra el archivo al terminar el escaneo
+     */
+    public void eliminar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    private static void escribirHost(BufferedWriter writer, Dispositivo dispositivo) throws IOException {
+        writer.write("H\t" + dispositivo.getDireccionIP() + '\t' + dispositivo.getTiempoRespuesta());
+        writer.newLine();
+    }
+}
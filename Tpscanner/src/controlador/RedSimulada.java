@@ -0,0 +1,149 @@
+package controlador;
+
+import modelo.Dispositivo;
+import util.ValidadorIP;
+import java.io.IOException;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Red simulada en memoria para medir y probar el escáner sin acceso a red.
+ * Es determinista: con la misma semilla cada IP tiene siempre el mismo estado,
+ * la misma latencia y la misma secuencia de pérdidas.
+ * Las respuestas se programan en un temporizador, sin ocupar un hilo por objetivo.
+ */
+public class RedSimulada implements SondaHost {
+
+    private static final class PerfilHost {
+        final long latenciaMs;
+        final double perdida;
+
+        PerfilHost(long latenciaMs, double perdida) {
+            this.latenciaMs = latenciaMs;
+            this.perdida = perdida;
+        }
+    }
+
+    private final long semilla;
+    private final double densidad;
+    private final long latenciaBaseMs;
+    private final long variacionMs;
+    private final double perdida;
+    private volatile double escalaTiempo = 1.0;
+
+    private final Map<Long, PerfilHost> perfiles = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> intentos = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reloj;
+
+    /**
+     * @param densidad     fracción de direcciones con host activo (0..1)
+     * @param latenciaBaseMs latencia mínima de los hosts activos
+     * @param variacionMs  variación máxima sobre la latencia base
+     * @param perdida      probabilidad de perder cada sonda a un host activo (0..1)
+     */
+    public RedSimulada(long semilla, double densidad, long latenciaBaseMs, long variacionMs, double perdida) {
+        if (densidad < 0 || densidad > 1 || perdida < 0 || perdida > 1) {
+            throw new IllegalArgumentException("Densidad y pérdida deben estar entre 0 y 1");
+        }
+        this.semilla = semilla;
+        this.densidad = densidad;
+        this.latenciaBaseMs = Math.max(0, latenciaBaseMs);
+        this.variacionMs = Math.max(0, variacionMs);
+        this.perdida = perdida;
+        this.reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "Red-Simulada");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Fija explícitamente un host activo con su latencia y pérdida propias
+     */
+    public RedSimulada configurarHost(String ip, long latenciaMs, double perdida) {
+        perfiles.put(ValidadorIP.ipToLong(ip), new PerfilHost(Math.max(0, latenciaMs), perdida));
+        return this;
+    }
+
+    /**
+     * Acelera (menor que 1) o ralentiza el reloj real; los RTT informados no cambian
+     */
+    public RedSimulada setEscalaTiempo(double escalaTiempo) {
+        if (escalaTiempo <= 0) {
+            throw new IllegalArgumentException("Escala de tiempo inválida: " + escalaTiempo);
+        }
+        this.escalaTiempo = escalaTiempo;
+        return this;
+    }
+
+    @Override
+    public Dispositivo sondear(int ip, int tiempoEsperaMs) throws IOException {
+        return sondearAsync(ip, tiempoEsperaMs, Runnable::run).join();
+    }
+
+    @Override
+    public CompletableFuture<Dispositivo> sondearAsync(int ip, int tiempoEsperaMs, Executor executor) {
+        long clave = ip & 0xFFFFFFFFL;
+        PerfilHost perfil = obtenerPerfil(clave);
+
+        boolean responde = false;
+        if (perfil != null) {
+            int intento = intentos.computeIfAbsent(clave, k -> new AtomicInteger()).getAndIncrement();
+            boolean perdido = aleatorio(clave, intento + 1).nextDouble() < perfil.perdida;
+            responde = !perdido && perfil.latenciaMs <= tiempoEsperaMs;
+        }
+
+        long esperaMs = responde ? perfil.latenciaMs : tiempoEsperaMs;
+        Dispositivo resultado = new Dispositivo(ip, "", responde, responde ? perfil.latenciaMs : 0);
+
+        CompletableFuture<Dispositivo> futuro = new CompletableFuture<>();
+        long esperaNanos = (long) (TimeUnit.MILLISECONDS.toNanos(esperaMs) * escalaTiempo);
+        reloj.schedule(() -> futuro.complete(resultado), esperaNanos, TimeUnit.NANOSECONDS);
+        return futuro;
+    }
+
+    /**
+     * Sin límite propio: el temporizador admite tantos objetivos como se le den
+     */
+    @Override
+    public int getCapacidad() {
+        return 10_000;
+    }
+
+    @Override
+    public void close() {
+        reloj.shutdownNow();
+    }
+
+    /**
+     * Indica si la IP aloja un host activo en esta red
+     */
+    public boolean esHostActivo(String ip) {
+        return obtenerPerfil(ValidadorIP.ipToLong(ip)) != null;
+    }
+
+    private PerfilHost obtenerPerfil(long clave) {
+        PerfilHost perfil = perfiles.get(clave);
+        if (perfil != null) {
+            return perfil;
+        }
+
+        SplittableRandom aleatorio = aleatorio(clave, 0);
+        if (aleatorio.nextDouble() >= densidad) {
+            return null;
+        }
+        long latencia = latenciaBaseMs + (variacionMs > 0 ? aleatorio.nextLong(variacionMs + 1) : 0);
+        return new PerfilHost(latencia, perdida);
+    }
+
+    private SplittableRandom aleatorio(long clave, int intento) {
+        return new SplittableRandom(semilla ^ (clave * 0x9E3779B97F4A7C15L) ^ ((long) intento << 32));
+    }
+}
@@ -0,0 +1,33 @@
+package controlador;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publica MBeans en el servidor de la plataforma bajo el dominio "tpscanner".
+ * Un fallo al registrar no impide escanear: solo se informa por stderr.
+ */
+final class RegistroJmx {
+    static final String DOMINIO = "tpscanner";
+
+    private RegistroJmx() {
+    }
+
+    static void registrar(Object mbean, String tipo) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(DOMINIO + ":type=" + tipo);
+            if (servidor.isRegistered(nombre)) {
+                servidor.unregisterMBean(nombre);
+            }
+            servidor.registerMBean(mbean, nombre);
+        } catch (InstanceAlreadyExistsException e) {
+            // Otro hilo lo registró primero
+        } catch (JMException | RuntimeException e) {
+            System.err.println("No se pudieron publicar las métricas " + tipo + " por JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package controlador;
+
+import modelo.ConexionRed;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dueños de los sockets y nombres de procesos resueltos por lotes, sin un
+ * proceso externo por conexión. En Linux el mapa inodo de socket -> PID sale de
+ * una sola pasada por /proc/[pid]/fd y los nombres de /proc/[pid]/comm, con una
+ * caché por PID que se invalida si cambia la hora de inicio del proceso (el PID
+ * se reutilizó). En otros sistemas se lanza un único tasklist o ps por consulta.
+ */
+class ResolutorProcesos {
+    private static final Path PROC = Path.of("/proc");
+    private static final String PREFIJO_SOCKET = "socket:[";
+    // starttime es el campo 22 de /proc/[pid]/stat, el 20.º después del ")" que cierra comm
+    private static final int CAMPO_INICIO_TRAS_COMM = 20;
+
+    private static final class Entrada {
+        final long inicio;
+        final String nombre;
+        long pasada;
+
+        Entrada(long inicio, String nombre, long pasada) {
+            this.inicio = inicio;
+            this.nombre = nombre;
+            this.pasada = pasada;
+        }
+    }
+
+    private final Path proc;
+    private final boolean hayProc;
+    private final Map<Integer, Entrada> nombres = new HashMap<>();
+    private long pasada;
+
+    ResolutorProcesos() {
+        this(PROC);
+    }
+
+    /**
+     * @param proc raíz de procfs; si no existe se usan tasklist o ps
+     */
+    ResolutorProcesos(Path proc) {
+        this.proc = proc;
+        this.hayProc = Files.isDirectory(proc.resolve("self"));
+    }
+
+    /**
+     * Recorre /proc/[pid]/fd una vez y devuelve inodo de socket -> PID.
+     * Los procesos de otros usuarios sin permisos se omiten, igual que en netstat
+     */
+    synchronized Map<Long, Integer> mapearInodos() {
+        Map<Long, Integer> inodos = new HashMap<>();
+        if (!hayProc) {
+            return inodos;
+        }
+        try (DirectoryStream<Path> procesos = Files.newDirectoryStream(proc)) {
+            for (Path directorio : procesos) {
+                int pid = parsearPid(directorio.getFileName().toString());
+                if (pid <= 0) {
+                    continue;
+                }
+                try (DirectoryStream<Path> descriptores = Files.newDirectoryStream(directorio.resolve("fd"))) {
+                    for (Path descriptor : descriptores) {
+                        long inodo = inodoSocket(descriptor);
+                        if (inodo > 0) {
+                            inodos.putIfAbsent(inodo, pid);
+                        }
+                    }
+                } catch (IOException | SecurityException e) {
+                    // Sin permisos o el proceso terminó durante la pasada
+                }
+            }
+        } catch (IOException e) {
+            // Se devuelve lo que se alcanzó a leer
+        }
+        return inodos;
+    }
+
+    /**
+     * Nombres de los PID indicados, con una sola lectura o un solo proceso externo
+     * por consulta. Los PID sin nombre quedan como "N/A"
+     */
+    synchronized Map<Integer, String> resolver(Collection<Integer> pids) {
+        pasada++;
+        Map<Integer, String> resultado = new HashMap<>();
+        Map<Integer, String> externos = null;
+        for (int pid : pids) {
+            if (pid <= 0 || resultado.containsKey(pid)) {
+                continue;
+            }
+            String nombre;
+            if (hayProc) {
+                nombre = nombreProc(pid);
+            } else {
+                if (externos == null) {
+                    externos = listarProcesos();
+                }
+                nombre = externos.get(pid);
+            }
+            resultado.put(pid, nombre != null ? nombre : "N/A");
+        }
+        // Los PID que no aparecieron en esta consulta ni en la anterior ya no hacen falta
+        Iterator<Entrada> entradas = nombres.values().iterator();
+        while (entradas.hasNext()) {
+            if (entradas.next().pasada < pasada - 1) {
+                entradas.remove();
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Copia de las conexiones con el nombre de proceso de cada PID, resuelto en un
+     * solo lote. Las que ya traen nombre (p. ej. de netstat en Linux) se dejan igual
+     */
+    List<ConexionRed> completarNombres(List<ConexionRed> conexiones) {
+        Set<Integer> pids = new HashSet<>();
+        for (ConexionRed conexion : conexiones) {
+            if (sinNombre(conexion)) {
+                pids.add(conexion.getPid());
+            }
+        }
+        if (pids.isEmpty()) {
+            return conexiones;
+        }
+        Map<Integer, String> nombresPid = resolver(pids);
+        List<ConexionRed> resultado = new ArrayList<>(conexiones.size());
+        for (ConexionRed c : conexiones) {
+            resultado.add(sinNombre(c)
+                ? new ConexionRed(c.getProtocolo(), c.getDireccionLocal(), c.getPuertoLocal(),
+                    c.getDireccionRemota(), c.getPuertoRemoto(), c.getEstado(), c.getPid(),
+                    nombresPid.get(c.getPid()))
+                : c);
+        }
+        return resultado;
+    }
+
+    private static boolean sinNombre(ConexionRed conexion) {
+        return conexion.getPid() > 0 && "N/A".equals(conexion.getNombreProceso());
+    }
+
+    private String nombreProc(int pid) {
+        Entrada entrada = nombres.get(pid);
+        if (entrada != null && entrada.pasada == pasada) {
+            return entrada.nombre;
+        }
+        Path directorio = proc.resolve(Integer.toString(pid));
+        long inicio = horaInicio(directorio);
+        if (inicio < 0) {
+            nombres.remove(pid);
+            return null;
+        }
+        if (entrada != null && entrada.inicio == inicio) {
+            entrada.pasada = pasada;
+            return entrada.nombre;
+        }
+        try {
+            String nombre = new String(Files.readAllBytes(directorio.resolve("comm")), StandardCharsets.UTF_8).trim();
+            nombres.put(pid, new Entrada(inicio, nombre, pasada));
+            return nombre;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Campo starttime de /proc/[pid]/stat (en ticks desde el arranque), o -1.
+     * comm puede tener espacios y paréntesis, por eso se cuenta desde el último ")"
+     */
+    private static long horaInicio(Path directorio) {
+        byte[] stat;
+        try {
+            stat = Files.readAllBytes(directorio.resolve("stat"));
+        } catch (IOException e) {
+            return -1;
+        }
+        int i = stat.length - 1;
+        while (i >= 0 && stat[i] != ')') {
+            i--;
+        }
+        if (i < 0) {
+            return -1;
+        }
+        int campo = 0;
+        i++;
+        while (i < stat.length) {
+            while (i < stat.length && stat[i] == ' ') {
+                i++;
+            }
+            if (++campo == CAMPO_INICIO_TRAS_COMM) {
+                long valor = 0;
+                int inicio = i;
+                while (i < stat.length && stat[i] >= '0' && stat[i] <= '9') {
+                    valor = valor * 10 + (stat[i++] - '0');
+                }
+                return i > inicio ? valor : -1;
+            }
+            while (i < stat.length && stat[i] != ' ') {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static long inodoSocket(Path descriptor) {
+        String destino;
+        try {
+            destino = Files.readSymbolicLink(descriptor).toString();
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            return -1;
+        }
+        if (!destino.startsWith(PREFIJO_SOCKET) || !destino.endsWith("]")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(destino, PREFIJO_SOCKET.length(), destino.length() - 1, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int parsearPid(String nombre) {
+        int pid = 0;
+        if (nombre.isEmpty() || nombre.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < nombre.length(); i++) {
+            char c = nombre.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    /**
+     * PID -> nombre de todos los procesos con un único tasklist (Windows) o ps
+     */
+    private static Map<Integer, String> listarProcesos() {
+        Map<Integer, String> procesos = new HashMap<>();
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
+        ProcessBuilder builder = windows
+            ? new ProcessBuilder("tasklist", "/FO", "CSV", "/NH")
+            : new ProcessBuilder("ps", "-A", "-o", "pid=", "-o", "comm=");
+        try {
+            Process process = builder.redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (windows) {
+                        // "imagen.exe","1234","Console","1","10.000 K"
+                        String[] partes = line.split("\",\"");
+                        if (partes.length >= 2 && partes[0].startsWith("\"")) {
+                            int pid = parsearPid(partes[1]);
+                            if (pid > 0) {
+                                procesos.put(pid, partes[0].substring(1));
+                            }
+                        }
+                    } else {
+                        line = line.trim();
+                        int espacio = line.indexOf(' ');
+                        if (espacio > 0) {
+                            int pid = parsearPid(line.substring(0, espacio));
+                            if (pid > 0) {
+                                procesos.put(pid, line.substring(espacio + 1).trim());
+                            }
+                        }
+                    }
+                }
+            }
+            process.waitFor();
+        } catch (IOException e) {
+            // Sin nombres: las conexiones quedan con "N/A"
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return procesos;
+    }
+}
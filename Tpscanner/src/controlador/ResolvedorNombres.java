@@ -0,0 +1,92 @@
+package controlador;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Etapa asíncrona de DNS inverso, separada de la comprobación de vida.
+ * Usa su propio pool pequeño para que un servidor DNS lento no frene las sondas.
+ */
+public class ResolvedorNombres {
+    private static final int HILOS_POR_DEFECTO = 4;
+    private static final ResolvedorNombres POR_DEFECTO = new ResolvedorNombres(HILOS_POR_DEFECTO);
+
+    private final ExecutorService executor;
+    private final Function<String, String> consulta;
+    private final CacheNombres cache;
+
+    public ResolvedorNombres(int hilos) {
+        this(hilos, ResolvedorNombres::consultarDns, CacheNombres.compartida());
+    }
+
+    /**
+     * @param consulta devuelve el nombre de la IP o cadena vacía si no tiene
+     * @param cache    caché a consultar antes de resolver; null para no usar caché
+     */
+    public ResolvedorNombres(int hilos, Function<String, String> consulta, CacheNombres cache) {
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, hilos), r -> {
+            Thread hilo = new Thread(r, "DNS-Inverso-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.consulta = consulta;
+        this.cache = cache;
+    }
+
+    /**
+     * Resolvedor compartido por todos los escáneres
+     */
+    public static ResolvedorNombres porDefecto() {
+        return POR_DEFECTO;
+    }
+
+    /**
+     * Resuelve el nombre de la IP; nunca falla, devuelve "" si no hay nombre.
+     * Los aciertos de caché se completan sin pasar por el pool.
+     */
+    public CompletableFuture<String> resolver(String ip) {
+        if (cache != null) {
+            String enCache = cache.obtener(ip);
+            if (enCache != null) {
+                return CompletableFuture.completedFuture(enCache);
+            }
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String nombre;
+            try {
+                nombre = consulta.apply(ip);
+            } catch (RuntimeException e) {
+                return "";
+            }
+            nombre = nombre == null ? "" : nombre;
+            if (cache != null) {
+                cache.guardar(ip, nombre);
+            }
+            return nombre;
+        }, executor);
+    }
+
+    public CacheNombres getCache() {
+        return cache;
+    }
+
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    private static String consultarDns(String ip) {
+        try {
+            String nombreHost = InetAddress.getByName(ip).getCanonicalHostName();
+            return nombreHost.equals(ip) ? "" : nombreHost;
+        } catch (Exception e) {
+            // Ignorar errores de resolución de nombre
+            return "";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Sonda para hilos virtuales. isReachable bloquea en código nativo y
+ * retiene el hilo portador, así que se replica en Java el mismo eco TCP
+ * que usa la JVM sin privilegios: conectar o recibir un RST indica host activo.
+ */
+public class SondaEcoTcp implements SondaHost {
+    private static final int PUERTO_ECO = 7;
+
+    @Override
+    public Dispositivo sondear(int ip, int tiempoEsperaMs) throws IOException {
+        long inicio = System.currentTimeMillis();
+        boolean alcanzable;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(SondaHost.direccion(ip), PUERTO_ECO), tiempoEsperaMs);
+            alcanzable = true;
+        } catch (ConnectException e) {
+            // Conexión rechazada (RST): el host respondió, sin importar el texto del error
+            alcanzable = true;
+        } catch (IOException e) {
+            // Timeout (SocketTimeoutException) o destino inalcanzable (NoRouteToHostException)
+            alcanzable = false;
+        }
+        long fin = System.currentTimeMillis();
+        
+        return new Dispositivo(ip, "", alcanzable, alcanzable ? (fin - inicio) : 0);
+    }
+}
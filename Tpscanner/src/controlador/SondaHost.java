@@ -0,0 +1,66 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Estrategia de comprobación de vida de un host usada por EscanerRed.
+ * Las implementaciones bloqueantes solo definen sondear(); las no bloqueantes
+ * sobrescriben sondearAsync() y no ocupan un hilo por objetivo.
+ * Las sondas no resuelven nombres: de eso se encarga ResolvedorNombres.
+ */
+public interface SondaHost extends AutoCloseable {
+
+    /**
+     * Sondea una IP (int sin signo) esperando como máximo tiempoEsperaMs
+     */
+    Dispositivo sondear(int ip, int tiempoEsperaMs) throws IOException;
+
+    /**
+     * Versión asíncrona; por defecto ejecuta sondear() en el executor del escáner
+     */
+    default CompletableFuture<Dispositivo> sondearAsync(int ip, int tiempoEsperaMs, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return sondear(ip, tiempoEsperaMs);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Sondas simultáneas que admite la implementación; 0 deja que decida el escáner
+     */
+    default int getCapacidad() {
+        return 0;
+    }
+
+    /**
+     * true si sondear() bloquea en código nativo y retiene el hilo portador de un
+     * hilo virtual; EscanerRed no la acepta en modo hilos virtuales
+     */
+    default boolean retieneHiloPortador() {
+        return false;
+    }
+
+    @Override
+    default void close() {
+        // Sin recursos por defecto
+    }
+
+    /**
+     * InetAddress de una IP en int, sin pasar por texto ni por DNS
+     */
+    static InetAddress direccion(int ip) throws UnknownHostException {
+        return InetAddress.getByAddress(new byte[] {
+            (byte) (ip >>> 24), (byte) (ip >>> 16), (byte) (ip >>> 8), (byte) ip
+        });
+    }
+
+}
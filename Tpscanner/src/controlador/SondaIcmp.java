@@ -0,0 +1,30 @@
+package controlador;
+
+import modelo.Dispositivo;
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * Sonda clásica basada en InetAddress.isReachable (ICMP con privilegios,
+ * eco TCP al puerto 7 sin ellos). Bloquea un hilo por objetivo.
+ */
+public class SondaIcmp implements SondaHost {
+
+    /**
+     * isReachable es nativo: con hilos virtuales las sondas se harían de a una por portador
+     */
+    @Override
+    public boolean retieneHiloPortador() {
+        return true;
+    }
+
+    @Override
+    public Dispositivo sondear(int ip, int tiempoEsperaMs) throws IOException {
+        long inicio = System.currentTimeMillis();
+        InetAddress direccion = SondaHost.direccion(ip);
+        boolean alcanzable = direccion.isReachable(tiempoEsperaMs);
+        long fin = System.currentTimeMillis();
+        
+        return new Dispositivo(ip, "", alcanzable, alcanzable ? (fin - inicio) : 0);
+    }
+}
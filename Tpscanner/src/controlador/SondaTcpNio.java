@@ -0,0 +1,327 @@
+package controlador;
+
+import modelo.Dispositivo;
+import util.RuedaTemporizadores;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Motor de sondeo por conexión TCP no bloqueante.
+ * Un único hilo con un Selector mantiene decenas de miles de connect() pendientes;
+ * los plazos se gestionan con una rueda de temporizadores.
+ * Un host se considera activo si acepta la conexión o responde con RST en algún puerto.
+ */
+public class SondaTcpNio implements SondaHost {
+    public static final int[] PUERTOS_POR_DEFECTO = {22, 80, 443, 445};
+    public static final int MAX_CONEXIONES_POR_DEFECTO = 8192;
+    private static final long RESOLUCION_RUEDA_MS = 10;
+    private static final long RECUPERACION_LIMITE_NANOS = 1_000_000_000L;
+    private static final int RANURAS_RUEDA = 1024;
+
+    private final int[] puertos;
+    private final int maxConexiones;
+    private final Selector selector;
+    private final Queue<Objetivo> entrantes = new ConcurrentLinkedQueue<>();
+    private final Thread hiloSelector;
+    private volatile boolean activo = true;
+
+    // Estado exclusivo del hilo del selector
+    private final ArrayDeque<Objetivo> enEspera = new ArrayDeque<>();
+    private final RuedaTemporizadores<Objetivo> rueda;
+    private int conexionesAbiertas;
+    private int limiteConexiones;
+    private long ultimoAjusteNanos;
+
+    private static final class Objetivo {
+        final int ip;
+        final int tiempoEsperaMs;
+        final CompletableFuture<Dispositivo> resultado = new CompletableFuture<>();
+        final List<SelectionKey> claves = new ArrayList<>(4);
+        RuedaTemporizadores.Temporizador<Objetivo> temporizador;
+        long inicioNanos;
+        boolean terminado;
+
+        Objetivo(int ip, int tiempoEsperaMs) {
+            this.ip = ip;
+            this.tiempoEsperaMs = tiempoEsperaMs;
+        }
+    }
+
+    public SondaTcpNio() throws IOException {
+        this(PUERTOS_POR_DEFECTO, MAX_CONEXIONES_POR_DEFECTO);
+    }
+
+    public SondaTcpNio(int[] puertos, int maxConexiones) throws IOException {
+        if (puertos == null || puertos.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un puerto");
+        }
+        for (int puerto : puertos) {
+            if (puerto < 1 || puerto > 65535) {
+                throw new IllegalArgumentException("Puerto inválido: " + puerto);
+            }
+        }
+
+        this.puertos = puertos.clone();
+        this.maxConexiones = Math.max(this.puertos.length, maxConexiones);
+        this.limiteConexiones = this.maxConexiones;
+        this.selector = Selector.open();
+        this.rueda = new RuedaTemporizadores<>(RANURAS_RUEDA, RESOLUCION_RUEDA_MS, System.currentTimeMillis());
+        this.hiloSelector = new Thread(this::bucleSelector, "Sonda-TCP-NIO");
+        this.hiloSelector.setDaemon(true);
+        this.hiloSelector.start();
+    }
+
+    @Override
+    public Dispositivo sondear(int ip, int tiempoEsperaMs) throws IOException {
+        try {
+            return sondearAsync(ip, tiempoEsperaMs, Runnable::run).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Encola el sondeo de una IP; el futuro se completa desde el hilo del selector
+     * y el executor no se usa
+     */
+    @Override
+    public CompletableFuture<Dispositivo> sondearAsync(int ip, int tiempoEsperaMs, Executor executor) {
+        Objetivo objetivo = new Objetivo(ip, tiempoEsperaMs);
+        if (!activo) {
+            objetivo.resultado.completeExceptionally(new CancellationException("Sonda cerrada"));
+            return objetivo.resultado;
+        }
+        entrantes.add(objetivo);
+        // Si el selector terminó entre la comprobación y add, ya nadie vacía la cola
+        if (!activo && entrantes.remove(objetivo)) {
+            objetivo.resultado.completeExceptionally(new CancellationException("Sonda cerrada"));
+            return objetivo.resultado;
+        }
+        selector.wakeup();
+        return objetivo.resultado;
+    }
+
+    /**
+     * Objetivos que conviene mantener en vuelo para aprovechar el límite de conexiones
+     */
+    @Override
+    public int getCapacidad() {
+        return Math.max(1, maxConexiones / puertos.length);
+    }
+
+    public int[] getPuertos() {
+        return puertos.clone();
+    }
+
+    @Override
+    public void close() {
+        activo = false;
+        selector.wakeup();
+        try {
+            hiloSelector.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void bucleSelector() {
+        try {
+            while (activo) {
+                iniciarEntrantes();
+                selector.select(RESOLUCION_RUEDA_MS);
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey clave = it.next();
+                    it.remove();
+                    if (clave.isValid() && clave.isConnectable()) {
+                        completarConexion(clave);
+                    }
+                }
+
+                rueda.avanzar(System.currentTimeMillis(), objetivo -> finalizar(objetivo, false));
+            }
+        } catch (IOException e) {
+            System.err.println("Error en selector de sonda TCP: " + e.getMessage());
+        } finally {
+            // Antes de vaciar la cola: lo que llegue después lo rechaza sondearAsync
+            activo = false;
+            cancelarTodo();
+        }
+    }
+
+    private void iniciarEntrantes() {
+        Objetivo objetivo;
+        while ((objetivo = entrantes.poll()) != null) {
+            enEspera.add(objetivo);
+        }
+
+        recuperarLimite();
+        while (!enEspera.isEmpty() && conexionesAbiertas + puertos.length <= limiteConexiones) {
+            if (!iniciar(enEspera.poll())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Lanza los connect() de un objetivo. Devuelve false si se agotaron los
+     * descriptores de archivo: el objetivo vuelve a la cola y el límite baja
+     * hasta que recuperarLimite lo vuelva a subir.
+     */
+    private boolean iniciar(Objetivo objetivo) {
+        objetivo.inicioNanos = System.nanoTime();
+        InetAddress direccion;
+        try {
+            direccion = SondaHost.direccion(objetivo.ip);
+        } catch (IOException e) {
+            objetivo.resultado.completeExceptionally(e);
+            return true;
+        }
+
+        for (int puerto : puertos) {
+            SocketChannel canal;
+            try {
+                canal = SocketChannel.open();
+            } catch (IOException e) {
+                for (SelectionKey clave : objetivo.claves) {
+                    liberar(clave);
+                }
+                objetivo.claves.clear();
+                limiteConexiones = Math.max(puertos.length, conexionesAbiertas);
+                ultimoAjusteNanos = System.nanoTime();
+                enEspera.addFirst(objetivo);
+                return false;
+            }
+            try {
+                canal.configureBlocking(false);
+                if (canal.connect(new InetSocketAddress(direccion, puerto))) {
+                    canal.close();
+                    finalizar(objetivo, true);
+                    return true;
+                }
+                objetivo.claves.add(canal.register(selector, SelectionKey.OP_CONNECT, objetivo));
+                conexionesAbiertas++;
+            } catch (ConnectException e) {
+                // RST inmediato (p. ej. en loopback): el host contestó
+                cerrar(canal);
+                finalizar(objetivo, true);
+                return true;
+            } catch (IOException e) {
+                // Sin ruta o red inalcanzable en este puerto
+                cerrar(canal);
+            }
+        }
+
+        if (objetivo.claves.isEmpty()) {
+            finalizar(objetivo, false);
+        } else {
+            objetivo.temporizador = rueda.programar(objetivo, objetivo.tiempoEsperaMs, System.currentTimeMillis());
+        }
+        return true;
+    }
+
+    private void completarConexion(SelectionKey clave) {
+        Objetivo objetivo = (Objetivo) clave.attachment();
+        SocketChannel canal = (SocketChannel) clave.channel();
+        boolean activoHost;
+        try {
+            activoHost = canal.finishConnect();
+        } catch (ConnectException e) {
+            // ECONNREFUSED; sin ruta llega como NoRouteToHostException. El ETIMEDOUT del
+            // kernel también es ConnectException, pero llega mucho después que el plazo
+            activoHost = true;
+        } catch (IOException e) {
+            activoHost = false;
+        }
+
+        if (activoHost) {
+            finalizar(objetivo, true);
+            return;
+        }
+
+        objetivo.claves.remove(clave);
+        liberar(clave);
+        if (objetivo.claves.isEmpty()) {
+            finalizar(objetivo, false);
+        }
+    }
+
+    private void finalizar(Objetivo objetivo, boolean alcanzable) {
+        if (objetivo.terminado) {
+            return;
+        }
+        objetivo.terminado = true;
+
+        for (SelectionKey clave : objetivo.claves) {
+            liberar(clave);
+        }
+        objetivo.claves.clear();
+        if (objetivo.temporizador != null) {
+            objetivo.temporizador.cancelar();
+        }
+
+        long rtt = alcanzable ? (System.nanoTime() - objetivo.inicioNanos) / 1_000_000 : 0;
+        objetivo.resultado.complete(new Dispositivo(objetivo.ip, "", alcanzable, rtt));
+    }
+
+    private void liberar(SelectionKey clave) {
+        clave.cancel();
+        cerrar(clave.channel());
+        conexionesAbiertas--;
+    }
+
+    private void cancelarTodo() {
+        for (SelectionKey clave : selector.keys()) {
+            Object adjunto = clave.attachment();
+            if (adjunto instanceof Objetivo objetivo) {
+                objetivo.resultado.completeExceptionally(new CancellationException("Sonda cerrada"));
+            }
+            cerrar(clave.channel());
+        }
+        for (Objetivo objetivo : enEspera) {
+            objetivo.resultado.completeExceptionally(new CancellationException("Sonda cerrada"));
+        }
+        Objetivo objetivo;
+        while ((objetivo = entrantes.poll()) != null) {
+            objetivo.resultado.completeExceptionally(new CancellationException("Sonda cerrada"));
+        }
+        cerrar(selector);
+    }
+
+    /**
+     * Tras quedarse sin descriptores el límite vuelve a subir un cuarto por
+     * segundo hasta maxConexiones; si vuelven a faltar, iniciar lo baja otra vez
+     */
+    private void recuperarLimite() {
+        long ahora = System.nanoTime();
+        if (limiteConexiones < maxConexiones && ahora - ultimoAjusteNanos >= RECUPERACION_LIMITE_NANOS) {
+            limiteConexiones = Math.min(maxConexiones, limiteConexiones + Math.max(1, limiteConexiones / 4));
+            ultimoAjusteNanos = ahora;
+        }
+    }
+
+    private static void cerrar(AutoCloseable recurso) {
+        if (recurso == null) return;
+        try {
+            recurso.close();
+        } catch (Exception e) {
+            // Ignorar errores al cerrar
+        }
+    }
+}
@@ -6,7 +6,10 @@ public class ConexionRed {
     public enum TipoProtocolo { TCP, UDP }
     public enum EstadoConexion { 
         LISTENING, ESTABLISHED, CLOSE_WAIT, TIME_WAIT, 
-        SYN_SENT, SYN_RECEIVED, FIN_WAIT_1, FIN_WAIT_2 
+        SYN_SENT, SYN_RECEIVED, FIN_WAIT_1, FIN_WAIT_2,
+        LAST_ACK, CLOSING, CLOSE,
+        /** Estado que el sistema informa pero que no se reconoce */
+        UNKNOWN
     }
 
     private final TipoProtocolo protocolo;
@@ -45,6 +48,7 @@ public class ConexionRed {
         return direccionLocal.startsWith("127.") || 
                direccionLocal.startsWith("192.168.") ||
                direccionLocal.equals("0.0.0.0") ||
+               direccionLocal.equals("::") ||
                direccionLocal.equals("::1");
     }
 
@@ -71,4 +75,33 @@ public class ConexionRed {
     public int hashCode() {
         return Objects.hash(protocolo, direccionLocal, puertoLocal, direccionRemota, puertoRemoto);
     }
+
+    /**
+     * Identidad del socket incluyendo el PID: con SO_REUSEPORT varios procesos
+     * escuchan en la misma dirección y puerto, y equals los confundiría
+     */
+    public Clave getClave() {
+        return new Clave(this);
+    }
+
+    public static final class Clave {
+        private final ConexionRed conexion;
+
+        private Clave(ConexionRed conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave that = (Clave) o;
+            return conexion.pid == that.conexion.pid && conexion.equals(that.conexion);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * conexion.hashCode() + conexion.pid;
+        }
+    }
 }
\ No newline at end of file
@@ -1,30 +1,56 @@
 		// File: src/modelo/Dispositivo.java
 		package modelo;
 		
-		import java.util.Objects;
+		import util.ValidadorIP;
 		
 		public class Dispositivo {
-		    private final String direccionIP;
+		    private final int ipEntera;
+		    private String direccionIP; // se formatea bajo demanda
 		    private final String nombreHost;
 		    private final boolean enLinea;
 		    private final long tiempoRespuesta;
 		
 		    public Dispositivo(String direccionIP, String nombreHost, boolean enLinea, long tiempoRespuesta) {
+		        this(ValidadorIP.ipToInt(direccionIP), nombreHost, enLinea, tiempoRespuesta);
 		        this.direccionIP = direccionIP;
+		    }
+		
+		    /**
+		     * Constructor para el bucle de escaneo: la IP como int sin signo, sin crear su String
+		     */
+		    public Dispositivo(int ipEntera, String nombreHost, boolean enLinea, long tiempoRespuesta) {
+		        this.ipEntera = ipEntera;
 		        this.nombreHost = nombreHost == null ? "" : nombreHost;
 		        this.enLinea = enLinea;
 		        this.tiempoRespuesta = tiempoRespuesta;
 		    }
 		
 		    // Getters
-		    public String getDireccionIP() { return direccionIP; }
+		    public int getIpEntera() { return ipEntera; }
+		    public String getDireccionIP() {
+		        String ip = direccionIP;
+		        if (ip == null) {
+		            ip = ValidadorIP.intToIp(ipEntera);
+		            direccionIP = ip;
+		        }
+		        return ip;
+		    }
 		    public String getNombreHost() { return nombreHost; }
 		    public boolean estaEnLinea() { return enLinea; }
 		    public long getTiempoRespuesta() { return tiempoRespuesta; }
 		
+		    /**
+		     * Copia del dispositivo con el nombre de host resuelto
+		     */
+		    public Dispositivo conNombreHost(String nombreHost) {
+		        Dispositivo copia = new Dispositivo(ipEntera, nombreHost, enLinea, tiempoRespuesta);
+		        copia.direccionIP = direccionIP;
+		        return copia;
+		    }
+		
 		    @Override
 		    public String toString() {
-		        return String.format("%s (%s) - %s ms", nombreHost.isEmpty() ? "-" : nombreHost, direccionIP, tiempoRespuesta);
+		        return String.format("%s (%s) - %s ms", nombreHost.isEmpty() ? "-" : nombreHost, getDireccionIP(), tiempoRespuesta);
 		    }
 		
 		    @Override
@@ -32,12 +58,12 @@
 		        if (this == o) return true;
 		        if (!(o instanceof Dispositivo)) return false;
 		        Dispositivo that = (Dispositivo) o;
-		        return Objects.equals(direccionIP, that.direccionIP);
+		        return ipEntera == that.ipEntera;
 		    }
 		
 		    @Override
 		    public int hashCode() {
-		        return Objects.hash(direccionIP);
+		        return Integer.hashCode(ipEntera);
 		    }
 		}
 		
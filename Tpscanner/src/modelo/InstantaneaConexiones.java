@@ -0,0 +1,103 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de sockets capturada en un instante, inmutable e indexada por estado,
+ * puerto local, dirección remota y PID. Las vistas la consultan sin volver a
+ * ejecutar ni parsear nada, y puede compartirse entre hilos.
+ */
+public final class InstantaneaConexiones {
+    private final long capturadaMs;
+    private final List<ConexionRed> conexiones;
+    private final Map<ConexionRed.EstadoConexion, List<ConexionRed>> porEstado;
+    private final Map<Integer, List<ConexionRed>> porPuertoLocal;
+    private final Map<String, List<ConexionRed>> porDireccionRemota;
+    private final Map<Integer, List<ConexionRed>> porPid;
+    private final Map<ConexionRed.Clave, ConexionRed> porIdentidad;
+
+    public InstantaneaConexiones(List<ConexionRed> conexiones, long capturadaMs) {
+        this.capturadaMs = capturadaMs;
+        this.conexiones = List.copyOf(conexiones);
+
+        Map<ConexionRed.EstadoConexion, List<ConexionRed>> estados = new EnumMap<>(ConexionRed.EstadoConexion.class);
+        Map<Integer, List<ConexionRed>> puertos = new HashMap<>();
+        Map<String, List<ConexionRed>> remotas = new HashMap<>();
+        Map<Integer, List<ConexionRed>> pids = new HashMap<>();
+        Map<ConexionRed.Clave, ConexionRed> identidades = new HashMap<>(this.conexiones.size() * 4 / 3 + 1);
+        for (ConexionRed conexion : this.conexiones) {
+            identidades.putIfAbsent(conexion.getClave(), conexion);
+            estados.computeIfAbsent(conexion.getEstado(), e -> new ArrayList<>()).add(conexion);
+            puertos.computeIfAbsent(conexion.getPuertoLocal(), p -> new ArrayList<>()).add(conexion);
+            remotas.computeIfAbsent(conexion.getDireccionRemota(), d -> new ArrayList<>()).add(conexion);
+            if (conexion.getPid() > 0) {
+                pids.computeIfAbsent(conexion.getPid(), p -> new ArrayList<>()).add(conexion);
+            }
+        }
+        this.porEstado = congelar(estados);
+        this.porPuertoLocal = congelar(puertos);
+        this.porDireccionRemota = congelar(remotas);
+        this.porPid = congelar(pids);
+        this.porIdentidad = identidades;
+    }
+
+    private static <K> Map<K, List<ConexionRed>> congelar(Map<K, List<ConexionRed>> indice) {
+        indice.replaceAll((clave, lista) -> Collections.unmodifiableList(lista));
+        return Collections.unmodifiableMap(indice);
+    }
+
+    /**
+     * Momento de la captura (System.currentTimeMillis)
+     */
+    public long getCapturadaMs() { return capturadaMs; }
+    public List<ConexionRed> getConexiones() { return conexiones; }
+    public int size() { return conexiones.size(); }
+
+    /**
+     * Conexiones en cualquiera de los estados, agrupadas en el orden en que se piden
+     */
+    public List<ConexionRed> porEstado(ConexionRed.EstadoConexion... estados) {
+        if (estados.length == 1) {
+            return porEstado.getOrDefault(estados[0], List.of());
+        }
+        List<ConexionRed> resultado = new ArrayList<>();
+        for (ConexionRed.EstadoConexion estado : estados) {
+            resultado.addAll(porEstado.getOrDefault(estado, List.of()));
+        }
+        return resultado;
+    }
+
+    public List<ConexionRed> porPuertoLocal(int puerto) {
+        return porPuertoLocal.getOrDefault(puerto, List.of());
+    }
+
+    public List<ConexionRed> porDireccionRemota(String direccion) {
+        return porDireccionRemota.getOrDefault(direccion, List.of());
+    }
+
+    public List<ConexionRed> porPid(int pid) {
+        return porPid.getOrDefault(pid, List.of());
+    }
+
+    /**
+     * La conexión con la misma identidad (protocolo, direcciones, puertos y PID),
+     * con el estado de esta captura, o null si no está
+     */
+    public ConexionRed buscar(ConexionRed conexion) {
+        return porIdentidad.get(conexion.getClave());
+    }
+
+    /**
+     * Cantidad de conexiones por estado, en el orden del enum
+     */
+    public Map<ConexionRed.EstadoConexion, Integer> contarPorEstado() {
+        Map<ConexionRed.EstadoConexion, Integer> cuentas = new EnumMap<>(ConexionRed.EstadoConexion.class);
+        porEstado.forEach((estado, lista) -> cuentas.put(estado, lista.size()));
+        return cuentas;
+    }
+}
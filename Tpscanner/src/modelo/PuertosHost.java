@@ -0,0 +1,42 @@
+package modelo;
+
+import util.ListaPuertos;
+import util.ValidadorIP;
+
+/**
+ * Resumen del escaneo de puertos de un host: los puertos abiertos, ordenados,
+ * y cuántos resultaron cerrados o filtrados. Acompaña a Dispositivo por su IP.
+ */
+public class PuertosHost {
+    private final int ipEntera;
+    private final int[] abiertos;
+    private final int cerrados;
+    private final int filtrados;
+
+    public PuertosHost(int ipEntera, int[] abiertos, int cerrados, int filtrados) {
+        this.ipEntera = ipEntera;
+        this.abiertos = abiertos.clone();
+        this.cerrados = cerrados;
+        this.filtrados = filtrados;
+    }
+
+    public int getIpEntera() { return ipEntera; }
+    public String getDireccionIP() { return ValidadorIP.intToIp(ipEntera); }
+    public int[] getPuertosAbiertos() { return abiertos.clone(); }
+    public int getCantidadAbiertos() { return abiertos.length; }
+    public int getCerrados() { return cerrados; }
+    public int getFiltrados() { return filtrados; }
+
+    /**
+     * Puertos abiertos en forma compacta, p. ej. "22,80,8000-8002"
+     */
+    public String formatearAbiertos() {
+        return ListaPuertos.formatear(abiertos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s abiertos [%s], %d cerrados, %d filtrados",
+            getDireccionIP(), formatearAbiertos(), cerrados, filtrados);
+    }
+}
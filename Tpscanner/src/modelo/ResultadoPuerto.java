@@ -0,0 +1,40 @@
+package modelo;
+
+import util.ValidadorIP;
+
+/**
+ * Resultado de una sonda de conexión TCP a un puerto de un host
+ */
+public class ResultadoPuerto {
+    public enum Estado {
+        /** El host aceptó la conexión */
+        ABIERTO,
+        /** El host respondió con RST */
+        CERRADO,
+        /** Sin respuesta dentro del plazo o inalcanzable */
+        FILTRADO
+    }
+
+    private final int ipEntera;
+    private final int puerto;
+    private final Estado estado;
+    private final long tiempoRespuesta;
+
+    public ResultadoPuerto(int ipEntera, int puerto, Estado estado, long tiempoRespuesta) {
+        this.ipEntera = ipEntera;
+        this.puerto = puerto;
+        this.estado = estado;
+        this.tiempoRespuesta = tiempoRespuesta;
+    }
+
+    public int getIpEntera() { return ipEntera; }
+    public String getDireccionIP() { return ValidadorIP.intToIp(ipEntera); }
+    public int getPuerto() { return puerto; }
+    public Estado getEstado() { return estado; }
+    public long getTiempoRespuesta() { return tiempoRespuesta; }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%d %s (%d ms)", getDireccionIP(), puerto, estado, tiempoRespuesta);
+    }
+}
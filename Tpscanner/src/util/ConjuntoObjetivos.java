@@ -0,0 +1,378 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Conjunto de direcciones IPv4 a escanear guardado como tramos ordenados y disjuntos.
+ * Ocupa memoria según la cantidad de tramos, no de direcciones: un /8 con
+ * algunas exclusiones son unos pocos pares de int.
+ *
+ * Acepta listas separadas por comas o espacios con estas formas:
+ *   10.0.0.0/16    bloque CIDR (sin dirección de red ni broadcast)
+ *   10.1.0.1-10.1.0.50   rango explícito
+ *   192.168.1.7    dirección suelta
+ *   !10.0.5.0/24   exclusión (cualquiera de las formas anteriores)
+ * Las direcciones reservadas de ValidadorIP se descartan siempre al parsear.
+ */
+public final class ConjuntoObjetivos {
+    private static final long MAXIMO = 0xFFFFFFFFL;
+
+    // Extremos sin signo de cada tramo, ordenados y sin solaparse
+    private final int[] inicios;
+    private final int[] fines;
+    // acumulados[i] = direcciones en los tramos anteriores a i
+    private final long[] acumulados;
+    private final long tamanio;
+
+    private ConjuntoObjetivos(long[] tramos, int cantidad) {
+        inicios = new int[cantidad];
+        fines = new int[cantidad];
+        acumulados = new long[cantidad];
+        long total = 0;
+        for (int i = 0; i < cantidad; i++) {
+            inicios[i] = (int) tramos[2 * i];
+            fines[i] = (int) tramos[2 * i + 1];
+            acumulados[i] = total;
+            total += tramos[2 * i + 1] - tramos[2 * i] + 1;
+        }
+        tamanio = total;
+    }
+
+    /**
+     * Conjunto con un único rango, sin descartar nada (comportamiento de inicio/fin)
+     */
+    public static ConjuntoObjetivos deRango(RangoIPv4 rango) {
+        return new ConjuntoObjetivos(
+            new long[] {rango.getInicio() & MAXIMO, rango.getFin() & MAXIMO}, 1);
+    }
+
+    /**
+     * Conjunto con las direcciones indicadas, en cualquier orden y con repetidos
+     */
+    public static ConjuntoObjetivos deDirecciones(int[] direcciones) {
+        long[] ordenadas = new long[direcciones.length];
+        for (int i = 0; i < direcciones.length; i++) {
+            ordenadas[i] = direcciones[i] & MAXIMO;
+        }
+        Arrays.sort(ordenadas);
+
+        long[] tramos = new long[ordenadas.length * 2];
+        int n = 0;
+        for (long ip : ordenadas) {
+            if (n > 0 && ip <= tramos[n - 1] + 1) {
+                tramos[n - 1] = Math.max(tramos[n - 1], ip);
+            } else {
+                tramos[n++] = ip;
+                tramos[n++] = ip;
+            }
+        }
+        return new ConjuntoObjetivos(tramos, n / 2);
+    }
+
+    /**
+     * Conjunto con los rangos indicados tal cual, sin descartar direcciones
+     */
+    public static ConjuntoObjetivos deRangos(List<RangoIPv4> rangos) {
+        List<long[]> tramos = new ArrayList<>(rangos.size());
+        for (RangoIPv4 rango : rangos) {
+            tramos.add(new long[] {rango.getInicio() & MAXIMO, rango.getFin() & MAXIMO});
+        }
+        long[] fusionados = fusionar(tramos);
+        return new ConjuntoObjetivos(fusionados, fusionados.length / 2);
+    }
+
+    /**
+     * Parsea una especificación de objetivos
+     * @throws IllegalArgumentException si alguna entrada no es válida
+     */
+    public static ConjuntoObjetivos parsear(String especificacion) {
+        if (especificacion == null || especificacion.trim().isEmpty()) {
+            throw new IllegalArgumentException("No se indicaron objetivos");
+        }
+
+        List<long[]> incluidos = new ArrayList<>();
+        List<long[]> excluidos = new ArrayList<>();
+        int longitud = especificacion.length();
+        int i = 0;
+        while (i < longitud) {
+            char c = especificacion.charAt(i);
+            if (c == ',' || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int fin = i;
+            while (fin < longitud && especificacion.charAt(fin) != ','
+                    && !Character.isWhitespace(especificacion.charAt(fin))) {
+                fin++;
+            }
+            boolean exclusion = c == '!';
+            long[] tramo = parsearEntrada(especificacion, exclusion ? i + 1 : i, fin, !exclusion);
+            // Solo las exclusiones con '!' se restan del total: la red y el broadcast
+            // de un bloque ya vienen recortados y no quitan direcciones de otra entrada
+            (exclusion ? excluidos : incluidos).add(tramo);
+            i = fin;
+        }
+
+        for (int[] reservada : ValidadorIP.bloquesReservados()) {
+            long inicio = reservada[0] & MAXIMO;
+            excluidos.add(new long[] {inicio, inicio | (~reservada[1] & MAXIMO)});
+        }
+        return restar(fusionar(incluidos), fusionar(excluidos));
+    }
+
+    /**
+     * Devuelve {inicio, fin}
+     * @param recortar quitar de los bloques CIDR la dirección de red y la de broadcast
+     *                 (no en las exclusiones, que quitan el bloque entero)
+     */
+    private static long[] parsearEntrada(String texto, int desde, int hasta, boolean recortar) {
+        String entrada = texto.substring(desde, hasta);
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c == '/') {
+                return parsearCidr(texto, desde, i, hasta, entrada, recortar);
+            }
+            if (c == '-') {
+                long inicio = ValidadorIP.parsearIPv4(texto, desde, i);
+                long fin = ValidadorIP.parsearIPv4(texto, i + 1, hasta);
+                if (inicio == ValidadorIP.IP_INVALIDA || fin == ValidadorIP.IP_INVALIDA) {
+                    throw new IllegalArgumentException("Rango inválido: " + entrada);
+                }
+                return new long[] {Math.min(inicio, fin), Math.max(inicio, fin)};
+            }
+        }
+
+        long ip = ValidadorIP.parsearIPv4(texto, desde, hasta);
+        if (ip == ValidadorIP.IP_INVALIDA) {
+            throw new IllegalArgumentException("Dirección inválida: " + entrada);
+        }
+        return new long[] {ip, ip};
+    }
+
+    private static long[] parsearCidr(String texto, int desde, int barra, int hasta, String entrada,
+                                      boolean recortar) {
+        long ip = ValidadorIP.parsearIPv4(texto, desde, barra);
+        int prefijo = 0;
+        int digitos = hasta - barra - 1;
+        for (int i = barra + 1; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                digitos = 0;
+                break;
+            }
+            prefijo = prefijo * 10 + (c - '0');
+        }
+        if (ip == ValidadorIP.IP_INVALIDA || digitos < 1 || digitos > 2 || prefijo > 32) {
+            throw new IllegalArgumentException("Bloque CIDR inválido: " + entrada);
+        }
+
+        long mascara = prefijo == 0 ? 0 : (MAXIMO << (32 - prefijo)) & MAXIMO;
+        long red = ip & mascara;
+        long broadcast = red | (~mascara & MAXIMO);
+        // En /31 y /32 no hay direcciones de red ni broadcast que descartar
+        return recortar && prefijo <= 30 ? new long[] {red + 1, broadcast - 1} : new long[] {red, broadcast};
+    }
+
+    /**
+     * Ordena y une tramos solapados o contiguos; devuelve pares planos
+     */
+    private static long[] fusionar(List<long[]> tramos) {
+        tramos.sort((a, b) -> Long.compare(a[0], b[0]));
+        long[] resultado = new long[tramos.size() * 2];
+        int n = 0;
+        for (long[] tramo : tramos) {
+            if (n > 0 && tramo[0] <= resultado[n - 1] + 1) {
+                resultado[n - 1] = Math.max(resultado[n - 1], tramo[1]);
+            } else {
+                resultado[n++] = tramo[0];
+                resultado[n++] = tramo[1];
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private static ConjuntoObjetivos restar(long[] incluidos, long[] excluidos) {
+        // Cada exclusión puede partir un tramo en dos
+        long[] resultado = new long[incluidos.length + excluidos.length];
+        int n = 0;
+        int e = 0;
+        for (int i = 0; i < incluidos.length; i += 2) {
+            long inicio = incluidos[i];
+            long fin = incluidos[i + 1];
+            while (e < excluidos.length && excluidos[e + 1] < inicio) {
+                e += 2;
+            }
+            int k = e;
+            while (inicio <= fin && k < excluidos.length && excluidos[k] <= fin) {
+                if (excluidos[k] > inicio) {
+                    resultado[n++] = inicio;
+                    resultado[n++] = excluidos[k] - 1;
+                }
+                inicio = Math.max(inicio, excluidos[k + 1] + 1);
+                k += 2;
+            }
+            if (inicio <= fin) {
+                resultado[n++] = inicio;
+                resultado[n++] = fin;
+            }
+        }
+        return new ConjuntoObjetivos(resultado, n / 2);
+    }
+
+    /**
+     * Direcciones de este conjunto que no están en el otro
+     */
+    public ConjuntoObjetivos menos(ConjuntoObjetivos otro) {
+        return restar(tramos(), otro.tramos());
+    }
+
+    private long[] tramos() {
+        long[] tramos = new long[inicios.length * 2];
+        for (int i = 0; i < inicios.length; i++) {
+            tramos[2 * i] = inicios[i] & MAXIMO;
+            tramos[2 * i + 1] = fines[i] & MAXIMO;
+        }
+        return tramos;
+    }
+
+    /**
+     * Cantidad total de direcciones (hasta 2^32, por eso long)
+     */
+    public long tamanio() {
+        return tamanio;
+    }
+
+    public boolean estaVacio() {
+        return tamanio == 0;
+    }
+
+    public int getCantidadTramos() {
+        return inicios.length;
+    }
+
+    public RangoIPv4 getTramo(int indice) {
+        return new RangoIPv4(inicios[indice], fines[indice]);
+    }
+
+    /**
+     * Búsqueda binaria sobre los tramos
+     */
+    public boolean contiene(int ip) {
+        return posicionDe(ip) >= 0;
+    }
+
+    /**
+     * Dirección en la posición indicada del recorrido ordenado (0 = la menor)
+     */
+    public int direccionEn(long posicion) {
+        if (posicion < 0 || posicion >= tamanio) {
+            throw new IndexOutOfBoundsException("Posición fuera del conjunto: " + posicion);
+        }
+        int indice = Arrays.binarySearch(acumulados, posicion);
+        if (indice < 0) {
+            indice = -indice - 2;
+        }
+        return (int) ((inicios[indice] & MAXIMO) + posicion - acumulados[indice]);
+    }
+
+    /**
+     * Posición de la IP en el recorrido ordenado, o -1 si no pertenece al conjunto
+     */
+    public long posicionDe(int ip) {
+        int bajo = 0;
+        int alto = inicios.length - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (Integer.compareUnsigned(ip, inicios[medio]) < 0) {
+                alto = medio - 1;
+            } else if (Integer.compareUnsigned(ip, fines[medio]) > 0) {
+                bajo = medio + 1;
+            } else {
+                return acumulados[medio] + (ip & MAXIMO) - (inicios[medio] & MAXIMO);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Subconjunto con las direcciones desde esa posición del recorrido en adelante
+     */
+    public ConjuntoObjetivos desde(long posicion) {
+        if (posicion <= 0) {
+            return this;
+        }
+        if (posicion >= tamanio) {
+            return new ConjuntoObjetivos(new long[0], 0);
+        }
+        long[] todos = tramos();
+        int indice = Arrays.binarySearch(acumulados, posicion);
+        if (indice < 0) {
+            indice = -indice - 2;
+        }
+        long[] resto = Arrays.copyOfRange(todos, indice * 2, todos.length);
+        resto[0] += posicion - acumulados[indice];
+        return new ConjuntoObjetivos(resto, resto.length / 2);
+    }
+
+    /**
+     * Recorre las direcciones en orden ascendente sin crear objetos por dirección
+     */
+    public PrimitiveIterator.OfInt direcciones() {
+        return new PrimitiveIterator.OfInt() {
+            private int tramo = 0;
+            private long siguiente = inicios.length > 0 ? inicios[0] & MAXIMO : 0;
+
+            @Override
+            public boolean hasNext() {
+                return tramo < inicios.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int ip = (int) siguiente;
+                if (siguiente == (fines[tramo] & MAXIMO)) {
+                    tramo++;
+                    siguiente = tramo < inicios.length ? inicios[tramo] & MAXIMO : 0;
+                } else {
+                    siguiente++;
+                }
+                return ip;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConjuntoObjetivos)) return false;
+        ConjuntoObjetivos that = (ConjuntoObjetivos) o;
+        return Arrays.equals(inicios, that.inicios) && Arrays.equals(fines, that.fines);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(inicios) + Arrays.hashCode(fines);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < inicios.length; i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            ValidadorIP.anexarIPv4(texto, inicios[i]);
+            if (inicios[i] != fines[i]) {
+                ValidadorIP.anexarIPv4(texto.append('-'), fines[i]);
+            }
+        }
+        return texto.toString();
+    }
+}
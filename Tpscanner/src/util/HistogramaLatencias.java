@@ -0,0 +1,91 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas log-lineales: cada potencia de 2 de
+ * microsegundos se divide en 8 cubetas, así el error de un percentil queda por
+ * debajo del 12,5% con memoria fija (~2 KB) desde 1 µs hasta horas.
+ * Registrar es un incremento atómico sin bloqueos; se puede usar desde cualquier hilo.
+ */
+public final class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 3;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int EXPONENTE_MAXIMO = 40;
+    private static final int CUBETAS = (EXPONENTE_MAXIMO - BITS_SUBCUBETA + 2) * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumaMicros = new LongAdder();
+
+    public void registrar(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        cuentas.incrementAndGet(indice(micros));
+        total.increment();
+        sumaMicros.add(micros);
+    }
+
+    public long getCantidad() {
+        return total.sum();
+    }
+
+    public double getMediaMs() {
+        long cantidad = total.sum();
+        return cantidad == 0 ? 0 : sumaMicros.sum() / 1000.0 / cantidad;
+    }
+
+    /**
+     * Límite superior de la cubeta que contiene el percentil, en milisegundos
+     * @param percentil entre 0 y 100
+     */
+    public double percentilMs(double percentil) {
+        long[] copia = new long[CUBETAS];
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            cantidad += copia[i];
+        }
+        if (cantidad == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(cantidad * Math.min(100, Math.max(0, percentil)) / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return (limiteInferior(i + 1) - 1) / 1000.0;
+            }
+        }
+        return (limiteInferior(CUBETAS) - 1) / 1000.0;
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        total.reset();
+        sumaMicros.reset();
+    }
+
+    private static int indice(long micros) {
+        if (micros < SUBCUBETAS) {
+            return (int) micros;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponente > EXPONENTE_MAXIMO) {
+            return CUBETAS - 1;
+        }
+        int sub = (int) (micros >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    private static long limiteInferior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        int sub = indice % SUBCUBETAS;
+        return (long) (SUBCUBETAS + sub) << (exponente - BITS_SUBCUBETA);
+    }
+}
@@ -0,0 +1,71 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cubeta de fichas para espaciar sondas a una tasa fija.
+ * Implementada como GCRA (una sola marca de tiempo teórica): admite hasta
+ * "rafaga" envíos seguidos y, en régimen, uno cada 1/tasa segundos.
+ * El tiempo no usado más allá de la ráfaga se pierde, así nunca se supera la tasa.
+ */
+public final class LimitadorTasa {
+    private final double tasa;
+    private final int rafaga;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private long llegadaTeorica;
+    private boolean iniciado;
+
+    /**
+     * @param paquetesPorSegundo envíos por segundo en régimen (mayor que 0)
+     * @param rafaga             envíos seguidos admitidos tras un periodo inactivo (al menos 1)
+     */
+    public LimitadorTasa(double paquetesPorSegundo, int rafaga) {
+        if (!(paquetesPorSegundo > 0) || Double.isInfinite(paquetesPorSegundo)) {
+            throw new IllegalArgumentException("Tasa inválida: " + paquetesPorSegundo);
+        }
+        this.tasa = paquetesPorSegundo;
+        this.rafaga = Math.max(1, rafaga);
+        this.intervaloNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / paquetesPorSegundo));
+        this.toleranciaNanos = (this.rafaga - 1) * intervaloNanos;
+    }
+
+    /**
+     * Consume una ficha si hay; si no, devuelve cuántos nanosegundos faltan para la próxima
+     * @return 0 si se adquirió la ficha
+     */
+    public synchronized long intentarAdquirir(long ahoraNanos) {
+        if (!iniciado) {
+            llegadaTeorica = ahoraNanos;
+            iniciado = true;
+        }
+        long adelanto = llegadaTeorica - ahoraNanos;
+        if (adelanto > toleranciaNanos) {
+            return adelanto - toleranciaNanos;
+        }
+        llegadaTeorica = Math.max(llegadaTeorica, ahoraNanos) + intervaloNanos;
+        return 0;
+    }
+
+    /**
+     * Bloquea hasta obtener una ficha
+     */
+    public void adquirir() throws InterruptedException {
+        long espera;
+        while ((espera = intentarAdquirir(System.nanoTime())) > 0) {
+            LockSupport.parkNanos(this, espera);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    public double getTasa() {
+        return tasa;
+    }
+
+    public int getRafaga() {
+        return rafaga;
+    }
+}
@@ -0,0 +1,78 @@
+package util;
+
+import java.util.BitSet;
+
+/**
+ * Lista de puertos TCP escrita como "22,80,443" o "1-1024,8080".
+ * Se devuelven ordenados y sin repetidos.
+ */
+public final class ListaPuertos {
+    public static final int PUERTO_MAXIMO = 65535;
+
+    private ListaPuertos() {
+    }
+
+    /**
+     * @throws IllegalArgumentException si algún elemento no es un puerto o rango válido
+     */
+    public static int[] parsear(String especificacion) {
+        if (especificacion == null || especificacion.isBlank()) {
+            throw new IllegalArgumentException("Lista de puertos vacía");
+        }
+
+        BitSet puertos = new BitSet(PUERTO_MAXIMO + 1);
+        for (String parte : especificacion.split(",")) {
+            String elemento = parte.trim();
+            if (elemento.isEmpty()) {
+                continue;
+            }
+            int guion = elemento.indexOf('-');
+            int desde = aPuerto(guion < 0 ? elemento : elemento.substring(0, guion));
+            int hasta = guion < 0 ? desde : aPuerto(elemento.substring(guion + 1));
+            if (hasta < desde) {
+                throw new IllegalArgumentException("Rango de puertos invertido: " + elemento);
+            }
+            puertos.set(desde, hasta + 1);
+        }
+        if (puertos.isEmpty()) {
+            throw new IllegalArgumentException("Lista de puertos vacía");
+        }
+        return puertos.stream().toArray();
+    }
+
+    /**
+     * Forma compacta con rangos, inversa de parsear: {22, 80, 81, 82} -> "22,80-82"
+     */
+    public static String formatear(int[] puertos) {
+        StringBuilder texto = new StringBuilder();
+        int i = 0;
+        while (i < puertos.length) {
+            int j = i;
+            while (j + 1 < puertos.length && puertos[j + 1] == puertos[j] + 1) {
+                j++;
+            }
+            if (texto.length() > 0) {
+                texto.append(',');
+            }
+            texto.append(puertos[i]);
+            if (j > i) {
+                texto.append('-').append(puertos[j]);
+            }
+            i = j + 1;
+        }
+        return texto.toString();
+    }
+
+    private static int aPuerto(String texto) {
+        int puerto;
+        try {
+            puerto = Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Puerto inválido: " + texto.trim());
+        }
+        if (puerto < 1 || puerto > PUERTO_MAXIMO) {
+            throw new IllegalArgumentException("Puerto fuera de rango: " + puerto);
+        }
+        return puerto;
+    }
+}
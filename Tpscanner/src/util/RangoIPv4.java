@@ -0,0 +1,69 @@
+package util;
+
+/**
+ * Rango cerrado de IPv4 representado como un par de int sin signo.
+ * Permite recorrer rangos grandes sin crear un String por dirección.
+ */
+public final class RangoIPv4 {
+    private final int inicio;
+    private final int fin;
+
+    /**
+     * Crea el rango entre dos IPs; si vienen invertidas se ordenan
+     */
+    public RangoIPv4(int inicio, int fin) {
+        if (Integer.compareUnsigned(inicio, fin) <= 0) {
+            this.inicio = inicio;
+            this.fin = fin;
+        } else {
+            this.inicio = fin;
+            this.fin = inicio;
+        }
+    }
+
+    public static RangoIPv4 de(String inicio, String fin) {
+        return new RangoIPv4(ValidadorIP.ipToInt(inicio), ValidadorIP.ipToInt(fin));
+    }
+
+    public int getInicio() { return inicio; }
+    public int getFin() { return fin; }
+
+    /**
+     * Cantidad de direcciones del rango (hasta 2^32, por eso long)
+     */
+    public long tamanio() {
+        return (fin & 0xFFFFFFFFL) - (inicio & 0xFFFFFFFFL) + 1;
+    }
+
+    public boolean contiene(int ip) {
+        return Integer.compareUnsigned(ip, inicio) >= 0 && Integer.compareUnsigned(ip, fin) <= 0;
+    }
+
+    /**
+     * IP en la posición indicada del rango (0 = inicio)
+     */
+    public int direccionEn(long posicion) {
+        if (posicion < 0 || posicion >= tamanio()) {
+            throw new IndexOutOfBoundsException("Posición fuera del rango: " + posicion);
+        }
+        return (int) ((inicio & 0xFFFFFFFFL) + posicion);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RangoIPv4)) return false;
+        RangoIPv4 that = (RangoIPv4) o;
+        return inicio == that.inicio && fin == that.fin;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * inicio + fin;
+    }
+
+    @Override
+    public String toString() {
+        return ValidadorIP.intToIp(inicio) + "-" + ValidadorIP.intToIp(fin);
+    }
+}
@@ -0,0 +1,104 @@
+package util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporizadores (hashed timing wheel) para miles de plazos simultáneos.
+ * Programar y cancelar son O(1); avanzar solo recorre las ranuras vencidas.
+ * No es thread-safe: pensada para usarse desde un único hilo (p. ej. el del selector).
+ */
+public class RuedaTemporizadores<T> {
+
+    public static final class Temporizador<T> {
+        private final T valor;
+        private final long tickVencimiento;
+        private boolean cancelado;
+
+        private Temporizador(T valor, long tickVencimiento) {
+            this.valor = valor;
+            this.tickVencimiento = tickVencimiento;
+        }
+
+        public T getValor() { return valor; }
+
+        public void cancelar() {
+            cancelado = true;
+        }
+    }
+
+    private final ArrayDeque<Temporizador<T>>[] ranuras;
+    private final int mascara;
+    private final long resolucionMs;
+    private long tickActual;
+    private int pendientes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RuedaTemporizadores(int numRanuras, long resolucionMs, long ahoraMs) {
+        if (numRanuras <= 0 || Integer.bitCount(numRanuras) != 1) {
+            throw new IllegalArgumentException("El número de ranuras debe ser potencia de 2");
+        }
+        if (resolucionMs <= 0) {
+            throw new IllegalArgumentException("Resolución inválida: " + resolucionMs);
+        }
+
+        this.ranuras = new ArrayDeque[numRanuras];
+        for (int i = 0; i < numRanuras; i++) {
+            ranuras[i] = new ArrayDeque<>();
+        }
+        this.mascara = numRanuras - 1;
+        this.resolucionMs = resolucionMs;
+        this.tickActual = ahoraMs / resolucionMs;
+    }
+
+    /**
+     * Programa un vencimiento a retardoMs de ahoraMs (redondeado hacia arriba al tick)
+     */
+    public Temporizador<T> programar(T valor, long retardoMs, long ahoraMs) {
+        long tick = Math.max(tickActual + 1, (ahoraMs + Math.max(0, retardoMs) + resolucionMs - 1) / resolucionMs);
+        Temporizador<T> temporizador = new Temporizador<>(valor, tick);
+        ranuras[(int) (tick & mascara)].add(temporizador);
+        pendientes++;
+        return temporizador;
+    }
+
+    /**
+     * Avanza la rueda hasta ahoraMs entregando los valores vencidos y no cancelados
+     */
+    public void avanzar(long ahoraMs, Consumer<T> alVencer) {
+        long tickDestino = ahoraMs / resolucionMs;
+        if (tickDestino <= tickActual) {
+            return;
+        }
+
+        // Tras una pausa larga basta con recorrer cada ranura una vez
+        long pasos = Math.min(tickDestino - tickActual, ranuras.length);
+        for (long i = 1; i <= pasos; i++) {
+            Iterator<Temporizador<T>> it = ranuras[(int) ((tickActual + i) & mascara)].iterator();
+            while (it.hasNext()) {
+                Temporizador<T> temporizador = it.next();
+                if (temporizador.cancelado) {
+                    it.remove();
+                    pendientes--;
+                } else if (temporizador.tickVencimiento <= tickDestino) {
+                    it.remove();
+                    pendientes--;
+                    alVencer.accept(temporizador.valor);
+                }
+            }
+        }
+        tickActual = tickDestino;
+    }
+
+    /**
+     * Temporizadores aún almacenados (incluye cancelados no purgados)
+     */
+    public int tamanio() {
+        return pendientes;
+    }
+
+    public long getResolucionMs() {
+        return resolucionMs;
+    }
+}
@@ -1,24 +1,24 @@
 package util;
 
-import java.util.regex.Pattern;
-import java.util.StringTokenizer;
-
 /**
  * Utilidades avanzadas para validación y manipulación de direcciones IP
- * Incluye validación IPv4, conversiones y cálculos de red
+ * Incluye validación IPv4, conversiones y cálculos de red.
+ * Las variantes con int trabajan sin expresiones regulares ni objetos intermedios;
+ * el int se interpreta sin signo (0xFFFFFFFF es 255.255.255.255).
  */
 public class ValidadorIP {
-    // Patrón regex para validación IPv4
-    private static final Pattern PATRON_IPV4 = Pattern.compile(
-        "^(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-        "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-        "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\." +
-        "(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$"
-    );
-    
-    // Direcciones IP especiales/reservadas
-    private static final String[] IPS_RESERVADAS = {
-        "0.", "127.", "169.254.", "224.", "240."
+    /** Valor devuelto por parsearIPv4 para una cadena inválida */
+    public static final long IP_INVALIDA = -1L;
+    /** Longitud máxima de una IPv4 en texto ("255.255.255.255") */
+    public static final int LONGITUD_MAXIMA_IPV4 = 15;
+    
+    // Direcciones IP especiales/reservadas: prefijo y máscara
+    private static final int[][] IPS_RESERVADAS = {
+        {0x00000000, 0xFF000000},   // 0.
+        {0x7F000000, 0xFF000000},   // 127.
+        {0xA9FE0000, 0xFFFF0000},   // 169.254.
+        {0xE0000000, 0xFF000000},   // 224.
+        {0xF0000000, 0xFF000000}    // 240.
     };
     
     /**
@@ -29,57 +29,69 @@ public class ValidadorIP {
             return false;
         }
         
-        String ipLimpia = ip.trim();
+        return parsearIPv4(ip.trim()) != IP_INVALIDA;
+    }
+    
+    /**
+     * Analiza una IPv4 en una sola pasada y sin crear objetos.
+     * Cada octeto admite de 1 a 3 dígitos con valor hasta 255.
+     * Devuelve el valor sin signo o IP_INVALIDA.
+     */
+    public static long parsearIPv4(CharSequence texto) {
+        return texto == null ? IP_INVALIDA : parsearIPv4(texto, 0, texto.length());
+    }
+    
+    /**
+     * Igual que parsearIPv4(CharSequence) sobre texto[desde, hasta)
+     */
+    public static long parsearIPv4(CharSequence texto, int desde, int hasta) {
+        long resultado = 0;
+        int octetos = 0;
+        int valor = 0;
+        int digitos = 0;
         
-        // Validación básica con regex
-        if (!PATRON_IPV4.matcher(ipLimpia).matches()) {
-            return false;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                valor = valor * 10 + (c - '0');
+                if (++digitos > 3 || valor > 255) {
+                    return IP_INVALIDA;
+                }
+            } else if (c == '.') {
+                if (digitos == 0 || octetos == 3) {
+                    return IP_INVALIDA;
+                }
+                resultado = (resultado << 8) | valor;
+                octetos++;
+                valor = 0;
+                digitos = 0;
+            } else {
+                return IP_INVALIDA;
+            }
         }
         
-        // Validación adicional de cada octeto
-        return validarOctetos(ipLimpia);
+        if (digitos == 0 || octetos != 3) {
+            return IP_INVALIDA;
+        }
+        return (resultado << 8) | valor;
     }
     
     /**
-     * Valida los octetos individuales de una IP
+     * Convierte una IP en texto a int (sin signo)
      */
-    private static boolean validarOctetos(String ip) {
-        try {
-            StringTokenizer tokenizer = new StringTokenizer(ip, ".");
-            int contador = 0;
-            
-            while (tokenizer.hasMoreTokens()) {
-                int octeto = Integer.parseInt(tokenizer.nextToken());
-                if (octeto < 0 || octeto > 255) {
-                    return false;
-                }
-                contador++;
-            }
-            
-            return contador == 4; // Debe tener exactamente 4 octetos
-            
-        } catch (NumberFormatException e) {
-            return false;
+    public static int ipToInt(String ip) {
+        long valor = ip == null ? IP_INVALIDA : parsearIPv4(ip.trim());
+        if (valor == IP_INVALIDA) {
+            throw new IllegalArgumentException("Dirección IP inválida: " + ip);
         }
+        return (int) valor;
     }
     
     /**
      * Convierte una dirección IP en formato string a long
      */
     public static long ipToLong(String ip) {
-        if (!esIPValida(ip)) {
-            throw new IllegalArgumentException("Dirección IP inválida: " + ip);
-        }
-        
-        long resultado = 0;
-        String[] octetos = ip.split("\\.");
-        
-        for (int i = 0; i < 4; i++) {
-            resultado <<= 8;
-            resultado |= Integer.parseInt(octetos[i]) & 0xFF;
-        }
-        
-        return resultado & 0xFFFFFFFFL;
+        return ipToInt(ip) & 0xFFFFFFFFL;
     }
     
     /**
@@ -90,10 +102,57 @@ public class ValidadorIP {
             throw new IllegalArgumentException("Valor long fuera de rango para IP: " + ip);
         }
         
-        return ((ip >> 24) & 0xFF) + "." +
-               ((ip >> 16) & 0xFF) + "." +
-               ((ip >> 8) & 0xFF) + "." +
-               (ip & 0xFF);
+        return intToIp((int) ip);
+    }
+    
+    /**
+     * Convierte un int (sin signo) a IP en texto
+     */
+    public static String intToIp(int ip) {
+        char[] buffer = new char[LONGITUD_MAXIMA_IPV4];
+        return new String(buffer, 0, formatearIPv4(ip, buffer, 0));
+    }
+    
+    /**
+     * Escribe la IP en destino a partir de desde, sin crear objetos.
+     * Devuelve la posición siguiente al último carácter escrito.
+     */
+    public static int formatearIPv4(int ip, char[] destino, int desde) {
+        int pos = desde;
+        for (int desplazamiento = 24; desplazamiento >= 0; desplazamiento -= 8) {
+            int octeto = (ip >>> desplazamiento) & 0xFF;
+            if (octeto >= 100) {
+                destino[pos++] = (char) ('0' + octeto / 100);
+                destino[pos++] = (char) ('0' + (octeto / 10) % 10);
+            } else if (octeto >= 10) {
+                destino[pos++] = (char) ('0' + octeto / 10);
+            }
+            destino[pos++] = (char) ('0' + octeto % 10);
+            if (desplazamiento > 0) {
+                destino[pos++] = '.';
+            }
+        }
+        return pos;
+    }
+    
+    /**
+     * Anexa la IP a un StringBuilder reutilizable
+     */
+    public static StringBuilder anexarIPv4(StringBuilder destino, int ip) {
+        for (int desplazamiento = 24; desplazamiento >= 0; desplazamiento -= 8) {
+            destino.append((ip >>> desplazamiento) & 0xFF);
+            if (desplazamiento > 0) {
+                destino.append('.');
+            }
+        }
+        return destino;
+    }
+    
+    /**
+     * Compara dos IPs como enteros sin signo
+     */
+    public static int compararIPs(int a, int b) {
+        return Integer.compareUnsigned(a, b);
     }
     
     /**
@@ -120,8 +179,15 @@ public class ValidadorIP {
             return false;
         }
         
-        for (String reservada : IPS_RESERVADAS) {
-            if (ip.startsWith(reservada)) {
+        return esIPReservada(ipToInt(ip));
+    }
+    
+    /**
+     * Variante int de esIPReservada
+     */
+    public static boolean esIPReservada(int ip) {
+        for (int[] reservada : IPS_RESERVADAS) {
+            if ((ip & reservada[1]) == reservada[0]) {
                 return true;
             }
         }
@@ -129,6 +195,13 @@ public class ValidadorIP {
         return false;
     }
     
+    /**
+     * Pares prefijo/máscara de las direcciones reservadas, para ConjuntoObjetivos
+     */
+    static int[][] bloquesReservados() {
+        return IPS_RESERVADAS;
+    }
+    
     /**
      * Obtiene la dirección de red basada en una IP y máscara
      */
@@ -177,7 +250,7 @@ public class ValidadorIP {
     /**
      * Calcula la cantidad de IPs en un rango
      */
-    public static int calcularTotalIPsEnRango(String inicio, String fin) {
+    public static long calcularTotalIPsEnRango(String inicio, String fin) {
         if (!esRangoValido(inicio, fin)) {
             return 0;
         }
@@ -185,7 +258,7 @@ public class ValidadorIP {
         long inicioLong = ipToLong(inicio);
         long finLong = ipToLong(fin);
         
-        return (int) (finLong - inicioLong + 1);
+        return finLong - inicioLong + 1;
     }
     
     /**
@@ -241,7 +314,7 @@ public class ValidadorIP {
             return 'X'; // Inválida
         }
         
-        int primerOcteto = Integer.parseInt(ip.split("\\.")[0]);
+        int primerOcteto = ipToInt(ip) >>> 24;
         
         if (primerOcteto >= 1 && primerOcteto <= 126) return 'A';
         if (primerOcteto >= 128 && primerOcteto <= 191) return 'B';
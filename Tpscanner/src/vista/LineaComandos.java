@@ -0,0 +1,920 @@
+package vista;
+
+import controlador.CacheNombres;
+import controlador.ConfiguracionEscaneo;
+import controlador.EscanerPuertos;
+import controlador.EscanerRed;
+import controlador.ExportadorResultados;
+import controlador.GestorNetStat;
+import controlador.PuntoControl;
+import controlador.SondaEcoTcp;
+import controlador.SondaHost;
+import controlador.SondaIcmp;
+import controlador.SondaTcpNio;
+import modelo.ConexionRed;
+import modelo.Dispositivo;
+import modelo.InstantaneaConexiones;
+import modelo.PuertosHost;
+import modelo.ResultadoPuerto;
+import util.ConjuntoObjetivos;
+import util.ListaPuertos;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo sin interfaz gráfica para cron, contenedores o sesiones SSH.
+ * Ejecuta escaneos de hosts, de puertos y netstat desde los argumentos o desde
+ * un archivo de trabajos, escribe resultados CSV o NDJSON en stdout o en un
+ * archivo y termina con un código de salida. No carga AWT ni Swing.
+ */
+class LineaComandos {
+    static final int SALIDA_OK = 0;
+    static final int SALIDA_SIN_RESULTADOS = 1;
+    static final int SALIDA_USO = 2;
+    static final int SALIDA_ERROR = 3;
+    static final int SALIDA_INTERRUMPIDO = 130;
+
+    private static final int MAX_HOSTS_SIN_DESCUBRIMIENTO = 65_536;
+    private static final long INTERVALO_PROGRESO_MS = 1000;
+    private static final long PLAZO_NOMBRES_MS = 5000;
+    private static final long ESPERA_CIERRE_MS = 5000;
+
+    private static final Set<String> INTERRUPTORES = Set.of(
+        "--sin-dns", "--progreso", "--timeout-adaptativo", "--todos", "--sin-descubrimiento");
+    private static final Set<String> CON_VALOR = Set.of(
+        "--timeout", "--sonda", "--concurrencia", "--tasa", "--rafaga", "--salida", "--formato",
+        "--punto-control", "--reanudar", "--puertos", "--max-conexiones", "--max-por-host",
+        "--intervalo", "--duracion", "--cache-dns-persistente", "--cache-dns-capacidad", "--cache-dns-ttl",
+        "--cache-dns-ttl-negativo");
+
+    private static final String AYUDA = """
+        Uso: java -cp bin vista.Main <comando> [opciones]
+        Sin argumentos se abre la interfaz gráfica.
+
+        Comandos:
+          escanear [objetivos]        Descubre hosts activos (p. ej. "10.0.0.0/24, !10.0.0.5");
+                                      sin objetivos repite la última red escaneada
+          puertos <objetivos>         Descubre hosts y escanea sus puertos TCP
+          netstat conexiones|escucha|estadisticas
+          netstat monitorear          Tabla actual y luego solo altas, bajas y cambios de estado
+          lote <archivo>              Ejecuta un comando por línea (# para comentarios)
+          configurar                  Muestra o cambia la configuración guardada (caché DNS)
+          ayuda
+
+        Opciones de escaneo:
+          --timeout <ms>              Tiempo de espera por sonda (1000)
+          --sonda icmp|eco|tcp        Sonda de vida (icmp; eco con --concurrencia)
+          --concurrencia <n>          Sondas simultáneas en hilos virtuales (sin icmp)
+          --tasa <pps> --rafaga <n>   Límite de sondas por segundo
+          --timeout-adaptativo        Ajusta el timeout al RTT medido
+          --sin-dns                   No resuelve nombres de host
+          --punto-control <archivo>   Guarda el avance para poder reanudar
+          --reanudar <archivo>        Continúa un escaneo desde su punto de control
+        Opciones de puertos:
+          --puertos <lista>           P. ej. 22,80,443 o 1-1024 (1-1024)
+          --max-conexiones <n>        Conexiones en vuelo en total
+          --max-por-host <n>          Conexiones en vuelo por host
+          --sin-descubrimiento        Trata todos los objetivos como activos
+          --todos                     Escribe también puertos cerrados y filtrados
+        Opciones de monitoreo:
+          --intervalo <ms>            Cada cuánto se compara la tabla (1000, mínimo 100)
+          --duracion <s>              Termina solo después de ese tiempo (hasta Ctrl+C)
+        Opciones de configurar:
+          --cache-dns-persistente si|no   Guarda la caché de nombres entre ejecuciones
+          --cache-dns-capacidad <n>       Entradas máximas (10000)
+          --cache-dns-ttl <s>             Vigencia de los nombres (3600)
+          --cache-dns-ttl-negativo <s>    Vigencia de las IP sin nombre (300)
+        Salida:
+          --salida <archivo>          Archivo de resultados (stdout si se omite)
+          --formato csv|ndjson        Por defecto según la extensión, o csv
+          --progreso                  Muestra el avance en stderr
+
+        Códigos de salida: 0 con resultados, 1 sin resultados, 2 uso incorrecto,
+        3 error, 130 interrumpido. En un lote, el mayor de todos los trabajos.
+        """;
+
+    private final PrintStream salidaEstandar;
+    private final PrintStream errores;
+    private volatile Runnable cancelacion;
+    private volatile boolean interrumpido;
+    private ConfiguracionEscaneo configuracion;
+    private boolean cacheDnsAplicada;
+
+    /**
+     * Opciones de un comando: argumentos posicionales y opciones --nombre [valor]
+     */
+    private static final class Opciones {
+        final List<String> posicionales = new ArrayList<>();
+        final Map<String, String> valores = new HashMap<>();
+
+        static Opciones parsear(List<String> argumentos) {
+            Opciones opciones = new Opciones();
+            for (int i = 0; i < argumentos.size(); i++) {
+                String argumento = argumentos.get(i);
+                if (INTERRUPTORES.contains(argumento)) {
+                    opciones.valores.put(argumento, "");
+                } else if (CON_VALOR.contains(argumento)) {
+                    if (i + 1 >= argumentos.size()) {
+                        throw new IllegalArgumentException("Falta el valor de " + argumento);
+                    }
+                    opciones.valores.put(argumento, argumentos.get(++i));
+                } else if (argumento.startsWith("--")) {
+                    throw new IllegalArgumentException("Opción desconocida: " + argumento);
+                } else {
+                    opciones.posicionales.add(argumento);
+                }
+            }
+            return opciones;
+        }
+
+        boolean tiene(String opcion) {
+            return valores.containsKey(opcion);
+        }
+
+        String texto(String opcion, String porDefecto) {
+            return valores.getOrDefault(opcion, porDefecto);
+        }
+
+        int entero(String opcion, int porDefecto, int minimo) {
+            String valor = valores.get(opcion);
+            if (valor == null) {
+                return porDefecto;
+            }
+            try {
+                int numero = Integer.parseInt(valor.trim());
+                if (numero < minimo) {
+                    throw new IllegalArgumentException(opcion + " debe ser al menos " + minimo);
+                }
+                return numero;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + opcion + ": " + valor);
+            }
+        }
+
+        String posicional(int indice, String descripcion) {
+            if (indice >= posicionales.size()) {
+                throw new IllegalArgumentException("Falta " + descripcion);
+            }
+            return posicionales.get(indice);
+        }
+    }
+
+    LineaComandos(PrintStream salidaEstandar, PrintStream errores) {
+        this.salidaEstandar = salidaEstandar;
+        this.errores = errores;
+    }
+
+    /**
+     * Punto de entrada del modo sin interfaz; devuelve el código de salida.
+     * Ctrl+C cancela el trabajo en curso y espera a que vuelque lo obtenido
+     */
+    static int ejecutar(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LineaComandos cli = new LineaComandos(System.out, System.err);
+        CountDownLatch fin = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (fin.getCount() == 0) {
+                return;
+            }
+            cli.interrumpir();
+            try {
+                fin.await(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Cierre-Linea-Comandos"));
+
+        try {
+            return cli.ejecutarComando(Arrays.asList(args), true);
+        } finally {
+            System.out.flush();
+            fin.countDown();
+        }
+    }
+
+    void interrumpir() {
+        interrumpido = true;
+        Runnable accion = cancelacion;
+        if (accion != null) {
+            accion.run();
+        }
+    }
+
+    int ejecutarComando(List<String> argumentos, boolean permitirLote) {
+        if (argumentos.isEmpty()) {
+            errores.print(AYUDA);
+            return SALIDA_USO;
+        }
+        String comando = argumentos.get(0);
+        try {
+            Opciones opciones = Opciones.parsear(argumentos.subList(1, argumentos.size()));
+            return switch (comando) {
+                case "escanear" -> escanear(opciones);
+                case "puertos" -> escanearPuertos(opciones);
+                case "netstat" -> netstat(opciones);
+                case "configurar" -> configurar(opciones);
+                case "lote" -> {
+                    if (!permitirLote) {
+                        throw new IllegalArgumentException("Un lote no puede contener otro lote");
+                    }
+                    yield lote(Path.of(opciones.posicional(0, "el archivo de trabajos")));
+                }
+                case "ayuda", "-h", "--help" -> {
+                    salidaEstandar.print(AYUDA);
+                    yield SALIDA_OK;
+                }
+                default -> throw new IllegalArgumentException("Comando desconocido: " + comando);
+            };
+        } catch (IllegalArgumentException e) {
+            errores.println("Error: " + e.getMessage());
+            errores.println("Use 'ayuda' para ver los comandos disponibles");
+            return SALIDA_USO;
+        } catch (IOException e) {
+            errores.println("Error: " + e.getMessage());
+            return SALIDA_ERROR;
+        }
+    }
+
+    private int escanear(Opciones opciones) throws IOException {
+        PuntoControl reanudado = opciones.tiene("--reanudar")
+            ? PuntoControl.cargar(Path.of(opciones.texto("--reanudar", ""))) : null;
+        ConjuntoObjetivos objetivos = null;
+        if (reanudado == null) {
+            String especificacion = opciones.posicionales.isEmpty()
+                ? configuracion().cargarUltimaRed() : opciones.posicional(0, "");
+            if (especificacion.isEmpty()) {
+                throw new IllegalArgumentException("Falta la especificación de objetivos");
+            }
+            objetivos = ConjuntoObjetivos.parsear(especificacion);
+            if (!objetivos.estaVacio()) {
+                configuracion().guardarUltimaRed(objetivos.toString());
+            }
+        }
+        ExportadorResultados.Formato formato = formato(opciones);
+        boolean conDns = !opciones.tiene("--sin-dns");
+        String salida = opciones.texto("--salida", null);
+        // Antes de abrir la salida, para no dejar una cabecera sin filas
+        nombreSonda(opciones);
+
+        try (ExportadorResultados exportador = salida == null
+                ? ExportadorResultados.paraSalida(salidaEstandar, formato, conDns)
+                : new ExportadorResultados(Path.of(salida), formato, salida.toLowerCase().endsWith(".gz"), conDns)) {
+            if (reanudado != null) {
+                // Los hosts del tramo ya escaneado también forman parte del resultado; no tienen nombre
+                for (Dispositivo dispositivo : reanudado.getResultados()) {
+                    if (conDns) {
+                        exportador.onNombreHostResuelto(dispositivo);
+                    } else {
+                        exportador.onHostDescubierto(dispositivo);
+                    }
+                }
+            }
+            ResultadoEscaneo resultado = descubrir(opciones, objetivos, reanudado, exportador);
+            if (resultado.cancelado) {
+                return SALIDA_INTERRUMPIDO;
+            }
+            long activos = resultado.activos.size() + (reanudado != null ? reanudado.getResultados().size() : 0);
+            return activos > 0 ? SALIDA_OK : SALIDA_SIN_RESULTADOS;
+        }
+    }
+
+    private static final class ResultadoEscaneo {
+        final List<Dispositivo> activos = new ArrayList<>();
+        volatile boolean cancelado;
+    }
+
+    /**
+     * Ejecuta EscanerRed en este hilo; los hosts se entregan también al exportador si hay
+     */
+    private ResultadoEscaneo descubrir(Opciones opciones, ConjuntoObjetivos objetivos, PuntoControl reanudado,
+                                       ExportadorResultados exportador) throws IOException {
+        int timeout = opciones.entero("--timeout", 1000, 1);
+        boolean virtuales = opciones.tiene("--concurrencia");
+        int maxHilos = virtuales
+            ? Math.min(EscanerRed.MAX_HILOS_VIRTUALES, opciones.entero("--concurrencia", 0, 1))
+            : EscanerRed.MAX_HILOS;
+        int tasa = opciones.entero("--tasa", 0, 0);
+        int rafaga = opciones.entero("--rafaga", 10, 1);
+        boolean progreso = opciones.tiene("--progreso");
+
+        ResultadoEscaneo resultado = new ResultadoEscaneo();
+        try (SondaHost sonda = crearSonda(nombreSonda(opciones))) {
+            EscanerRed escaner = reanudado != null
+                ? EscanerRed.reanudar(reanudado, timeout, maxHilos, virtuales, sonda)
+                : new EscanerRed(objetivos, timeout, maxHilos, virtuales, sonda);
+            if (reanudado == null && opciones.tiene("--punto-control")) {
+                escaner.setPuntoControl(Path.of(opciones.texto("--punto-control", "")));
+            }
+            if (opciones.tiene("--sin-dns")) {
+                escaner.setResolvedorNombres(null);
+            } else if (!cacheDnsAplicada) {
+                // Una vez por proceso, también en un lote
+                configuracion().aplicarCacheDns(CacheNombres.compartida());
+                cacheDnsAplicada = true;
+            }
+            escaner.setTimeoutAdaptativo(opciones.tiene("--timeout-adaptativo"));
+            escaner.setLimiteTasa(tasa, rafaga);
+            if (exportador != null) {
+                escaner.agregarListener(exportador);
+            }
+            escaner.agregarListener(new EscanerRed.EscanerRedListener() {
+                private long ultimoProgresoMs;
+
+                @Override
+                public void onEscaneoIniciado(long totalIps) {
+                    if (progreso) {
+                        errores.printf("Escaneando %d direcciones IP%n", totalIps);
+                    }
+                }
+
+                @Override
+                public void onHostDescubierto(Dispositivo dispositivo) {
+                    resultado.activos.add(dispositivo);
+                }
+
+                @Override
+                public void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+                    resultado.activos.addAll(dispositivos);
+                }
+
+                @Override
+                public void onProgreso(long completados, long total, double porcentaje) {
+                    long ahora = System.currentTimeMillis();
+                    if (progreso && ahora - ultimoProgresoMs >= INTERVALO_PROGRESO_MS) {
+                        ultimoProgresoMs = ahora;
+                        errores.printf("Progreso: %d/%d (%.1f%%) - Activos: %d%n",
+                            completados, total, porcentaje, resultado.activos.size());
+                    }
+                }
+
+                @Override
+                public void onErrorEscaneo(String ip, String error) {
+                    errores.println("Error escaneando " + ip + ": " + error);
+                }
+
+                @Override
+                public void onEscaneoCompletado(int totalActivos, long duracionMs) {
+                    if (progreso) {
+                        errores.printf("Completado: %d activos en %.2f s%n", totalActivos, duracionMs / 1000.0);
+                    }
+                }
+
+                @Override
+                public void onEscaneoCancelado() {
+                    resultado.cancelado = true;
+                }
+            });
+
+            cancelacion = escaner::cancelarEscaneo;
+            try {
+                if (!interrumpido) {
+                    escaner.escanear();
+                }
+            } finally {
+                cancelacion = null;
+                // cancelarEscaneo deja la marca de interrupción en este hilo
+                Thread.interrupted();
+            }
+            resultado.cancelado |= interrumpido;
+            // El escaneo no espera al DNS; el exportador recibe un plazo para los nombres que faltan
+            if (exportador != null && !resultado.cancelado && !escaner.esperarNombres(PLAZO_NOMBRES_MS)) {
+                errores.printf("Se agotó el plazo del DNS inverso: %d hosts sin nombre%n",
+                    escaner.getNombresPendientes());
+            }
+            if (cacheDnsAplicada) {
+                configuracion().persistirCacheDns(CacheNombres.compartida());
+            }
+        }
+        return resultado;
+    }
+
+    private int escanearPuertos(Opciones opciones) throws IOException {
+        ConjuntoObjetivos objetivos = ConjuntoObjetivos.parsear(opciones.posicional(0, "la especificación de objetivos"));
+        int[] puertos = ListaPuertos.parsear(opciones.texto("--puertos", "1-1024"));
+        ExportadorResultados.Formato formato = formato(opciones);
+        boolean todos = opciones.tiene("--todos");
+        boolean progreso = opciones.tiene("--progreso");
+
+        List<Dispositivo> hosts;
+        if (opciones.tiene("--sin-descubrimiento")) {
+            if (objetivos.tamanio() > MAX_HOSTS_SIN_DESCUBRIMIENTO) {
+                throw new IllegalArgumentException("Sin descubrimiento se admiten como mucho "
+                    + MAX_HOSTS_SIN_DESCUBRIMIENTO + " direcciones");
+            }
+            hosts = new ArrayList<>((int) objetivos.tamanio());
+            PrimitiveIterator.OfInt direcciones = objetivos.direcciones();
+            while (direcciones.hasNext()) {
+                hosts.add(new Dispositivo(direcciones.nextInt(), "", true, 0));
+            }
+        } else {
+            ResultadoEscaneo descubiertos = descubrir(opciones, objetivos, null, null);
+            if (descubiertos.cancelado) {
+                return SALIDA_INTERRUMPIDO;
+            }
+            hosts = descubiertos.activos;
+        }
+        if (hosts.isEmpty()) {
+            return SALIDA_SIN_RESULTADOS;
+        }
+
+        EscanerPuertos escaner = new EscanerPuertos(hosts, puertos, opciones.entero("--timeout", 1000, 1),
+            opciones.entero("--max-conexiones", EscanerPuertos.MAX_CONEXIONES_POR_DEFECTO, 1),
+            opciones.entero("--max-por-host", EscanerPuertos.MAX_POR_HOST_POR_DEFECTO, 1));
+        int[] abiertos = new int[1];
+        boolean[] cancelado = new boolean[1];
+        IOException[] falloEscritura = new IOException[1];
+
+        try (SalidaTexto salida = SalidaTexto.abrir(opciones.texto("--salida", null), salidaEstandar)) {
+            if (formato == ExportadorResultados.Formato.CSV) {
+                salida.linea("ip,puerto,estado,tiempo_respuesta_ms");
+            }
+            escaner.agregarListener(new EscanerPuertos.EscanerPuertosListener() {
+                private long ultimoProgresoMs;
+
+                @Override
+                public void onResultados(List<ResultadoPuerto> resultados) {
+                    try {
+                        for (ResultadoPuerto r : resultados) {
+                            if (!todos && r.getEstado() != ResultadoPuerto.Estado.ABIERTO) {
+                                continue;
+                            }
+                            salida.linea(formato == ExportadorResultados.Formato.CSV
+                                ? r.getDireccionIP() + ',' + r.getPuerto() + ',' + r.getEstado() + ',' + r.getTiempoRespuesta()
+                                : "{\"ip\":\"" + r.getDireccionIP() + "\",\"puerto\":" + r.getPuerto()
+                                    + ",\"estado\":\"" + r.getEstado() + "\",\"tiempoRespuestaMs\":"
+                                    + r.getTiempoRespuesta() + "}");
+                        }
+                        salida.volcar();
+                    } catch (IOException e) {
+                        falloEscritura[0] = e;
+                        escaner.cancelarEscaneo();
+                    }
+                }
+
+                @Override
+                public void onHostCompletado(PuertosHost puertosHost) {
+                    abiertos[0] += puertosHost.getCantidadAbiertos();
+                }
+
+                @Override
+                public void onProgreso(long completadas, long total, double porcentaje) {
+                    long ahora = System.currentTimeMillis();
+                    if (progreso && ahora - ultimoProgresoMs >= INTERVALO_PROGRESO_MS) {
+                        ultimoProgresoMs = ahora;
+                        errores.printf("Puertos: %d/%d (%.1f%%) - Abiertos: %d%n",
+                            completadas, total, porcentaje, abiertos[0]);
+                    }
+                }
+
+                @Override
+                public void onErrorEscaneo(String ip, String error) {
+                    errores.println(error);
+                }
+
+                @Override
+                public void onEscaneoCompletado(int puertosAbiertos, long duracionMs) {
+                    if (progreso) {
+                        errores.printf("Completado: %d puertos abiertos en %.2f s%n",
+                            puertosAbiertos, duracionMs / 1000.0);
+                    }
+                }
+
+                @Override
+                public void onEscaneoCancelado() {
+                    cancelado[0] = true;
+                }
+            });
+
+            cancelacion = escaner::cancelarEscaneo;
+            try {
+                if (!interrumpido) {
+                    escaner.escanear();
+                }
+            } finally {
+                cancelacion = null;
+                Thread.interrupted();
+            }
+        }
+
+        if (falloEscritura[0] != null) {
+            throw falloEscritura[0];
+        }
+        if (cancelado[0] || interrumpido) {
+            return SALIDA_INTERRUMPIDO;
+        }
+        return abiertos[0] > 0 ? SALIDA_OK : SALIDA_SIN_RESULTADOS;
+    }
+
+    /**
+     * Las mismas preferencias que la interfaz gráfica; se abren al primer uso
+     */
+    private ConfiguracionEscaneo configuracion() {
+        if (configuracion == null) {
+            configuracion = new ConfiguracionEscaneo();
+        }
+        return configuracion;
+    }
+
+    /**
+     * Sin opciones muestra la configuración; con opciones la cambia y luego la muestra
+     */
+    private int configurar(Opciones opciones) {
+        ConfiguracionEscaneo config = configuracion();
+        if (opciones.tiene("--cache-dns-persistente")) {
+            String valor = opciones.texto("--cache-dns-persistente", "").trim().toLowerCase();
+            if (!valor.equals("si") && !valor.equals("no")) {
+                throw new IllegalArgumentException("--cache-dns-persistente debe ser si o no");
+            }
+            config.guardarCacheDnsPersistente(valor.equals("si"));
+        }
+        if (opciones.tiene("--cache-dns-capacidad")) {
+            config.guardarCapacidadCacheDns(opciones.entero("--cache-dns-capacidad", 0, 1));
+        }
+        if (opciones.tiene("--cache-dns-ttl")) {
+            config.guardarTtlCacheDns(opciones.entero("--cache-dns-ttl", 0, 0));
+        }
+        if (opciones.tiene("--cache-dns-ttl-negativo")) {
+            config.guardarTtlNegativoCacheDns(opciones.entero("--cache-dns-ttl-negativo", 0, 0));
+        }
+
+        salidaEstandar.printf("ultima_red=%s%n", config.cargarUltimaRed());
+        salidaEstandar.printf("cache_dns_persistente=%s%n", config.cargarCacheDnsPersistente() ? "si" : "no");
+        salidaEstandar.printf("cache_dns_capacidad=%d%n", config.cargarCapacidadCacheDns());
+        salidaEstandar.printf("cache_dns_ttl=%d%n", config.cargarTtlCacheDns());
+        salidaEstandar.printf("cache_dns_ttl_negativo=%d%n", config.cargarTtlNegativoCacheDns());
+        salidaEstandar.printf("cache_dns_archivo=%s%n", config.obtenerArchivoCacheDns());
+        return SALIDA_OK;
+    }
+
+    private int netstat(Opciones opciones) throws IOException {
+        String funcion = opciones.posicional(0, "la función de netstat (conexiones, escucha, estadisticas o monitorear)");
+        ExportadorResultados.Formato formato = formato(opciones);
+        GestorNetStat gestor = new GestorNetStat();
+        List<String> fallos = new ArrayList<>();
+        gestor.agregarListener(new GestorNetStat.NetStatListener() {
+            @Override
+            public void onNetStatIniciado(String funcion) {
+            }
+
+            @Override
+            public void onConexionEncontrada(ConexionRed conexion) {
+            }
+
+            @Override
+            public void onNetStatCompletado(String funcion, int totalConexiones) {
+            }
+
+            @Override
+            public void onErrorNetStat(String error) {
+                fallos.add(error);
+            }
+        });
+
+        int filas;
+        try (SalidaTexto salida = SalidaTexto.abrir(opciones.texto("--salida", null), salidaEstandar)) {
+            switch (funcion) {
+                case "conexiones", "escucha" -> {
+                    List<ConexionRed> conexiones = funcion.equals("conexiones")
+                        ? gestor.obtenerConexionesActivas() : gestor.obtenerPuertosEscucha();
+                    if (formato == ExportadorResultados.Formato.CSV) {
+                        salida.linea("protocolo,direccion_local,puerto_local,direccion_remota,puerto_remoto,estado,pid,proceso");
+                    }
+                    for (ConexionRed c : conexiones) {
+                        salida.linea(lineaConexion(formato, null, c, null));
+                    }
+                    filas = conexiones.size();
+                }
+                case "monitorear" -> filas = monitorear(gestor, opciones, formato, salida);
+                case "estadisticas" -> {
+                    Map<String, Integer> estadisticas = new TreeMap<>(gestor.obtenerEstadisticasProtocolos());
+                    if (formato == ExportadorResultados.Formato.CSV) {
+                        salida.linea("clave,valor");
+                    }
+                    for (Map.Entry<String, Integer> e : estadisticas.entrySet()) {
+                        salida.linea(formato == ExportadorResultados.Formato.CSV
+                            ? csv(e.getKey()) + ',' + e.getValue()
+                            : "{\"clave\":\"" + json(e.getKey()) + "\",\"valor\":" + e.getValue() + "}");
+                    }
+                    filas = estadisticas.size();
+                }
+                default -> throw new IllegalArgumentException("Función de netstat desconocida: " + funcion);
+            }
+        }
+
+        if (!fallos.isEmpty()) {
+            fallos.forEach(fallo -> errores.println("Error: " + fallo));
+            return SALIDA_ERROR;
+        }
+        return filas > 0 ? SALIDA_OK : SALIDA_SIN_RESULTADOS;
+    }
+
+    /**
+     * Escribe la tabla actual (evento ACTUAL) y después una línea por cada conexión
+     * ABIERTA, CERRADA o con CAMBIO de estado, hasta Ctrl+C, --duracion o un error.
+     * Ctrl+C es la forma normal de terminar, así que no cuenta como interrupción
+     * @return cantidad de líneas escritas
+     */
+    private int monitorear(GestorNetStat gestor, Opciones opciones, ExportadorResultados.Formato formato,
+                           SalidaTexto salida) throws IOException {
+        int intervalo = opciones.entero("--intervalo", 1000, 100);
+        int duracion = opciones.entero("--duracion", 0, 0);
+        CountDownLatch fin = new CountDownLatch(1);
+        int[] lineas = {0};
+        IOException[] falloEscritura = {null};
+
+        gestor.agregarListener(new GestorNetStat.NetStatListener() {
+            @Override
+            public void onNetStatIniciado(String funcion) {
+            }
+
+            @Override
+            public void onConexionEncontrada(ConexionRed conexion) {
+            }
+
+            @Override
+            public void onNetStatCompletado(String funcion, int totalConexiones) {
+            }
+
+            @Override
+            public void onErrorNetStat(String error) {
+                fin.countDown();
+            }
+
+            @Override
+            public void onConexionAbierta(ConexionRed conexion) {
+                escribir("ABIERTA", conexion, null);
+            }
+
+            @Override
+            public void onConexionCerrada(ConexionRed conexion) {
+                escribir("CERRADA", conexion, null);
+            }
+
+            @Override
+            public void onEstadoCambiado(ConexionRed anterior, ConexionRed actual) {
+                escribir("CAMBIO", actual, anterior.getEstado());
+            }
+
+            private void escribir(String evento, ConexionRed conexion, ConexionRed.EstadoConexion anterior) {
+                synchronized (salida) {
+                    try {
+                        salida.linea(lineaConexion(formato, evento, conexion, anterior));
+                        salida.volcar();
+                        lineas[0]++;
+                    } catch (IOException e) {
+                        falloEscritura[0] = e;
+                        fin.countDown();
+                    }
+                }
+            }
+        });
+
+        cancelacion = fin::countDown;
+        try {
+            if (formato == ExportadorResultados.Formato.CSV) {
+                salida.linea("evento,protocolo,direccion_local,puerto_local,direccion_remota,puerto_remoto,"
+                    + "estado,pid,proceso,estado_anterior");
+            }
+            InstantaneaConexiones inicial = gestor.iniciarMonitoreo(intervalo);
+            synchronized (salida) {
+                for (ConexionRed c : inicial.getConexiones()) {
+                    salida.linea(lineaConexion(formato, "ACTUAL", c, null));
+                    lineas[0]++;
+                }
+                salida.volcar();
+            }
+            if (!interrumpido) {
+                if (duracion > 0) {
+                    fin.await(duracion, TimeUnit.SECONDS);
+                } else {
+                    fin.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            gestor.detenerMonitoreo();
+            cancelacion = null;
+        }
+        if (falloEscritura[0] != null) {
+            throw falloEscritura[0];
+        }
+        synchronized (salida) {
+            return lineas[0];
+        }
+    }
+
+    /**
+     * Una conexión en CSV o NDJSON; con evento, agrega las columnas del monitoreo
+     */
+    private static String lineaConexion(ExportadorResultados.Formato formato, String evento, ConexionRed c,
+                                        ConexionRed.EstadoConexion anterior) {
+        if (formato == ExportadorResultados.Formato.CSV) {
+            String campos = c.getProtocolo() + "," + c.getDireccionLocal() + ',' + c.getPuertoLocal() + ','
+                + c.getDireccionRemota() + ',' + c.getPuertoRemoto() + ',' + c.getEstado() + ','
+                + c.getPid() + ',' + csv(c.getNombreProceso());
+            return evento == null ? campos : evento + ',' + campos + ',' + (anterior != null ? anterior : "");
+        }
+        String campos = "\"protocolo\":\"" + c.getProtocolo() + "\",\"direccionLocal\":\""
+            + json(c.getDireccionLocal()) + "\",\"puertoLocal\":" + c.getPuertoLocal()
+            + ",\"direccionRemota\":\"" + json(c.getDireccionRemota())
+            + "\",\"puertoRemoto\":" + c.getPuertoRemoto() + ",\"estado\":\"" + c.getEstado()
+            + "\",\"pid\":" + c.getPid() + ",\"proceso\":\"" + json(c.getNombreProceso()) + '"';
+        if (evento == null) {
+            return '{' + campos + '}';
+        }
+        return "{\"evento\":\"" + evento + "\"," + campos
+            + (anterior != null ? ",\"estadoAnterior\":\"" + anterior + '"' : "") + '}';
+    }
+
+    /**
+     * Ejecuta los trabajos del archivo en orden; se detiene si se interrumpe
+     */
+    private int lote(Path archivo) throws IOException {
+        int peor = SALIDA_OK;
+        int numero = 0;
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null && !interrumpido) {
+                numero++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                List<String> argumentos;
+                try {
+                    argumentos = separarArgumentos(linea);
+                } catch (IllegalArgumentException e) {
+                    errores.println(archivo.getFileName() + ":" + numero + ": " + e.getMessage());
+                    peor = Math.max(peor, SALIDA_USO);
+                    continue;
+                }
+                int codigo = ejecutarComando(argumentos, false);
+                if (codigo != SALIDA_OK) {
+                    errores.println(archivo.getFileName() + ":" + numero + ": código de salida " + codigo);
+                }
+                peor = Math.max(peor, codigo);
+            }
+        }
+        return interrumpido ? SALIDA_INTERRUMPIDO : peor;
+    }
+
+    /**
+     * Separa por espacios respetando comillas dobles, para objetivos como "10.0.0.0/24, !10.0.0.1"
+     */
+    static List<String> separarArgumentos(String linea) {
+        List<String> argumentos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        boolean hayArgumento = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                entreComillas = !entreComillas;
+                hayArgumento = true;
+            } else if (Character.isWhitespace(c) && !entreComillas) {
+                if (hayArgumento) {
+                    argumentos.add(actual.toString());
+                    actual.setLength(0);
+                    hayArgumento = false;
+                }
+            } else {
+                actual.append(c);
+                hayArgumento = true;
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        if (hayArgumento) {
+            argumentos.add(actual.toString());
+        }
+        return argumentos;
+    }
+
+    /**
+     * La sonda pedida, o la de por defecto: icmp con el pool y eco con
+     * --concurrencia, donde icmp no se admite porque retiene el hilo portador
+     */
+    private static String nombreSonda(Opciones opciones) {
+        boolean virtuales = opciones.tiene("--concurrencia");
+        String nombre = opciones.texto("--sonda", virtuales ? "eco" : "icmp");
+        if (virtuales && nombre.equals("icmp")) {
+            throw new IllegalArgumentException("--sonda icmp no se admite con --concurrencia; use eco o tcp");
+        }
+        return nombre;
+    }
+
+    private static SondaHost crearSonda(String nombre) throws IOException {
+        return switch (nombre) {
+            case "icmp" -> new SondaIcmp();
+            case "eco" -> new SondaEcoTcp();
+            case "tcp" -> new SondaTcpNio();
+            default -> throw new IllegalArgumentException("Sonda desconocida: " + nombre);
+        };
+    }
+
+    private static ExportadorResultados.Formato formato(Opciones opciones) {
+        String formato = opciones.texto("--formato", null);
+        if (formato == null) {
+            String salida = opciones.texto("--salida", null);
+            return salida == null ? ExportadorResultados.Formato.CSV : ExportadorResultados.Formato.desdeNombre(salida);
+        }
+        return switch (formato.toLowerCase()) {
+            case "csv" -> ExportadorResultados.Formato.CSV;
+            case "ndjson", "jsonl" -> ExportadorResultados.Formato.NDJSON;
+            default -> throw new IllegalArgumentException("Formato desconocido: " + formato);
+        };
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        StringBuilder texto = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> texto.append("\\\"");
+                case '\\' -> texto.append("\\\\");
+                case '\n' -> texto.append("\\n");
+                case '\r' -> texto.append("\\r");
+                case '\t' -> texto.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        texto.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        texto.append(c);
+                    }
+                }
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Salida de texto línea a línea a un archivo o a stdout; stdout no se cierra
+     */
+    private static final class SalidaTexto implements AutoCloseable {
+        private final Writer writer;
+        private final boolean propio;
+
+        private SalidaTexto(Writer writer, boolean propio) {
+            this.writer = writer;
+            this.propio = propio;
+        }
+
+        static SalidaTexto abrir(String archivo, OutputStream estandar) throws IOException {
+            return archivo == null
+                ? new SalidaTexto(new BufferedWriter(new OutputStreamWriter(estandar, StandardCharsets.UTF_8)), false)
+                : new SalidaTexto(Files.newBufferedWriter(Path.of(archivo), StandardCharsets.UTF_8), true);
+        }
+
+        void linea(String texto) throws IOException {
+            writer.write(texto);
+            writer.write('\n');
+        }
+
+        void volcar() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (propio) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+    }
+}
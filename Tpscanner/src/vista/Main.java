@@ -5,9 +5,14 @@ import javax.swing.*;
 
 /**
  * Punto de entrada principal - Versión simplificada y robusta
+ * Con argumentos se ejecuta en modo línea de comandos, sin cargar la interfaz
  */
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(LineaComandos.ejecutar(args));
+        }
+        
         System.out.println("🚀 Iniciando Escáner de Red ET 36...");
         
         // Usar invokeLater para garantizar ejecución en EDT
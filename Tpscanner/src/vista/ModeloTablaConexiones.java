@@ -0,0 +1,132 @@
+package vista;
+
+import controlador.GestorNetStat;
+import modelo.ConexionRed;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo de tabla de la ventana NetStat. Además de reemplazar todo el contenido,
+ * aplica los cambios del monitoreo fila por fila: un índice socket -> fila
+ * permite agregar, quitar o actualizar sin recorrer la tabla. El índice incluye
+ * el PID para no fundir en una fila los procesos que comparten puerto con
+ * SO_REUSEPORT.
+ */
+class ModeloTablaConexiones extends AbstractTableModel {
+    private static final String[] COLUMNAS = {
+        "Protocolo", "Dirección Local", "Puerto Local",
+        "Dirección Remota", "Puerto Remoto", "Estado", "PID", "Proceso"
+    };
+
+    private final List<ConexionRed> filas = new ArrayList<>();
+    private final Map<ConexionRed.Clave, Integer> indice = new HashMap<>();
+
+    @Override
+    public int getRowCount() {
+        return filas.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return columna == 2 || columna == 4 ? Integer.class : Object.class;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        ConexionRed conexion = filas.get(fila);
+        return switch (columna) {
+            case 0 -> conexion.getProtocolo();
+            case 1 -> conexion.getDireccionLocal();
+            case 2 -> conexion.getPuertoLocal();
+            case 3 -> conexion.getDireccionRemota();
+            case 4 -> conexion.getPuertoRemoto();
+            case 5 -> conexion.getEstado();
+            case 6 -> conexion.getPid() > 0 ? conexion.getPid() : "N/A";
+            case 7 -> conexion.getNombreProceso();
+            default -> null;
+        };
+    }
+
+    /**
+     * Reemplaza todo el contenido con un único evento
+     */
+    void reemplazar(List<ConexionRed> conexiones) {
+        filas.clear();
+        indice.clear();
+        for (ConexionRed conexion : conexiones) {
+            if (indice.putIfAbsent(conexion.getClave(), filas.size()) == null) {
+                filas.add(conexion);
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Aplica todos los cambios de una vuelta del monitoreo
+     */
+    void aplicar(List<GestorNetStat.CambioConexion> cambios) {
+        for (GestorNetStat.CambioConexion cambio : cambios) {
+            switch (cambio.getTipo()) {
+                case ABIERTA -> agregar(cambio.getActual());
+                case CERRADA -> quitar(cambio.getAnterior());
+                case ESTADO -> actualizar(cambio.getActual());
+            }
+        }
+    }
+
+    void agregar(ConexionRed conexion) {
+        if (indice.containsKey(conexion.getClave())) {
+            actualizar(conexion);
+            return;
+        }
+        indice.put(conexion.getClave(), filas.size());
+        filas.add(conexion);
+        fireTableRowsInserted(filas.size() - 1, filas.size() - 1);
+    }
+
+    /**
+     * Quita la fila moviendo la última a su lugar, para no desplazar el resto
+     */
+    void quitar(ConexionRed conexion) {
+        Integer fila = indice.remove(conexion.getClave());
+        if (fila == null) {
+            return;
+        }
+        int ultima = filas.size() - 1;
+        if (fila != ultima) {
+            ConexionRed movida = filas.get(ultima);
+            filas.set(fila, movida);
+            indice.put(movida.getClave(), fila);
+            fireTableRowsUpdated(fila, fila);
+        }
+        filas.remove(ultima);
+        fireTableRowsDeleted(ultima, ultima);
+    }
+
+    /**
+     * Reemplaza la fila del mismo socket (p. ej. con el estado nuevo)
+     */
+    void actualizar(ConexionRed conexion) {
+        Integer fila = indice.get(conexion.getClave());
+        if (fila == null) {
+            agregar(conexion);
+            return;
+        }
+        filas.set(fila, conexion);
+        fireTableRowsUpdated(fila, fila);
+    }
+}
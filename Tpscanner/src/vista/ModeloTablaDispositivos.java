@@ -0,0 +1,241 @@
+package vista;
+
+import controlador.EscaneoIncremental;
+import modelo.Dispositivo;
+import modelo.PuertosHost;
+import util.ValidadorIP;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modelo de tabla para cientos de miles de resultados de escaneo.
+ * Guarda los datos en arrays por columna (IP como int, RTT y marca de tiempo como long)
+ * y solo da formato a las celdas que se pintan. Los lotes se insertan con un único evento.
+ * En el escaneo incremental la columna Cambio dice qué diferencia muestra cada fila.
+ */
+class ModeloTablaDispositivos extends AbstractTableModel {
+    private static final String[] COLUMNAS = {"IP", "Nombre Host", "Estado", "Tiempo Respuesta (ms)", "Timestamp", "Puertos Abiertos", "Cambio"};
+    private static final DateTimeFormatter FORMATO_HORA =
+        DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final int CAPACIDAD_INICIAL = 256;
+    private static final int VACIO = -1;
+
+    private int[] ips = new int[CAPACIDAD_INICIAL];
+    private String[] nombres = new String[CAPACIDAD_INICIAL];
+    private long[] tiemposRespuesta = new long[CAPACIDAD_INICIAL];
+    private long[] marcasTiempo = new long[CAPACIDAD_INICIAL];
+    private boolean[] enLinea = new boolean[CAPACIDAD_INICIAL];
+    private String[] puertos = new String[CAPACIDAD_INICIAL];
+    private String[] cambios = new String[CAPACIDAD_INICIAL];
+    private int filas;
+
+    // Índice IP -> fila con direccionamiento abierto, sin objetos por entrada
+    private int[] indiceClaves = new int[CAPACIDAD_INICIAL * 2];
+    private int[] indiceFilas = new int[CAPACIDAD_INICIAL * 2];
+
+    ModeloTablaDispositivos() {
+        Arrays.fill(indiceFilas, VACIO);
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return columna == 3 ? Long.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        return switch (columna) {
+            case 0 -> ValidadorIP.intToIp(ips[fila]);
+            case 1 -> nombres[fila];
+            case 2 -> enLinea[fila] ? "ACTIVO" : "INACTIVO";
+            case 3 -> tiemposRespuesta[fila];
+            case 4 -> FORMATO_HORA.format(Instant.ofEpochMilli(marcasTiempo[fila]));
+            case 5 -> puertos[fila] == null ? "" : puertos[fila];
+            case 6 -> cambios[fila] == null ? "" : cambios[fila];
+            default -> null;
+        };
+    }
+
+    /**
+     * Agrega un lote de dispositivos con un único fireTableRowsInserted
+     */
+    void agregar(List<Dispositivo> dispositivos) {
+        if (dispositivos.isEmpty()) {
+            return;
+        }
+
+        asegurarCapacidad(filas + dispositivos.size());
+        long ahora = System.currentTimeMillis();
+        int primera = filas;
+        for (Dispositivo dispositivo : dispositivos) {
+            escribirFila(dispositivo, ahora, null);
+        }
+        fireTableRowsInserted(primera, filas - 1);
+    }
+
+    /**
+     * Agrega un lote de diferencias del escaneo incremental con la etiqueta de
+     * cada una, también con un único fireTableRowsInserted
+     */
+    void agregarCambios(List<EscaneoIncremental.Cambio> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        asegurarCapacidad(filas + lote.size());
+        long ahora = System.currentTimeMillis();
+        int primera = filas;
+        for (EscaneoIncremental.Cambio cambio : lote) {
+            escribirFila(cambio.getDispositivo(), ahora, switch (cambio.getTipo()) {
+                case NUEVO -> "Nuevo";
+                case DESAPARECIDO -> "Desaparecido";
+                case CAMBIO_RTT -> "RTT " + cambio.getRttAnteriorMs() + " → "
+                    + cambio.getDispositivo().getTiempoRespuesta() + " ms";
+            });
+        }
+        fireTableRowsInserted(primera, filas - 1);
+    }
+
+    private void escribirFila(Dispositivo dispositivo, long marcaTiempo, String cambio) {
+        int ip = dispositivo.getIpEntera();
+        ips[filas] = ip;
+        nombres[filas] = dispositivo.getNombreHost();
+        tiemposRespuesta[filas] = dispositivo.getTiempoRespuesta();
+        marcasTiempo[filas] = marcaTiempo;
+        enLinea[filas] = dispositivo.estaEnLinea();
+        puertos[filas] = null;
+        cambios[filas] = cambio;
+        indexar(ip, filas);
+        filas++;
+    }
+
+    /**
+     * Actualiza el nombre de host de la fila de esa IP, si existe
+     */
+    void actualizarNombre(Dispositivo dispositivo) {
+        int fila = buscarFila(dispositivo.getIpEntera());
+        if (fila != VACIO) {
+            nombres[fila] = dispositivo.getNombreHost();
+            fireTableCellUpdated(fila, 1);
+        }
+    }
+
+    /**
+     * Muestra los puertos abiertos de la fila de esa IP, si existe
+     */
+    void actualizarPuertos(PuertosHost puertosHost) {
+        int fila = buscarFila(puertosHost.getIpEntera());
+        if (fila != VACIO) {
+            puertos[fila] = puertosHost.getCantidadAbiertos() == 0 ? "-" : puertosHost.formatearAbiertos();
+            fireTableCellUpdated(fila, 5);
+        }
+    }
+
+    /**
+     * Dispositivos activos de las filas indicadas (índices del modelo)
+     */
+    List<Dispositivo> activos(int[] filasModelo) {
+        List<Dispositivo> resultado = new ArrayList<>(filasModelo.length);
+        for (int fila : filasModelo) {
+            if (enLinea[fila]) {
+                resultado.add(new Dispositivo(ips[fila], nombres[fila], true, tiemposRespuesta[fila]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Todos los dispositivos activos de la tabla
+     */
+    List<Dispositivo> activos() {
+        int[] todas = new int[filas];
+        Arrays.setAll(todas, i -> i);
+        return activos(todas);
+    }
+
+    void limpiar() {
+        ips = new int[CAPACIDAD_INICIAL];
+        nombres = new String[CAPACIDAD_INICIAL];
+        tiemposRespuesta = new long[CAPACIDAD_INICIAL];
+        marcasTiempo = new long[CAPACIDAD_INICIAL];
+        enLinea = new boolean[CAPACIDAD_INICIAL];
+        puertos = new String[CAPACIDAD_INICIAL];
+        cambios = new String[CAPACIDAD_INICIAL];
+        indiceClaves = new int[CAPACIDAD_INICIAL * 2];
+        indiceFilas = new int[CAPACIDAD_INICIAL * 2];
+        Arrays.fill(indiceFilas, VACIO);
+        filas = 0;
+        fireTableDataChanged();
+    }
+
+    private void asegurarCapacidad(int requerida) {
+        if (requerida <= ips.length) {
+            return;
+        }
+        // Potencia de 2 para que la máscara del índice sea válida
+        int nueva = Integer.highestOneBit(Math.max(requerida, ips.length * 2) - 1) << 1;
+        ips = Arrays.copyOf(ips, nueva);
+        nombres = Arrays.copyOf(nombres, nueva);
+        tiemposRespuesta = Arrays.copyOf(tiemposRespuesta, nueva);
+        marcasTiempo = Arrays.copyOf(marcasTiempo, nueva);
+        enLinea = Arrays.copyOf(enLinea, nueva);
+        puertos = Arrays.copyOf(puertos, nueva);
+        cambios = Arrays.copyOf(cambios, nueva);
+
+        // El índice se mantiene al 50% de ocupación como máximo
+        indiceClaves = new int[nueva * 2];
+        indiceFilas = new int[nueva * 2];
+        Arrays.fill(indiceFilas, VACIO);
+        for (int fila = 0; fila < filas; fila++) {
+            indexar(ips[fila], fila);
+        }
+    }
+
+    private void indexar(int ip, int fila) {
+        int mascara = indiceFilas.length - 1;
+        int pos = mezclar(ip) & mascara;
+        while (indiceFilas[pos] != VACIO && indiceClaves[pos] != ip) {
+            pos = (pos + 1) & mascara;
+        }
+        indiceClaves[pos] = ip;
+        indiceFilas[pos] = fila;
+    }
+
+    private int buscarFila(int ip) {
+        int mascara = indiceFilas.length - 1;
+        int pos = mezclar(ip) & mascara;
+        while (indiceFilas[pos] != VACIO) {
+            if (indiceClaves[pos] == ip) {
+                return indiceFilas[pos];
+            }
+            pos = (pos + 1) & mascara;
+        }
+        return VACIO;
+    }
+
+    private static int mezclar(int valor) {
+        int h = valor * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
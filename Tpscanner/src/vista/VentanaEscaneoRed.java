@@ -1,15 +1,31 @@
 package vista;
 
+import controlador.CacheNombres;
+import controlador.EscaneoIncremental;
+import controlador.ExportadorResultados;
+import controlador.HistorialEscaneos;
+import controlador.PuntoControl;
+import controlador.EscanerPuertos;
 import controlador.EscanerRed;
 import controlador.ConfiguracionEscaneo;
+import controlador.SondaEcoTcp;
+import controlador.SondaHost;
+import controlador.SondaIcmp;
+import controlador.SondaTcpNio;
 import modelo.Dispositivo;
+import modelo.PuertosHost;
+import modelo.ResultadoPuerto;
+import util.ConjuntoObjetivos;
+import util.ListaPuertos;
+import util.RangoIPv4;
 import util.ValidadorIP;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -18,15 +34,22 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class VentanaEscaneoRed extends JFrame {
     private final ConfiguracionEscaneo configuracion;
     private EscanerRed escaner;
+    private EscaneoIncremental escaneoIncremental;
+    private EscanerPuertos escanerPuertos;
+    private SondaHost sondaActiva;
+    private HistorialEscaneos historial;
+    private PuntoControl reanudacion;
     
     // Componentes de UI
-    private JTextField campoIpInicio, campoIpFin;
-    private JSpinner spinnerTimeout;
-    private JButton botonIniciar, botonDetener, botonLimpiar;
+    private JTextField campoIpInicio, campoIpFin, campoObjetivos, campoPuertos;
+    private JSpinner spinnerTimeout, spinnerConcurrencia, spinnerTasa, spinnerRafaga;
+    private JCheckBox checkHilosVirtuales, checkTimeoutAdaptativo, checkIncremental, checkExportar;
+    private JComboBox<String> comboSonda;
+    private JButton botonIniciar, botonDetener, botonLimpiar, botonReanudar, botonPuertos;
     private JProgressBar barraProgreso;
     private JLabel etiquetaEstadisticas;
     private JTable tablaResultados;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaDispositivos modeloTabla;
     
     // Métricas
     private final AtomicInteger dispositivosActivos;
@@ -58,7 +81,7 @@ public class VentanaEscaneoRed extends JFrame {
     }
 
     private JPanel crearPanelSuperior() {
-        JPanel panel = new JPanel(new GridLayout(2, 1, 5, 5));
+        JPanel panel = new JPanel(new GridLayout(3, 1, 5, 5));
         panel.setBorder(BorderFactory.createTitledBorder("Configuración de Escaneo"));
         
         // Fila 1: Campos de IP
@@ -75,12 +98,72 @@ public class VentanaEscaneoRed extends JFrame {
         spinnerTimeout = new JSpinner(new SpinnerNumberModel(1000, 100, 10000, 100));
         filaIPs.add(spinnerTimeout);
         
-        // Fila 2: Botones
+        checkHilosVirtuales = new JCheckBox("Hilos virtuales");
+        checkHilosVirtuales.setToolTipText("Una sonda por hilo virtual, con miles de sondas simultáneas");
+        filaIPs.add(checkHilosVirtuales);
+        
+        filaIPs.add(new JLabel("Concurrencia:"));
+        spinnerConcurrencia = new JSpinner(new SpinnerNumberModel(2000, 1, EscanerRed.MAX_HILOS_VIRTUALES, 100));
+        spinnerConcurrencia.setEnabled(false);
+        filaIPs.add(spinnerConcurrencia);
+        
+        // ICMP bloquea en código nativo y retiene el hilo portador: con hilos
+        // virtuales se pasa a Eco TCP y no se deja volver a ICMP
+        filaIPs.add(new JLabel("Sonda:"));
+        comboSonda = new JComboBox<>(new String[] {"ICMP", "Eco TCP", "TCP"});
+        comboSonda.setToolTipText("<html>ICMP: ping de isReachable (solo sin hilos virtuales)<br>"
+            + "Eco TCP: conexión al puerto 7; un RST también cuenta como host activo<br>"
+            + "TCP: conexiones no bloqueantes a los puertos 22, 80, 443 y 445</html>");
+        filaIPs.add(comboSonda);
+        checkHilosVirtuales.addActionListener(e -> {
+            spinnerConcurrencia.setEnabled(checkHilosVirtuales.isSelected());
+            ajustarSondaAHilos();
+        });
+        comboSonda.addActionListener(e -> ajustarSondaAHilos());
+        
+        checkTimeoutAdaptativo = new JCheckBox("Timeout adaptativo");
+        checkTimeoutAdaptativo.setToolTipText("Ajusta el timeout al RTT medido en cada /24, con el valor indicado como máximo");
+        filaIPs.add(checkTimeoutAdaptativo);
+        
+        // Fila 2: Objetivos compuestos (opcional, reemplaza a IP inicio/fin)
+        JPanel filaObjetivos = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filaObjetivos.add(new JLabel("Objetivos:"));
+        campoObjetivos = new JTextField(50);
+        campoObjetivos.setToolTipText("Ej: 10.0.0.0/16, 10.1.0.0/24, !10.0.5.0/24. Vacío usa IP Inicio/IP Fin");
+        filaObjetivos.add(campoObjetivos);
+        
+        checkIncremental = new JCheckBox("Incremental");
+        checkIncremental.setToolTipText("Parte del último escaneo de estos objetivos y muestra solo los cambios");
+        filaObjetivos.add(checkIncremental);
+        
+        filaObjetivos.add(new JLabel("Tasa (pps):"));
+        spinnerTasa = new JSpinner(new SpinnerNumberModel(0, 0, 1_000_000, 100));
+        spinnerTasa.setToolTipText("Sondas por segundo, repartidas de forma pareja; 0 = sin límite");
+        filaObjetivos.add(spinnerTasa);
+        
+        filaObjetivos.add(new JLabel("Ráfaga:"));
+        spinnerRafaga = new JSpinner(new SpinnerNumberModel(10, 1, 10_000, 1));
+        spinnerRafaga.setToolTipText("Sondas seguidas permitidas tras una pausa");
+        filaObjetivos.add(spinnerRafaga);
+        
+        checkExportar = new JCheckBox("Exportar");
+        checkExportar.setToolTipText("Escribe los hosts a CSV o NDJSON (.ndjson, .gz para comprimir) mientras se escanea; en modo incremental, solo los cambios");
+        filaObjetivos.add(checkExportar);
+        
+        // Fila 3: Botones
         JPanel filaBotones = new JPanel(new FlowLayout(FlowLayout.LEFT));
         botonIniciar = new JButton("Iniciar Escaneo");
         botonDetener = new JButton("Detener");
         botonLimpiar = new JButton("Limpiar");
+        botonReanudar = new JButton("Reanudar");
+        botonReanudar.setToolTipText("Continúa el último escaneo interrumpido desde su punto de control");
         JButton botonNetstat = new JButton("Abrir NetStat");
+        JButton botonCacheDns = new JButton("Caché DNS");
+        botonCacheDns.setToolTipText("Capacidad, vigencia y persistencia de la caché de nombres");
+        botonPuertos = new JButton("Escanear Puertos");
+        botonPuertos.setToolTipText("Escanea los puertos de los hosts activos seleccionados, o de todos si no hay selección");
+        campoPuertos = new JTextField(14);
+        campoPuertos.setToolTipText("Ej: 22,80,443 o 1-1024,8080");
         
         // Estilos de botones
         botonIniciar.setBackground(new Color(34, 139, 34));
@@ -94,29 +177,32 @@ public class VentanaEscaneoRed extends JFrame {
         filaBotones.add(botonIniciar);
         filaBotones.add(botonDetener);
         filaBotones.add(botonLimpiar);
+        filaBotones.add(botonReanudar);
         filaBotones.add(botonNetstat);
+        filaBotones.add(botonCacheDns);
+        filaBotones.add(new JLabel("Puertos:"));
+        filaBotones.add(campoPuertos);
+        filaBotones.add(botonPuertos);
         
         // Action Listeners
         botonIniciar.addActionListener(this::iniciarEscaneo);
         botonDetener.addActionListener(e -> detenerEscaneo());
         botonLimpiar.addActionListener(e -> limpiarResultados());
+        botonReanudar.addActionListener(e -> reanudarEscaneo());
         botonNetstat.addActionListener(e -> abrirVentanaNetStat());
+        botonCacheDns.addActionListener(e -> configurarCacheDns());
+        botonPuertos.addActionListener(e -> escanearPuertos());
         
         panel.add(filaIPs);
+        panel.add(filaObjetivos);
         panel.add(filaBotones);
         
         return panel;
     }
 
     private JScrollPane crearPanelCentral() {
-        // Modelo de tabla
-        String[] columnas = {"IP", "Nombre Host", "Estado", "Tiempo Respuesta (ms)", "Timestamp"};
-        modeloTabla = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Modelo de tabla columnar para escaneos grandes
+        modeloTabla = new ModeloTablaDispositivos();
         
         tablaResultados = new JTable(modeloTabla);
         tablaResultados.setAutoCreateRowSorter(true);
@@ -156,37 +242,113 @@ public class VentanaEscaneoRed extends JFrame {
         tablaResultados.getColumnModel().getColumn(2).setPreferredWidth(80);  // Estado
         tablaResultados.getColumnModel().getColumn(3).setPreferredWidth(120); // Tiempo
         tablaResultados.getColumnModel().getColumn(4).setPreferredWidth(150); // Timestamp
+        tablaResultados.getColumnModel().getColumn(5).setPreferredWidth(200); // Puertos
+        tablaResultados.getColumnModel().getColumn(6).setPreferredWidth(130); // Cambio
     }
 
     private void iniciarEscaneo(ActionEvent e) {
         String ipInicio = campoIpInicio.getText().trim();
         String ipFin = campoIpFin.getText().trim();
+        String especificacion = campoObjetivos.getText().trim();
         int timeout = (Integer) spinnerTimeout.getValue();
         
         // Validar IPs
-        if (!ValidadorIP.esIPValida(ipInicio) || !ValidadorIP.esIPValida(ipFin)) {
+        PuntoControl reanudado = reanudacion;
+        reanudacion = null;
+        ConjuntoObjetivos objetivos;
+        try {
+            objetivos = reanudado != null ? reanudado.getPendientes()
+                : especificacion.isEmpty()
+                ? ConjuntoObjetivos.deRango(RangoIPv4.de(ipInicio, ipFin))
+                : ConjuntoObjetivos.parsear(especificacion);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, 
+                especificacion.isEmpty() ? "Por favor ingrese direcciones IP válidas" : ex.getMessage(), 
+                "Error de Validación", 
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (objetivos.estaVacio()) {
             JOptionPane.showMessageDialog(this, 
-                "Por favor ingrese direcciones IP válidas", 
+                "Los objetivos no contienen direcciones a escanear", 
                 "Error de Validación", 
                 JOptionPane.ERROR_MESSAGE);
             return;
         }
         
+        ExportadorResultados exportador = null;
+        if (checkExportar.isSelected()) {
+            exportador = crearExportador();
+            if (exportador == null) {
+                return;
+            }
+        }
+        
+        SondaHost sonda;
+        try {
+            sonda = crearSonda();
+            sondaActiva = sonda;
+        } catch (IOException ex) {
+            if (exportador != null) {
+                exportador.onEscaneoCancelado();
+            }
+            JOptionPane.showMessageDialog(this, 
+                "No se pudo preparar la sonda: " + ex.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
         // Guardar configuración
-        guardarConfiguracion();
+        if (reanudado == null) {
+            guardarConfiguracion();
+            // La línea de comandos la usa cuando "escanear" no recibe objetivos
+            configuracion.guardarUltimaRed(objetivos.toString());
+        }
         
         // Preparar UI
         botonIniciar.setEnabled(false);
+        botonReanudar.setEnabled(false);
         botonDetener.setEnabled(true);
-        dispositivosActivos.set(0);
+        // Los hosts ya confirmados del punto de control cuentan como parte del resultado
+        List<Dispositivo> previos = reanudado != null ? reanudado.getResultados() : List.of();
+        if (reanudado != null) {
+            modeloTabla.limpiar();
+            modeloTabla.agregar(previos);
+        }
+        dispositivosActivos.set(previos.size());
         tiempoInicioEscaneo = System.currentTimeMillis();
         etiquetaEstadisticas.setText("Escaneo en progreso...");
         
         // Crear y configurar escáner
-        escaner = new EscanerRed(ipInicio, ipFin, timeout);
+        boolean virtuales = checkHilosVirtuales.isSelected();
+        int maxHilos = virtuales ? (Integer) spinnerConcurrencia.getValue() : EscanerRed.MAX_HILOS;
+        if (checkIncremental.isSelected() && reanudado == null) {
+            iniciarEscaneoIncremental(objetivos, timeout, maxHilos, virtuales, sonda, exportador);
+            return;
+        }
+        if (reanudado != null) {
+            escaner = EscanerRed.reanudar(reanudado, timeout, maxHilos, virtuales, sonda);
+        } else {
+            escaner = new EscanerRed(objetivos, timeout, maxHilos, virtuales, sonda);
+            escaner.setPuntoControl(configuracion.obtenerArchivoPuntoControl());
+        }
+        escaner.setTimeoutAdaptativo(checkTimeoutAdaptativo.isSelected());
+        escaner.setLimiteTasa((Integer) spinnerTasa.getValue(), (Integer) spinnerRafaga.getValue());
+        HistorialEscaneos historial = abrirHistorial();
+        if (historial != null) {
+            // El historial guarda el conjunto original, no solo lo pendiente
+            escaner.agregarListener(reanudado != null
+                ? historial.crearListener(reanudado.getObjetivos(), previos)
+                : historial.crearListener(objetivos));
+        }
+        if (exportador != null) {
+            exportador.onHostsDescubiertos(previos);
+            escaner.agregarListener(exportador);
+        }
         escaner.agregarListener(new EscanerRed.EscanerRedListener() {
             @Override
-            public void onEscaneoIniciado(int totalIps) {
+            public void onEscaneoIniciado(long totalIps) {
                 SwingUtilities.invokeLater(() -> {
                     barraProgreso.setValue(0);
                     etiquetaEstadisticas.setText(String.format(
@@ -196,15 +358,29 @@ public class VentanaEscaneoRed extends JFrame {
 
             @Override
             public void onHostDescubierto(Dispositivo dispositivo) {
+                onHostsDescubiertos(List.of(dispositivo));
+            }
+
+            @Override
+            public void onHostsDescubiertos(List<Dispositivo> dispositivos) {
+                // Un único runnable por lote en lugar de uno por host
                 SwingUtilities.invokeLater(() -> {
-                    dispositivosActivos.incrementAndGet();
-                    agregarFilaTabla(dispositivo);
+                    dispositivosActivos.addAndGet(dispositivos.size());
+                    modeloTabla.agregar(dispositivos);
                     actualizarEstadisticas();
                 });
             }
 
             @Override
-            public void onProgreso(int completados, int total, double porcentaje) {
+            public void onNombreHostResuelto(Dispositivo dispositivo) {
+                if (dispositivo.getNombreHost().isEmpty()) {
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> actualizarNombreHost(dispositivo));
+            }
+
+            @Override
+            public void onProgreso(long completados, long total, double porcentaje) {
                 SwingUtilities.invokeLater(() -> {
                     barraProgreso.setValue((int) porcentaje);
                     etiquetaEstadisticas.setText(String.format(
@@ -228,8 +404,10 @@ public class VentanaEscaneoRed extends JFrame {
             @Override
             public void onEscaneoCancelado() {
                 SwingUtilities.invokeLater(() -> {
+                    cerrarSonda();
                     etiquetaEstadisticas.setText("Escaneo cancelado por el usuario");
                     botonIniciar.setEnabled(true);
+                    botonReanudar.setEnabled(true);
                     botonDetener.setEnabled(false);
                 });
             }
@@ -239,14 +417,228 @@ public class VentanaEscaneoRed extends JFrame {
         new Thread(() -> escaner.iniciarEscaneo(), "Escaneo-Thread").start();
     }
 
+    private void iniciarEscaneoIncremental(ConjuntoObjetivos objetivos, int timeout, int maxHilos,
+                                           boolean virtuales, SondaHost sonda, ExportadorResultados exportador) {
+        escaneoIncremental = new EscaneoIncremental(objetivos, timeout, maxHilos, virtuales, sonda,
+            configuracion.obtenerArchivoResultados(objetivos));
+        escaneoIncremental.setTimeoutAdaptativo(checkTimeoutAdaptativo.isSelected());
+        escaneoIncremental.setLimiteTasa((Integer) spinnerTasa.getValue(), (Integer) spinnerRafaga.getValue());
+        if (exportador != null) {
+            escaneoIncremental.agregarListener(exportador);
+        }
+        escaneoIncremental.agregarListener(new EscaneoIncremental.EscaneoIncrementalListener() {
+            @Override
+            public void onHostNuevo(Dispositivo dispositivo) {
+                onCambios(List.of(new EscaneoIncremental.Cambio(
+                    EscaneoIncremental.Cambio.Tipo.NUEVO, dispositivo, 0)));
+            }
+
+            @Override
+            public void onHostDesaparecido(Dispositivo anterior) {
+                onCambios(List.of(new EscaneoIncremental.Cambio(
+                    EscaneoIncremental.Cambio.Tipo.DESAPARECIDO, anterior, 0)));
+            }
+
+            @Override
+            public void onCambioRtt(Dispositivo dispositivo, long rttAnteriorMs) {
+                onCambios(List.of(new EscaneoIncremental.Cambio(
+                    EscaneoIncremental.Cambio.Tipo.CAMBIO_RTT, dispositivo, rttAnteriorMs)));
+            }
+
+            @Override
+            public void onCambios(List<EscaneoIncremental.Cambio> cambios) {
+                // Un único runnable por lote, con la etiqueta de cada diferencia
+                SwingUtilities.invokeLater(() -> {
+                    for (EscaneoIncremental.Cambio cambio : cambios) {
+                        if (cambio.getTipo() == EscaneoIncremental.Cambio.Tipo.NUEVO) {
+                            dispositivosActivos.incrementAndGet();
+                        }
+                    }
+                    modeloTabla.agregarCambios(cambios);
+                });
+            }
+
+            @Override
+            public void onNombreHostResuelto(Dispositivo dispositivo) {
+                if (!dispositivo.getNombreHost().isEmpty()) {
+                    SwingUtilities.invokeLater(() -> actualizarNombreHost(dispositivo));
+                }
+            }
+
+            @Override
+            public void onProgreso(long completados, long total, double porcentaje) {
+                SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setValue((int) porcentaje);
+                    etiquetaEstadisticas.setText(String.format(
+                        "Progreso: %d/%d (%.1f%%) - Cambios: %d", 
+                        completados, total, porcentaje, modeloTabla.getRowCount()));
+                });
+            }
+
+            @Override
+            public void onErrorEscaneo(String ip, String error) {
+                System.err.println("Error escaneando " + ip + ": " + error);
+            }
+
+            @Override
+            public void onEscaneoCompletado(int totalActivos, int nuevos, int desaparecidos, long duracionMs) {
+                SwingUtilities.invokeLater(() -> {
+                    finalizarEscaneo(totalActivos, duracionMs);
+                    etiquetaEstadisticas.setText(String.format(
+                        "Escaneo incremental completado - %d activos, %d nuevos, %d desaparecidos en %.2f segundos",
+                        totalActivos, nuevos, desaparecidos, duracionMs / 1000.0));
+                });
+            }
+
+            @Override
+            public void onEscaneoCancelado() {
+                SwingUtilities.invokeLater(() -> {
+                    cerrarSonda();
+                    etiquetaEstadisticas.setText("Escaneo cancelado por el usuario");
+                    botonIniciar.setEnabled(true);
+                    botonReanudar.setEnabled(true);
+                    botonDetener.setEnabled(false);
+                });
+            }
+        });
+        escaneoIncremental.iniciarEscaneo();
+    }
+
+    /**
+     * Carga el punto de control y escanea lo pendiente; iniciarEscaneo muestra,
+     * exporta y registra también los hosts ya confirmados
+     */
+    private void reanudarEscaneo() {
+        PuntoControl puntoControl;
+        try {
+            puntoControl = PuntoControl.cargar(configuracion.obtenerArchivoPuntoControl());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, 
+                "No hay un escaneo para reanudar", 
+                "Reanudar", 
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        reanudacion = puntoControl;
+        iniciarEscaneo(null);
+    }
+
     private void detenerEscaneo() {
+        if (escaneoIncremental != null && escaneoIncremental.isEscaneoEnCurso()) {
+            escaneoIncremental.cancelarEscaneo();
+        }
         if (escaner != null && escaner.isEscaneoEnCurso()) {
             escaner.cancelarEscaneo();
         }
+        if (escanerPuertos != null && escanerPuertos.isEscaneoEnCurso()) {
+            escanerPuertos.cancelarEscaneo();
+        }
+    }
+
+    /**
+     * Escanea los puertos indicados en los hosts activos seleccionados (o en todos)
+     * y va completando la columna de puertos abiertos
+     */
+    private void escanearPuertos() {
+        int[] puertos;
+        try {
+            puertos = ListaPuertos.parsear(campoPuertos.getText());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        int[] seleccion = tablaResultados.getSelectedRows();
+        for (int i = 0; i < seleccion.length; i++) {
+            seleccion[i] = tablaResultados.convertRowIndexToModel(seleccion[i]);
+        }
+        List<Dispositivo> hosts = seleccion.length > 0 ? modeloTabla.activos(seleccion) : modeloTabla.activos();
+        if (hosts.isEmpty()) {
+            JOptionPane.showMessageDialog(this, 
+                "No hay hosts activos para escanear", 
+                "Escanear Puertos", 
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        configuracion.guardarPuertos(campoPuertos.getText());
+        escanerPuertos = new EscanerPuertos(hosts, puertos, (Integer) spinnerTimeout.getValue());
+        botonIniciar.setEnabled(false);
+        botonPuertos.setEnabled(false);
+        botonDetener.setEnabled(true);
+        escanerPuertos.agregarListener(new EscanerPuertos.EscanerPuertosListener() {
+            private int abiertos;
+
+            @Override
+            public void onEscaneoIniciado(int totalHosts, long totalSondas) {
+                SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setValue(0);
+                    etiquetaEstadisticas.setText(String.format(
+                        "Escaneando %d puertos en %d hosts...", puertos.length, totalHosts));
+                });
+            }
+
+            @Override
+            public void onResultados(List<ResultadoPuerto> resultados) {
+                for (ResultadoPuerto resultado : resultados) {
+                    if (resultado.getEstado() == ResultadoPuerto.Estado.ABIERTO) {
+                        abiertos++;
+                    }
+                }
+            }
+
+            @Override
+            public void onHostCompletado(PuertosHost puertosHost) {
+                SwingUtilities.invokeLater(() -> modeloTabla.actualizarPuertos(puertosHost));
+            }
+
+            @Override
+            public void onProgreso(long completadas, long total, double porcentaje) {
+                int abiertosHastaAhora = abiertos;
+                SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setValue((int) porcentaje);
+                    etiquetaEstadisticas.setText(String.format(
+                        "Puertos: %d/%d (%.1f%%) - Abiertos: %d", 
+                        completadas, total, porcentaje, abiertosHastaAhora));
+                });
+            }
+
+            @Override
+            public void onErrorEscaneo(String ip, String error) {
+                System.err.println("Error escaneando puertos " + ip + ": " + error);
+            }
+
+            @Override
+            public void onEscaneoCompletado(int puertosAbiertos, long duracionMs) {
+                SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setValue(100);
+                    etiquetaEstadisticas.setText(String.format(
+                        "Escaneo de puertos completado - %d puertos abiertos en %.2f segundos",
+                        puertosAbiertos, duracionMs / 1000.0));
+                    finalizarEscaneoPuertos();
+                });
+            }
+
+            @Override
+            public void onEscaneoCancelado() {
+                SwingUtilities.invokeLater(() -> {
+                    etiquetaEstadisticas.setText("Escaneo de puertos cancelado");
+                    finalizarEscaneoPuertos();
+                });
+            }
+        });
+        escanerPuertos.iniciarEscaneo();
+    }
+
+    private void finalizarEscaneoPuertos() {
+        botonIniciar.setEnabled(true);
+        botonPuertos.setEnabled(true);
+        botonDetener.setEnabled(false);
     }
 
     private void limpiarResultados() {
-        modeloTabla.setRowCount(0);
+        modeloTabla.limpiar();
         dispositivosActivos.set(0);
         barraProgreso.setValue(0);
         etiquetaEstadisticas.setText("Resultados limpiados");
@@ -259,23 +651,113 @@ public class VentanaEscaneoRed extends JFrame {
         });
     }
 
-    private void agregarFilaTabla(Dispositivo dispositivo) {
-        Object[] fila = {
-            dispositivo.getDireccionIP(),
-            dispositivo.getNombreHost(),
-            dispositivo.estaEnLinea() ? "ACTIVO" : "INACTIVO",
-            dispositivo.getTiempoRespuesta(),
-            java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"))
-        };
-        modeloTabla.addRow(fila);
+    /**
+     * Diálogo con los ajustes de la caché DNS; al aceptar se guardan y se aplican a la caché compartida
+     */
+    private void configurarCacheDns() {
+        CacheNombres cache = CacheNombres.compartida();
+        JCheckBox checkPersistente = new JCheckBox("Guardar en disco entre sesiones",
+            configuracion.cargarCacheDnsPersistente());
+        JSpinner spinnerCapacidad = new JSpinner(new SpinnerNumberModel(
+            configuracion.cargarCapacidadCacheDns(), 1, 1_000_000, 1000));
+        JSpinner spinnerTtl = new JSpinner(new SpinnerNumberModel(
+            configuracion.cargarTtlCacheDns(), 0, 7 * 24 * 3600, 60));
+        JSpinner spinnerTtlNegativo = new JSpinner(new SpinnerNumberModel(
+            configuracion.cargarTtlNegativoCacheDns(), 0, 24 * 3600, 60));
+
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel("Entradas máximas:"));
+        panel.add(spinnerCapacidad);
+        panel.add(new JLabel("Vigencia de nombres (s):"));
+        panel.add(spinnerTtl);
+        panel.add(new JLabel("Vigencia sin nombre (s):"));
+        panel.add(spinnerTtlNegativo);
+        panel.add(checkPersistente);
+        panel.add(new JLabel(String.format("%d en caché, %d aciertos, %d fallos",
+            cache.tamanio(), cache.getAciertos(), cache.getFallos())));
+
+        if (JOptionPane.showConfirmDialog(this, panel, "Caché DNS",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        // Se vuelca antes para que aplicarCacheDns no recargue una copia vieja del disco
+        configuracion.persistirCacheDns(cache);
+        configuracion.guardarCapacidadCacheDns((Integer) spinnerCapacidad.getValue());
+        configuracion.guardarTtlCacheDns((Integer) spinnerTtl.getValue());
+        configuracion.guardarTtlNegativoCacheDns((Integer) spinnerTtlNegativo.getValue());
+        configuracion.guardarCacheDnsPersistente(checkPersistente.isSelected());
+        configuracion.aplicarCacheDns(cache);
+    }
+
+    private void actualizarNombreHost(Dispositivo dispositivo) {
+        modeloTabla.actualizarNombre(dispositivo);
     }
 
     private void actualizarEstadisticas() {
         // Actualizado en onProgreso
     }
 
+    private void ajustarSondaAHilos() {
+        if (checkHilosVirtuales.isSelected() && comboSonda.getSelectedIndex() == 0) {
+            comboSonda.setSelectedIndex(1);
+        }
+    }
+
+    private SondaHost crearSonda() throws IOException {
+        return switch (comboSonda.getSelectedIndex()) {
+            case 1 -> new SondaEcoTcp();
+            case 2 -> new SondaTcpNio();
+            default -> new SondaIcmp();
+        };
+    }
+
+    /**
+     * Pide el archivo de exportación; null si el usuario cancela o no se puede crear
+     */
+    private ExportadorResultados crearExportador() {
+        JFileChooser selector = new JFileChooser();
+        selector.setSelectedFile(new java.io.File("escaneo.csv"));
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
+        try {
+            // Cada fila se escribe al descubrir el host; los nombres solo llegan a la tabla
+            return ExportadorResultados.paraArchivo(selector.getSelectedFile().toPath(), false);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, 
+                "No se pudo crear el archivo: " + ex.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+
+    /**
+     * El historial se abre una vez; si falla, el escaneo sigue sin guardarse
+     */
+    private HistorialEscaneos abrirHistorial() {
+        if (historial == null) {
+            try {
+                historial = HistorialEscaneos.abrir(configuracion.obtenerDirectorioHistorial());
+            } catch (IOException e) {
+                System.err.println("Error abriendo historial de escaneos: " + e.getMessage());
+            }
+        }
+        return historial;
+    }
+
+    private void cerrarSonda() {
+        if (sondaActiva != null) {
+            sondaActiva.close();
+            sondaActiva = null;
+        }
+    }
+
     private void finalizarEscaneo(int totalActivos, long duracionMs) {
+        cerrarSonda();
+        configuracion.persistirCacheDns(CacheNombres.compartida());
         botonIniciar.setEnabled(true);
+        botonReanudar.setEnabled(true);
         botonDetener.setEnabled(false);
         
         double duracionSegundos = duracionMs / 1000.0;
@@ -296,15 +778,27 @@ public class VentanaEscaneoRed extends JFrame {
         String ipBase = configuracion.cargarIpBase();
         campoIpInicio.setText(ipBase + "1");
         campoIpFin.setText(ipBase + "254");
+        campoObjetivos.setText(configuracion.cargarObjetivos());
+        checkIncremental.setSelected(configuracion.cargarIncremental());
+        spinnerTasa.setValue(configuracion.cargarTasaPaquetes());
+        spinnerRafaga.setValue(configuracion.cargarRafaga());
         spinnerTimeout.setValue(configuracion.cargarTiempoEspera());
+        checkTimeoutAdaptativo.setSelected(configuracion.cargarTimeoutAdaptativo());
+        campoPuertos.setText(configuracion.cargarPuertos());
+        configuracion.aplicarCacheDns(CacheNombres.compartida());
     }
 
     private void guardarConfiguracion() {
         String ipInicio = campoIpInicio.getText().trim();
-        String ipBase = ipInicio.substring(0, ipInicio.lastIndexOf('.') + 1);
-        
-        configuracion.guardarIpBase(ipBase);
+        if (ValidadorIP.esIPValida(ipInicio)) {
+            configuracion.guardarIpBase(ipInicio.substring(0, ipInicio.lastIndexOf('.') + 1));
+        }
+        configuracion.guardarObjetivos(campoObjetivos.getText());
+        configuracion.guardarIncremental(checkIncremental.isSelected());
+        configuracion.guardarTasaPaquetes((Integer) spinnerTasa.getValue());
+        configuracion.guardarRafaga((Integer) spinnerRafaga.getValue());
         configuracion.guardarTiempoEspera((Integer) spinnerTimeout.getValue());
+        configuracion.guardarTimeoutAdaptativo(checkTimeoutAdaptativo.isSelected());
     }
 
     // Renderer personalizado para columna de estado
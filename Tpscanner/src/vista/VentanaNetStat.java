@@ -2,25 +2,30 @@ package vista;
 
 import controlador.GestorNetStat;
 import modelo.ConexionRed;
+import modelo.InstantaneaConexiones;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Ventana especializada para las 3 funciones de NetStat
+ * Ventana especializada para las 3 funciones de NetStat, más un modo monitoreo
+ * que mantiene la tabla al día aplicando solo los cambios
  */
 public class VentanaNetStat extends JFrame {
+    private static final long INTERVALO_MONITOREO_MS = 500;
+
     private final GestorNetStat gestorNetStat;
     
     // Componentes de UI
     private JButton botonConexionesActivas, botonPuertosEscucha, botonEstadisticas;
+    private JToggleButton botonMonitorear;
     private JTabbedPane panelPestanias;
     private JTextArea areaTexto;
     private JTable tablaConexiones;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaConexiones modeloTabla;
     private JProgressBar barraProgreso;
     private JLabel etiquetaEstado;
 
@@ -59,10 +64,15 @@ public class VentanaNetStat extends JFrame {
         botonConexionesActivas.setToolTipText("Muestra todas las conexiones de red establecidas");
         botonPuertosEscucha.setToolTipText("Muestra puertos locales en espera de conexiones");
         botonEstadisticas.setToolTipText("Muestra estadísticas de protocolos de red");
+
+        botonMonitorear = new JToggleButton("Monitorear");
+        botonMonitorear.setToolTipText("Muestra todas las conexiones y las actualiza cada "
+            + INTERVALO_MONITOREO_MS + " ms");
         
         panel.add(botonConexionesActivas);
         panel.add(botonPuertosEscucha);
         panel.add(botonEstadisticas);
+        panel.add(botonMonitorear);
         
         return panel;
     }
@@ -84,10 +94,7 @@ public class VentanaNetStat extends JFrame {
         
         // Pestaña 1: Tabla de conexiones
         JPanel pestaniaTabla = new JPanel(new BorderLayout());
-        modeloTabla = new DefaultTableModel(new String[]{
-            "Protocolo", "Dirección Local", "Puerto Local", 
-            "Dirección Remota", "Puerto Remoto", "Estado", "PID", "Proceso"
-        }, 0);
+        modeloTabla = new ModeloTablaConexiones();
         
         tablaConexiones = new JTable(modeloTabla);
         tablaConexiones.setAutoCreateRowSorter(true);
@@ -138,6 +145,13 @@ public class VentanaNetStat extends JFrame {
         botonConexionesActivas.addActionListener(e -> ejecutarFuncionNetStat(1));
         botonPuertosEscucha.addActionListener(e -> ejecutarFuncionNetStat(2));
         botonEstadisticas.addActionListener(e -> ejecutarFuncionNetStat(3));
+        botonMonitorear.addActionListener(e -> {
+            if (botonMonitorear.isSelected()) {
+                iniciarMonitoreo();
+            } else {
+                detenerMonitoreo();
+            }
+        });
         
         // Configurar listener del gestor NetStat
         gestorNetStat.agregarListener(new GestorNetStat.NetStatListener() {
@@ -167,9 +181,16 @@ public class VentanaNetStat extends JFrame {
                 });
             }
 
+            @Override
+            public void onCambiosMonitoreo(List<GestorNetStat.CambioConexion> cambios) {
+                // Una sola tarea en el EDT por vuelta, no una por conexión
+                SwingUtilities.invokeLater(() -> modeloTabla.aplicar(cambios));
+            }
+
             @Override
             public void onErrorNetStat(String error) {
                 SwingUtilities.invokeLater(() -> {
+                    botonMonitorear.setSelected(false);
                     barraProgreso.setVisible(false);
                     etiquetaEstado.setText("Error: " + error);
                     habilitarBotones(true);
@@ -181,6 +202,11 @@ public class VentanaNetStat extends JFrame {
     }
 
     private void ejecutarFuncionNetStat(int funcion) {
+        // La tabla pasa a mostrar el resultado puntual: los cambios ya no aplican
+        if (botonMonitorear.isSelected()) {
+            botonMonitorear.setSelected(false);
+            detenerMonitoreo();
+        }
         new Thread(() -> {
             switch (funcion) {
                 case 1 -> mostrarConexionesActivas();
@@ -193,19 +219,7 @@ public class VentanaNetStat extends JFrame {
     private void mostrarConexionesActivas() {
         List<ConexionRed> conexiones = gestorNetStat.obtenerConexionesActivas();
         SwingUtilities.invokeLater(() -> {
-            modeloTabla.setRowCount(0);
-            for (ConexionRed conexion : conexiones) {
-                modeloTabla.addRow(new Object[]{
-                    conexion.getProtocolo(),
-                    conexion.getDireccionLocal(),
-                    conexion.getPuertoLocal(),
-                    conexion.getDireccionRemota(),
-                    conexion.getPuertoRemoto(),
-                    conexion.getEstado(),
-                    conexion.getPid() > 0 ? conexion.getPid() : "N/A",
-                    conexion.getNombreProceso()
-                });
-            }
+            modeloTabla.reemplazar(conexiones);
             panelPestanias.setSelectedIndex(0); // Cambiar a pestaña de tabla
         });
     }
@@ -213,23 +227,50 @@ public class VentanaNetStat extends JFrame {
     private void mostrarPuertosEscucha() {
         List<ConexionRed> puertos = gestorNetStat.obtenerPuertosEscucha();
         SwingUtilities.invokeLater(() -> {
-            modeloTabla.setRowCount(0);
-            for (ConexionRed puerto : puertos) {
-                modeloTabla.addRow(new Object[]{
-                    puerto.getProtocolo(),
-                    puerto.getDireccionLocal(),
-                    puerto.getPuertoLocal(),
-                    puerto.getDireccionRemota(),
-                    puerto.getPuertoRemoto(),
-                    puerto.getEstado(),
-                    puerto.getPid() > 0 ? puerto.getPid() : "N/A",
-                    puerto.getNombreProceso()
-                });
-            }
+            modeloTabla.reemplazar(puertos);
             panelPestanias.setSelectedIndex(0);
         });
     }
 
+    /**
+     * Carga la tabla completa una vez; después llegan solo altas, bajas y
+     * cambios de estado por el listener
+     */
+    private void iniciarMonitoreo() {
+        etiquetaEstado.setText("Iniciando monitoreo...");
+        new Thread(() -> {
+            try {
+                InstantaneaConexiones inicial = gestorNetStat.iniciarMonitoreo(INTERVALO_MONITOREO_MS);
+                SwingUtilities.invokeLater(() -> {
+                    if (!botonMonitorear.isSelected()) {
+                        gestorNetStat.detenerMonitoreo(); // Se apagó mientras arrancaba
+                        return;
+                    }
+                    modeloTabla.reemplazar(inicial.getConexiones());
+                    panelPestanias.setSelectedIndex(0);
+                    etiquetaEstado.setText(String.format("Monitoreando %d conexiones cada %d ms",
+                        inicial.size(), INTERVALO_MONITOREO_MS));
+                });
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> {
+                    botonMonitorear.setSelected(false);
+                    etiquetaEstado.setText("Error: " + e.getMessage());
+                });
+            }
+        }, "NetStat-Thread").start();
+    }
+
+    private void detenerMonitoreo() {
+        gestorNetStat.detenerMonitoreo();
+        etiquetaEstado.setText("Monitoreo detenido");
+    }
+
+    @Override
+    public void dispose() {
+        gestorNetStat.detenerMonitoreo();
+        super.dispose();
+    }
+
     private void mostrarEstadisticas() {
         Map<String, Integer> estadisticas = gestorNetStat.obtenerEstadisticasProtocolos();
         SwingUtilities.invokeLater(() -> {